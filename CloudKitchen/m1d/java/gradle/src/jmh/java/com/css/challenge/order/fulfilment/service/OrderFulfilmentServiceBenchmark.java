@@ -0,0 +1,141 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * placeOrder and pickupOrder through the service on a kitchen of hot, cold and room shelves of
+ * shelfSize each, prefilled to fillPercent. The action log grows with every operation, so the
+ * service is rebuilt every iteration and iterations are short.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderFulfilmentServiceBenchmark {
+    private static final int ORDERS_PER_THREAD = 1024;
+    private static final int BATCH_SIZE = 64;
+    private static final String[] MIXED = {Temperature.HOT, Temperature.COLD, Temperature.ROOM};
+
+    @Param({"SYNCHRONIZED", "CONCURRENT", "PRIMITIVE"})
+    public ShelfImplementation implementation;
+
+    @Param({"6", "256"})
+    public int shelfSize;
+
+    @Param({"0", "50", "100"})
+    public int fillPercent;
+
+    // hot: every order overflows to the room shelf once the hot shelf is full, mixed: all zones
+    @Param({"hot", "mixed"})
+    public String temperatureMix;
+
+    OrderFulfilmentService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ShelfRegistry shelfRegistry = ShelfRegistry.builder(implementation)
+                .shelf(TemperatureZone.HOT, shelfSize)
+                .shelf(TemperatureZone.COLD, shelfSize)
+                .shelf(TemperatureZone.ROOM, shelfSize)
+                .evictionPolicy(EvictionPolicyType.EARLIEST_EXPIRY.create(5000, 42))
+                .build();
+        service = new OrderFulfilmentService(shelfRegistry);
+        Random random = new Random(shelfSize);
+        for (String temp : MIXED) {
+            for (int i = 0; i < shelfSize * fillPercent / 100; i++) {
+                String id = "fill-" + temp + "-" + i;
+                service.placeOrder(new Order(id, id, temp, 3600 + random.nextInt(3600)));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrders {
+        Order[] orders;
+        Order[] staleOrders;
+        int next;
+
+        @Setup
+        public void setUp(OrderFulfilmentServiceBenchmark benchmark, ThreadParams threadParams) {
+            Random random = new Random(threadParams.getThreadIndex());
+            orders = new Order[ORDERS_PER_THREAD];
+            for (int i = 0; i < orders.length; i++) {
+                String id = "t" + threadParams.getThreadIndex() + "-" + i;
+                String temp = "mixed".equals(benchmark.temperatureMix) ? MIXED[random.nextInt(MIXED.length)] : Temperature.HOT;
+                orders[i] = new Order(id, id, temp, 3600 + random.nextInt(3600));
+            }
+            // Already expired wherever they are placed, so each one is the next to be discarded
+            staleOrders = new Order[ORDERS_PER_THREAD];
+            for (int i = 0; i < staleOrders.length; i++) {
+                staleOrders[i] = new Order(orders[i].getId(), orders[i].getName(), orders[i].getTemp(), -2);
+            }
+        }
+
+        Order next() {
+            Order order = orders[next];
+            next = (next + 1) & (ORDERS_PER_THREAD - 1);
+            return order;
+        }
+
+        // Consecutive orders, BATCH_SIZE divides ORDERS_PER_THREAD so a batch never wraps
+        List<Order> nextBatch() {
+            List<Order> batch = Arrays.asList(orders).subList(next, next + BATCH_SIZE);
+            next = (next + BATCH_SIZE) & (ORDERS_PER_THREAD - 1);
+            return batch;
+        }
+
+        Order nextStale() {
+            Order order = staleOrders[next];
+            next = (next + 1) & (ORDERS_PER_THREAD - 1);
+            return order;
+        }
+    }
+
+    @Benchmark
+    public void placePickup(ThreadOrders threadOrders) {
+        Order order = threadOrders.next();
+        service.placeOrder(order);
+        service.pickupOrder(order.getId());
+    }
+
+    /** placePickup for a burst of orders placed with one placeOrders call, per order. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void placePickupBatch(ThreadOrders threadOrders) {
+        List<Order> batch = threadOrders.nextBatch();
+        service.placeOrders(batch);
+        for (Order order : batch) {
+            service.pickupOrder(order.getId());
+        }
+    }
+
+    /**
+     * Full kitchen: the new order finds no space anywhere and nothing to move, so the room order
+     * closest to expiry is discarded to place it. The courier never arrives and orders are placed
+     * already expired, so once the fill orders are gone the oldest placed order is discarded first.
+     */
+    @Benchmark
+    public void placeOnFullKitchen(ThreadOrders threadOrders) {
+        service.placeOrder(threadOrders.nextStale());
+    }
+}
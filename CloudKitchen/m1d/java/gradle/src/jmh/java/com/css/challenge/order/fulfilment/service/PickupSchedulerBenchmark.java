@@ -0,0 +1,67 @@
+package com.css.challenge.order.fulfilment.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Scheduling pickups on top of a standing load of pending pickups that are not due during the run,
+ * as many outstanding couriers would be. Scheduled pickups are due within a short delay, so the
+ * benchmark also pays for running them while the load stays at pending. Run with -prof gc to
+ * compare the allocation per pickup.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PickupSchedulerBenchmark {
+    private static final int IDS = 1024;
+
+    @Param({"EXECUTOR", "TIMING_WHEEL"})
+    public PickupSchedulerType type;
+
+    @Param({"1000000"})
+    public int pending;
+
+    @Param({"100"})
+    public int maxDelayMillis;
+
+    private final LongAdder pickedUp = new LongAdder();
+    private final String[] ids = new String[IDS];
+    private PickupScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = type.create(4, orderId -> pickedUp.increment());
+        Random random = new Random(42);
+        for (int i = 0; i < pending; i++) {
+            // An hour or more away, well after the trial ends
+            scheduler.schedule("pending" + i, 3_600_000L + random.nextInt(3_600_000));
+        }
+        for (int i = 0; i < IDS; i++) {
+            ids[i] = "order" + i;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Benchmark
+    public void schedule() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        scheduler.schedule(ids[random.nextInt(IDS)], random.nextInt(maxDelayMillis));
+    }
+}
@@ -0,0 +1,76 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Random;
+
+/**
+ * placeOrder and pickupOrder through a {@link ShardedOrderFulfilment} of shards kitchens of hot,
+ * cold and room shelves of 256 each. Run with -PjmhThreads at least the number of shards: with one
+ * shard every thread contends on the same shelves, with more the contention splits across them.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardedOrderFulfilmentBenchmark {
+    private static final int ORDERS_PER_THREAD = 1024;
+    private static final String[] MIXED = {Temperature.HOT, Temperature.COLD, Temperature.ROOM};
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"SYNCHRONIZED", "CONCURRENT"})
+    public ShelfImplementation implementation;
+
+    ShardedOrderFulfilment fulfilment;
+
+    // The action logs grow with every operation, rebuilt every iteration
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fulfilment = new ShardedOrderFulfilment(shards, ShardKey.ORDER_ID,
+                () -> ShelfRegistry.standard(256, 256, 256, implementation));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrders {
+        Order[] orders;
+        int next;
+
+        @Setup
+        public void setUp(ThreadParams threadParams) {
+            Random random = new Random(threadParams.getThreadIndex());
+            orders = new Order[ORDERS_PER_THREAD];
+            for (int i = 0; i < orders.length; i++) {
+                String id = "t" + threadParams.getThreadIndex() + "-" + i;
+                orders[i] = new Order(id, id, MIXED[random.nextInt(MIXED.length)], 3600 + random.nextInt(3600));
+            }
+        }
+
+        Order next() {
+            Order order = orders[next];
+            next = (next + 1) & (ORDERS_PER_THREAD - 1);
+            return order;
+        }
+    }
+
+    @Benchmark
+    public void placePickup(ThreadOrders threadOrders) {
+        Order order = threadOrders.next();
+        fulfilment.placeOrder(order);
+        fulfilment.pickupOrder(order.getId());
+    }
+}
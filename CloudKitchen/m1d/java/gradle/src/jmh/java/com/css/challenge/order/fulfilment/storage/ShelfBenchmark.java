@@ -0,0 +1,105 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.client.TemperatureZone;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Random;
+
+/**
+ * Shelf operations on a room shelf filled to fillPercent. Every thread puts and removes its own
+ * orders, so with more threads the shelf is shared but the orders are not.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShelfBenchmark {
+    private static final int ORDERS_PER_THREAD = 1024;
+
+    @Param({"SYNCHRONIZED", "CONCURRENT", "PRIMITIVE"})
+    public ShelfImplementation implementation;
+
+    @Param({"12", "1024"})
+    public int shelfSize;
+
+    @Param({"0", "50", "90"})
+    public int fillPercent;
+
+    // ideal: room orders only, mixed: hot, cold and room orders, the non-ideal ones are indexed per zone
+    @Param({"ideal", "mixed"})
+    public String temperatureMix;
+
+    ShelfStorage shelf;
+
+    @Setup
+    public void setUp() {
+        shelf = implementation.create(shelfSize, Temperature.ROOM);
+        Random random = new Random(shelfSize);
+        for (int i = 0; i < shelfSize * fillPercent / 100; i++) {
+            String id = "fill-" + i;
+            shelf.put(id, order(id, temperatureMix, random));
+        }
+    }
+
+    static Order order(String id, String temperatureMix, Random random) {
+        String temp = Temperature.ROOM;
+        if ("mixed".equals(temperatureMix)) {
+            temp = switch (random.nextInt(3)) {
+                case 0 -> Temperature.HOT;
+                case 1 -> Temperature.COLD;
+                default -> Temperature.ROOM;
+            };
+        }
+        // Long enough to never expire during a run
+        return new Order(id, id, temp, 3600 + random.nextInt(3600));
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOrders {
+        Order[] orders;
+        int next;
+
+        @Setup
+        public void setUp(ShelfBenchmark benchmark, ThreadParams threadParams) {
+            Random random = new Random(threadParams.getThreadIndex());
+            orders = new Order[ORDERS_PER_THREAD];
+            for (int i = 0; i < orders.length; i++) {
+                orders[i] = order("t" + threadParams.getThreadIndex() + "-" + i, benchmark.temperatureMix, random);
+            }
+        }
+
+        Order next() {
+            Order order = orders[next];
+            next = (next + 1) & (ORDERS_PER_THREAD - 1);
+            return order;
+        }
+    }
+
+    @Benchmark
+    public boolean putRemove(ThreadOrders threadOrders) {
+        Order order = threadOrders.next();
+        // The put fails when other threads took the free slots, the remove is then a miss
+        shelf.put(order.getId(), order);
+        return shelf.remove(order.getId());
+    }
+
+    @Benchmark
+    public Order findEligibleOrder() {
+        return shelf.findEligibleOrder(TemperatureZone.HOT);
+    }
+
+    @Benchmark
+    public boolean containsOrder(ThreadOrders threadOrders) {
+        return shelf.containsOrder(threadOrders.next().getId());
+    }
+}
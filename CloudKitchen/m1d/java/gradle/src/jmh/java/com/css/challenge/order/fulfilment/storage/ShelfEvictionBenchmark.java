@@ -0,0 +1,75 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+/**
+ * Full room shelf: every operation evicts one order and places a new one, so the shelf stays full.
+ * With expired set every order has already expired and the expiry index decides, otherwise no
+ * order has expired and the eviction policy scans the shelf.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShelfEvictionBenchmark {
+    private static final int ORDERS = 4096;
+
+    @Param({"SYNCHRONIZED", "CONCURRENT", "PRIMITIVE"})
+    public ShelfImplementation implementation;
+
+    @Param({"12", "1024"})
+    public int shelfSize;
+
+    @Param({"EARLIEST_EXPIRY", "LEAST_FRESHNESS", "LARGEST_PICKUP_WAIT", "RANDOM_SAMPLE"})
+    public EvictionPolicyType policy;
+
+    @Param({"true", "false"})
+    public boolean expired;
+
+    ShelfStorage shelf;
+    Order[] orders;
+    int next;
+
+    @Setup
+    public void setUp() {
+        shelf = implementation.create(shelfSize, Temperature.ROOM);
+        shelf.setEvictionPolicy(policy.create(5000, 42));
+        Random random = new Random(42);
+        orders = new Order[ORDERS];
+        for (int i = 0; i < ORDERS; i++) {
+            String id = "order-" + i;
+            // Negative freshness places orders that have already expired
+            orders[i] = new Order(id, id, Temperature.ROOM, expired ? -1 : 3600 + random.nextInt(3600));
+        }
+        while (shelf.hasSpace()) {
+            place();
+        }
+    }
+
+    private boolean place() {
+        Order order;
+        do {
+            // Policies may keep an old order around longer than one cycle of the order ids
+            order = orders[next];
+            next = (next + 1) % ORDERS;
+        } while (shelf.containsOrder(order.getId()));
+        return shelf.put(order.getId(), order);
+    }
+
+    @Benchmark
+    public boolean evictAndPlace() {
+        shelf.evictStaleOrder();
+        return place();
+    }
+}
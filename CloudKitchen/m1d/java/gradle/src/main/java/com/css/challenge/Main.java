@@ -2,13 +2,47 @@ package com.css.challenge;
 
 import com.css.challenge.client.Action;
 import com.css.challenge.client.Client;
+import com.css.challenge.client.Order;
 import com.css.challenge.client.Problem;
+import com.css.challenge.client.ProblemCache;
+import com.css.challenge.client.ProblemFile;
+import com.css.challenge.client.ProblemStream;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.configuration.ConfigWatcher;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import com.css.challenge.order.fulfilment.journal.ActionJournalReader;
+import com.css.challenge.order.fulfilment.metrics.MetricsReporter;
+import com.css.challenge.order.fulfilment.recovery.RecoveredState;
+import com.css.challenge.order.fulfilment.recovery.Recovery;
+import com.css.challenge.order.fulfilment.service.ActionLog;
+import com.css.challenge.order.fulfilment.service.AdmissionControl;
+import com.css.challenge.order.fulfilment.service.BackpressurePolicy;
+import com.css.challenge.order.fulfilment.service.ExpirySweeper;
+import com.css.challenge.order.fulfilment.service.LiveTuning;
+import com.css.challenge.order.fulfilment.service.OrderFulfilment;
 import com.css.challenge.order.fulfilment.service.OrderFulfilmentService;
 import com.css.challenge.order.fulfilment.service.OrderService;
+import com.css.challenge.order.fulfilment.service.OrderSource;
+import com.css.challenge.order.fulfilment.service.PickupSchedulerType;
+import com.css.challenge.order.fulfilment.service.PlacementStrategy;
+import com.css.challenge.order.fulfilment.service.ShardKey;
+import com.css.challenge.order.fulfilment.service.ShardedOrderFulfilment;
+import com.css.challenge.order.fulfilment.service.Snapshotter;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
 import org.apache.log4j.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +68,9 @@ public class Main implements Runnable {
   @Option(names = "--name", description = "Problem name. Leave blank (optional)")
   String name = "";
 
+  @Option(names = "--gzip", description = "Submit the solution gzip compressed")
+  boolean gzip;
+
   @Option(names = "--seed", description = "Problem seed (random if zero)")
   long seed = 0;
 
@@ -55,29 +92,396 @@ public class Main implements Runnable {
   @Option(names = "--roomcapacity", description = "Room Shelf Capacity")
   int roomcapacity = 12;
 
+  @Option(names = "--shelf", description = "Shelf implementation: ${COMPLETION-CANDIDATES}")
+  ShelfImplementation shelf = ShelfImplementation.SYNCHRONIZED;
+
+  @Option(
+      names = "--topology",
+      description = "Shelves per zone, e.g. hot=6+6,cold=6,frozen=4,room=12. Overrides the capacities")
+  String topology = "";
+
+  @Option(names = "--fallback", description = "Fallback chains, e.g. frozen=cold>room (default: room)")
+  String fallback = "";
+
+  @Option(
+      names = "--eviction",
+      description = "Eviction policy when no order has expired: ${COMPLETION-CANDIDATES}")
+  EvictionPolicyType eviction = EvictionPolicyType.EXPIRED_ONLY;
+
+  @Option(
+      names = "--placement",
+      description =
+          "Placement strategy: ${COMPLETION-CANDIDATES}. PICKUP_AWARE sends orders that stay fresh"
+              + " until pickup to the fallback shelf first")
+  PlacementStrategy placement = PlacementStrategy.GREEDY;
+
+  @Option(
+      names = "--pickup-scheduler",
+      description = "Scheduler of the courier pickups: ${COMPLETION-CANDIDATES}")
+  PickupSchedulerType pickupScheduler = PickupSchedulerType.EXECUTOR;
+
+  @Option(
+      names = "--journal",
+      description = "New directory for a memory-mapped action journal, only a tail stays on the heap")
+  String journal = "";
+
+  @Option(
+      names = "--snapshot",
+      description = "File for periodic shelf snapshots, every snapshot.interval.ms. Requires --journal")
+  String snapshot = "";
+
+  @Option(
+      names = "--recover",
+      description =
+          "Recover the shelves from --snapshot and --journal after a restart and continue the problem."
+              + " Use the same --seed")
+  boolean recover;
+
+  @Option(
+      names = "--simulate",
+      description =
+          "Run the problem in virtual time, as fast as possible and reproducible for a non-zero"
+              + " --seed. No expiry sweeper or snapshots")
+  boolean simulate;
+
+  @Option(
+      names = "--backpressure",
+      description =
+          "Bounded ingress queue with a backpressure policy: ${COMPLETION-CANDIDATES} (default: none)")
+  BackpressurePolicy backpressure;
+
+  @Option(
+      names = "--forced-eviction",
+      description = "Order discarded by --backpressure=FORCE_EVICT: ${COMPLETION-CANDIDATES}")
+  EvictionPolicyType forcedEviction = EvictionPolicyType.LEAST_FRESHNESS;
+
+  @Option(
+      names = "--shards",
+      description = "Independent kitchens the orders are sharded across, each with the full topology")
+  int shards = 1;
+
+  @Option(names = "--shard-key", description = "Shard of an order: ${COMPLETION-CANDIDATES}")
+  ShardKey shardKey = ShardKey.ORDER_ID;
+
+  @Option(
+      names = "--stream",
+      description =
+          "Place orders while the problem is still being read, the order list is never held in"
+              + " memory. Not with --recover")
+  boolean stream;
+
+  @Option(
+      names = "--problem-cache",
+      description =
+          "Directory problems are cached in by --name and non-zero --seed, a rerun reads the cached"
+              + " problem instead of fetching it")
+  String problemCache = "";
+
+  @Option(
+      names = "--problem-file",
+      description =
+          "Run offline from a json array of orders or a cached problem file, nothing is fetched or"
+              + " submitted")
+  String problemFile = "";
+
+  @Option(
+      names = "--config",
+      description =
+          "Properties file over the bundled application.properties, reloaded when it changes. Shelf"
+              + " capacities, eviction, pickup threads and sweeps apply to the running kitchen")
+  String config = "";
+
   @Override
   public void run() {
     try {
-      Client client = new Client(endpoint, auth);
-      Problem problem = client.newProblem(name, seed);
+      if (!config.isBlank()) {
+        AppConfig.getInstance().reload(Path.of(config));
+      }
+      Client client = new Client(endpoint, auth, gzip);
+      if (stream) {
+        if (recover || !problemFile.isBlank() || !problemCache.isBlank()) {
+          LOGGER.error(
+              "--stream cannot be combined with --recover, --problem-file or --problem-cache");
+          return;
+        }
+        try (ProblemStream problem = client.streamProblem(name, seed)) {
+          solve(
+              client,
+              problem.getTestId(),
+              OrderSource.of(problem.getOrders(), rate.toMillis()),
+              null);
+        }
+        return;
+      }
+      Problem problem;
+      if (!problemFile.isBlank()) {
+        problem = ProblemFile.read(Path.of(problemFile));
+        LOGGER.info("Read {} orders from {}", problem.getOrders().size(), problemFile);
+      } else if (!problemCache.isBlank()) {
+        problem = new ProblemCache(Path.of(problemCache)).get(client, name, seed);
+      } else {
+        problem = client.newProblem(name, seed);
+      }
+      solve(
+          client,
+          problem.getTestId(),
+          OrderSource.of(problem.getOrders(), rate.toMillis()),
+          problem.getOrders());
+    } catch (IOException e) {
+      LOGGER.error("Simulation failed: {}", e.getMessage());
+    }
+  }
+
+  // orderList is only needed to recover, it is null when the orders are streamed
+  private void solve(Client client, String testId, OrderSource orders, List<Order> orderList)
+      throws IOException {
+    // ------ Simulation harness logic goes here using rate, min and max ----
+    if (shards > 1) {
+      if (!journal.isBlank() || !snapshot.isBlank() || recover || simulate) {
+        LOGGER.error("--shards cannot be combined with --journal, --snapshot, --recover or --simulate");
+        return;
+      }
+      runSharded(client, testId, orders);
+      return;
+    }
+    ShelfRegistry shelfRegistry = createShelfRegistry();
+    if ((recover || !snapshot.isBlank()) && journal.isBlank()) {
+      LOGGER.error("--snapshot and --recover require --journal");
+      return;
+    }
+    if (simulate && (recover || !snapshot.isBlank() || backpressure != null)) {
+      LOGGER.error("--simulate cannot be combined with --snapshot, --recover or --backpressure");
+      return;
+    }
+    DiscreteEventScheduler events = null;
+    if (simulate) {
+      // Before any order is placed, placement and expiry times are read from the virtual clock
+      events = new DiscreteEventScheduler(System.currentTimeMillis());
+      shelfRegistry.setClock(events.getClock());
+    }
+    RecoveredState recoveredState = null;
+    if (recover) {
+      // Before the journal is opened, new actions go to segments after the replayed ones
+      Map<String, Order> ordersById =
+          orderList.stream()
+              .collect(Collectors.toMap(Order::getId, Function.identity(), (a, b) -> a));
+      recoveredState =
+          Recovery.recover(
+              snapshot.isBlank() ? null : Path.of(snapshot),
+              Path.of(journal),
+              ordersById,
+              shelfRegistry);
+    }
+    ActionLog actionLog =
+        journal.isBlank() ? new ActionLog() : ActionLog.journaled(Path.of(journal), recover);
+    OrderFulfilmentService orderFulfilmentService =
+        new OrderFulfilmentService(shelfRegistry, actionLog);
+    // Orders placed without their pickup delay, e.g. through --backpressure, assume the latest one
+    orderFulfilmentService.setPlacementStrategy(placement, max.toMillis());
+    AdmissionControl admissionControl = createAdmissionControl(orderFulfilmentService);
+    OrderFulfilment orderFulfilment =
+        admissionControl != null ? admissionControl : orderFulfilmentService;
+    OrderService orderService;
+    if (recoveredState != null) {
+      orderFulfilmentService.restore(recoveredState);
+      orderService =
+          new OrderService(
+              rate.toMillis(),
+              min.toMillis(),
+              max.toMillis(),
+              orderList,
+              orderFulfilment,
+              recoveredState,
+              pickupScheduler);
+    } else if (events != null) {
+      long pickupSeed = seed != 0 ? seed : new Random().nextLong();
+      LOGGER.info("Simulating with pickup seed {}", pickupSeed);
+      orderService =
+          new OrderService(
+              orders, min.toMillis(), max.toMillis(), orderFulfilmentService, events, pickupSeed);
+    } else {
+      orderService =
+          new OrderService(
+              orders, min.toMillis(), max.toMillis(), orderFulfilment, pickupScheduler);
+    }
+    // Wall clock tasks would make a simulation irreproducible, it only gets the final report
+    ExpirySweeper expirySweeper = simulate ? null : new ExpirySweeper(orderFulfilmentService);
+    Snapshotter snapshotter =
+        snapshot.isBlank() ? null : new Snapshotter(orderFulfilmentService, Path.of(snapshot));
+    MetricsReporter metricsReporter =
+        simulate
+            ? new MetricsReporter(orderFulfilmentService.getMetrics(), 0)
+            : new MetricsReporter(orderFulfilmentService.getMetrics());
+    orderFulfilmentService.getMetrics().registerMBeans();
+    ConfigWatcher configWatcher = watchConfig(List.of(shelfRegistry), orderService, expirySweeper);
+    if (expirySweeper != null) {
+      expirySweeper.start();
+    }
+    metricsReporter.start();
+    if (snapshotter != null) {
+      snapshotter.start();
+    }
+    if (admissionControl != null) {
+      admissionControl.start();
+    }
+    orderService.startProcessing();
+    orderService.waitForCompletion();
+    if (configWatcher != null) {
+      configWatcher.close();
+    }
+    orderService.stopProcessing();
+    if (admissionControl != null) {
+      admissionControl.stop();
+      LOGGER.info("{}", admissionControl.getMetrics().report());
+    }
+    if (snapshotter != null) {
+      snapshotter.stop();
+    }
+    if (expirySweeper != null) {
+      expirySweeper.stop();
+    }
+    metricsReporter.stop();
+    // ----------------------------------------------------------------------
+    Iterable<Action> actions;
+    if (actionLog.getJournal() != null) {
+      actionLog.getJournal().close();
+      // Read back lazily, journal order may interleave threads and is put back in timestamp order
+      actions =
+          ActionJournalReader.inTimestampOrder(Path.of(journal), ActionJournalReader.REORDER_WINDOW);
+    } else {
+      actions = orderFulfilmentService.getActionLog();
+    }
 
-      // ------ Simulation harness logic goes here using rate, min and max ----
-      OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(hotcapacity, coldcapacity, roomcapacity);
-      OrderService orderService = new OrderService(rate.toMillis(), min.toMillis(), max.toMillis(), problem.getOrders(), orderFulfilmentService);
-      orderService.startProcessing();
-      orderService.waitForCompletion();
-      orderService.stopProcessing();
-      // ----------------------------------------------------------------------
-      List<Action> actions = orderFulfilmentService.getActionLog();
-      LOGGER.info("Actions performed {}", actions);
+    submit(client, testId, actions);
+  }
 
-      String result = client.solveProblem(problem.getTestId(), rate, min, max, actions);
+  // A run from --problem-file is offline, its solution is not submitted
+  private void submit(Client client, String testId, Iterable<Action> actions) throws IOException {
+    // Counted in the pass that streams them, the actions are never held together
+    AtomicLong performed = new AtomicLong();
+    Iterable<Action> counted =
+        () -> {
+          Iterator<Action> iterator = actions.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return iterator.hasNext();
+            }
 
-      LOGGER.info("Result: {}", result);
+            @Override
+            public Action next() {
+              Action action = iterator.next();
+              performed.incrementAndGet();
+              LOGGER.debug("Action {}", action);
+              return action;
+            }
+          };
+        };
+    if (!problemFile.isBlank()) {
+      counted.forEach(action -> {});
+      LOGGER.info("Actions performed {}", performed.get());
+      LOGGER.info("Offline run from {}, the solution is not submitted", problemFile);
+      return;
+    }
+    String result = client.solveProblem(testId, rate, min, max, counted);
 
-    } catch (IOException e) {
-      LOGGER.error("Simulation failed: {}", e.getMessage());
+    LOGGER.info("Actions performed {}", performed.get());
+    LOGGER.info("Result: {}", result);
+  }
+
+  private ShelfRegistry createShelfRegistry() {
+    ShelfRegistry shelfRegistry =
+        topology.isBlank()
+            ? ShelfRegistry.standard(hotcapacity, coldcapacity, roomcapacity, shelf)
+            : ShelfRegistry.parse(topology, fallback, shelf);
+    shelfRegistry.setEvictionPolicy(eviction.create((min.toMillis() + max.toMillis()) / 2, seed));
+    return shelfRegistry;
+  }
+
+  // Null without --backpressure, orders then go straight to the shelves
+  private AdmissionControl createAdmissionControl(OrderFulfilment orderFulfilment) {
+    if (backpressure == null) {
+      return null;
+    }
+    AdmissionControl admissionControl =
+        new AdmissionControl(
+            orderFulfilment,
+            backpressure,
+            forcedEviction.create((min.toMillis() + max.toMillis()) / 2, seed));
+    admissionControl.getMetrics().registerMBean();
+    return admissionControl;
+  }
+
+  // Null without --config, the kitchen then keeps the settings it was started with
+  private ConfigWatcher watchConfig(
+      List<ShelfRegistry> shelfRegistries, OrderService orderService, ExpirySweeper expirySweeper)
+      throws IOException {
+    if (config.isBlank()) {
+      return null;
+    }
+    LiveTuning liveTuning =
+        new LiveTuning(
+            shelfRegistries,
+            orderService,
+            expirySweeper,
+            (min.toMillis() + max.toMillis()) / 2,
+            seed);
+    liveTuning.accept(AppConfig.getInstance());
+    if (simulate) {
+      // Changes at wall clock times would make a simulation irreproducible
+      return null;
+    }
+    AppConfig.getInstance().addListener(liveTuning);
+    ConfigWatcher configWatcher = new ConfigWatcher(Path.of(config), AppConfig.getInstance());
+    configWatcher.start();
+    return configWatcher;
+  }
+
+  // Every shard is a kitchen of its own, the actions of all of them are submitted together
+  private void runSharded(Client client, String testId, OrderSource orders) throws IOException {
+    ShardedOrderFulfilment orderFulfilment =
+        new ShardedOrderFulfilment(shards, shardKey, this::createShelfRegistry);
+    for (int shard = 0; shard < shards; shard++) {
+      orderFulfilment.getShard(shard).setPlacementStrategy(placement, max.toMillis());
+    }
+    AdmissionControl admissionControl = createAdmissionControl(orderFulfilment);
+    OrderService orderService =
+        new OrderService(
+            orders,
+            min.toMillis(),
+            max.toMillis(),
+            admissionControl != null ? admissionControl : orderFulfilment,
+            pickupScheduler);
+    ExpirySweeper expirySweeper = new ExpirySweeper(orderFulfilment);
+    MetricsReporter metricsReporter = new MetricsReporter(orderFulfilment.getShardMetrics());
+    List<ShelfRegistry> shelfRegistries = new ArrayList<>();
+    for (int shard = 0; shard < shards; shard++) {
+      shelfRegistries.add(orderFulfilment.getShard(shard).getShelfRegistry());
+    }
+    ConfigWatcher configWatcher = watchConfig(shelfRegistries, orderService, expirySweeper);
+    expirySweeper.start();
+    metricsReporter.start();
+    if (admissionControl != null) {
+      admissionControl.start();
     }
+    orderService.startProcessing();
+    orderService.waitForCompletion();
+    if (configWatcher != null) {
+      configWatcher.close();
+    }
+    orderService.stopProcessing();
+    if (admissionControl != null) {
+      admissionControl.stop();
+      LOGGER.info("{}", admissionControl.getMetrics().report());
+    }
+    expirySweeper.stop();
+    metricsReporter.stop();
+
+    orderFulfilment
+        .getActionLogsByKitchen()
+        .forEach(
+            (kitchen, actions) -> LOGGER.info("Kitchen '{}' actions {}", kitchen, actions.size()));
+    submit(client, testId, orderFulfilment.getActionLog());
   }
 
   public static void main(String[] args) {
@@ -9,10 +9,12 @@ public class Action {
   public static final String MOVE = "move";
   public static final String PICKUP = "pickup";
   public static final String DISCARD = "discard";
+  // An order refused by admission control, only kept locally and never submitted
+  public static final String REJECT = "reject";
 
   private final long timestamp; // unix timestamp in microseconds
   private final String id; // order id
-  private final String action; // place, move, pickup or discard
+  private final String action; // place, move, pickup, discard or reject
 
   public Action(Instant timestamp, String id, String action) {
     this.timestamp = ChronoUnit.MICROS.between(Instant.EPOCH, timestamp);
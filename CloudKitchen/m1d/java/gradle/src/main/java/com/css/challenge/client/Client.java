@@ -1,15 +1,14 @@
 package com.css.challenge.client;
 
-import static simplehttp.HeaderList.headers;
-import static simplehttp.HeaderPair.header;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.List;
 import java.util.Random;
-import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import simplehttp.*;
@@ -18,13 +17,22 @@ import simplehttp.*;
 public class Client {
   private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
 
+  private static final int CHUNK_BYTES = 64 * 1024;
+
   private final String endpoint;
   private final String auth;
+  private final boolean gzip;
   private final HttpClient client;
 
   public Client(String endpoint, String auth) {
+    this(endpoint, auth, false);
+  }
+
+  /** With gzip, solutions are submitted with a gzip content encoding. */
+  public Client(String endpoint, String auth, boolean gzip) {
     this.endpoint = endpoint;
     this.auth = auth;
+    this.gzip = gzip;
     this.client = HttpClients.anApacheClient();
   }
 
@@ -50,51 +58,73 @@ public class Client {
     return new Problem(id, Order.parse(response.getContent().asString()));
   }
 
-  private static class Options {
-    public long rate;
-    public long min;
-    public long max;
-
-    Options(Duration rate, Duration min, Duration max) {
-      this.rate = TimeUnit.MILLISECONDS.toMicros(rate.toMillis());
-      this.min = TimeUnit.MILLISECONDS.toMicros(min.toMillis());
-      this.max = TimeUnit.MILLISECONDS.toMicros(max.toMillis());
+  /**
+   * streamProblem fetches a new test problem like {@link #newProblem(String, long)}, but its orders
+   * are parsed as the response arrives instead of after it is read in full, so the first order can be
+   * placed while the rest are still being read and the order list is never held in memory.
+   */
+  public ProblemStream streamProblem(String name, long seed) throws IOException {
+    if (seed == 0) {
+      seed = new Random().nextLong();
     }
-  }
-
-  private static class Solution {
-    public Options options;
-    public List<Action> actions;
 
-    Solution(Options options, List<Action> actions) {
-      this.options = options;
-      this.actions = actions;
-    }
+    URL url =
+        new URL(
+            endpoint + "/interview/challenge/new?auth=" + auth + "&name=" + name + "&seed=" + seed);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      int status = connection.getResponseCode();
+      if (status < 200 || status >= 300) {
+        throw new IOException(url + ": " + connection.getResponseMessage());
+      }
+      String id = connection.getHeaderField("x-test-id");
 
-    String encode() throws IOException {
-      return new ObjectMapper().writeValueAsString(this);
+      LOGGER.info("Streaming new test problem, id={}: {}", id, url);
+      return new ProblemStream(id, new OrderReader(connection.getInputStream()), connection);
+    } catch (IOException e) {
+      connection.disconnect();
+      throw e;
     }
   }
 
   /**
    * solveProblem submits a sequence of actions and parameters as a solution to a test problem.
-   * Returns test result.
+   * Returns test result. Actions are streamed to the request body in chunks as they are iterated.
    */
   public String solveProblem(
-      String testId, Duration rate, Duration min, Duration max, List<Action> actions)
+      String testId, Duration rate, Duration min, Duration max, Iterable<Action> actions)
       throws IOException {
-    Solution solution = new Solution(new Options(rate, min, max), actions);
+    Solution solution = new Solution(rate, min, max, actions);
 
     URL url = new URL(endpoint + "/interview/challenge/solve?auth=" + auth);
-    HttpResponse response =
-        client.post(
-            url,
-            new UnencodedStringMessage(
-                solution.encode(),
-                headers(header("Content-Type", "application/json"), header("x-test-id", testId))));
-    if (!response.ok()) {
-      throw new IOException(url + ": " + response.getStatusMessage());
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setChunkedStreamingMode(CHUNK_BYTES);
+      connection.setRequestProperty("Content-Type", "application/json");
+      connection.setRequestProperty("x-test-id", testId);
+      if (gzip) {
+        connection.setRequestProperty("Content-Encoding", "gzip");
+      }
+      try (OutputStream body = connection.getOutputStream()) {
+        if (gzip) {
+          GZIPOutputStream compressed = new GZIPOutputStream(body, CHUNK_BYTES);
+          solution.writeTo(compressed);
+          compressed.finish();
+        } else {
+          solution.writeTo(body);
+        }
+      }
+      int status = connection.getResponseCode();
+      if (status < 200 || status >= 300) {
+        throw new IOException(url + ": " + connection.getResponseMessage());
+      }
+      try (InputStream content = connection.getInputStream()) {
+        return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+      }
+    } finally {
+      connection.disconnect();
     }
-    return response.getContent().asString();
   }
 }
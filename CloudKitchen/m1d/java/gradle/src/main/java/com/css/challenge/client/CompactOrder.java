@@ -0,0 +1,39 @@
+package com.css.challenge.client;
+
+/**
+ * CompactOrder is the typed form of an {@link Order} used on the fulfilment hot path. It is built
+ * once with the order, so shelves compare zones and add shelf lives instead of matching temperature
+ * strings and multiplying freshness on every operation.
+ */
+public final class CompactOrder {
+  /** Temperature code of an order whose temperature is not a known zone. */
+  public static final byte UNKNOWN = -1;
+
+  private final TemperatureZone zone;
+  private final byte temperatureCode;
+  private final long idealShelfLifeMillis;
+  private final long nonIdealShelfLifeMillis;
+
+  CompactOrder(String temp, int freshness) {
+    this.zone = TemperatureZone.of(temp);
+    this.temperatureCode = zone != null ? (byte) zone.ordinal() : UNKNOWN;
+    this.idealShelfLifeMillis = freshness * 1000L;
+    // Freshness is halved on a shelf of another zone, in whole seconds
+    this.nonIdealShelfLifeMillis = (freshness / 2) * 1000L;
+  }
+
+  /** Returns the ideal zone of the order or null if its temperature is unknown. */
+  public TemperatureZone getZone() {
+    return zone;
+  }
+
+  /** Returns the ordinal of the ideal zone or {@link #UNKNOWN}. */
+  public byte getTemperatureCode() {
+    return temperatureCode;
+  }
+
+  /** Returns how long the order stays fresh on a shelf of the given zone. */
+  public long getShelfLifeMillis(TemperatureZone shelfZone) {
+    return shelfZone == zone ? idealShelfLifeMillis : nonIdealShelfLifeMillis;
+  }
+}
@@ -0,0 +1,14 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/** Json holds the mapper shared by the client, it is thread-safe once configured. */
+final class Json {
+  // Callers own the streams they read from and write to, e.g. to finish a gzip stream
+  static final ObjectMapper MAPPER =
+      JsonMapper.builder().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).build();
+
+  private Json() {}
+}
@@ -3,7 +3,6 @@ package com.css.challenge.client;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 
 /** Order is a json-friendly representation of an order. */
@@ -12,6 +11,7 @@ public class Order {
   private final String name; // food name
   private final String temp; // ideal temperature
   private final int freshness; // freshness in seconds
+  private final CompactOrder compact; // typed form for the hot path
 
   public Order(
       @JsonProperty("id") String id,
@@ -22,10 +22,11 @@ public class Order {
     this.name = name;
     this.temp = temp;
     this.freshness = freshness;
+    this.compact = new CompactOrder(temp, freshness);
   }
 
   static List<Order> parse(String json) throws JsonProcessingException {
-    return new ObjectMapper().readValue(json, new TypeReference<List<Order>>() {});
+    return Json.MAPPER.readValue(json, new TypeReference<List<Order>>() {});
   }
 
   public String getId() {
@@ -44,6 +45,11 @@ public class Order {
     return freshness;
   }
 
+  /** Returns the typed form of the order, built once when the order is parsed. */
+  public CompactOrder compact() {
+    return compact;
+  }
+
   @Override
   public String toString() {
     return "{id: " + id + ", name: " + name + ", temp: " + temp + ", freshness:" + freshness + " }";
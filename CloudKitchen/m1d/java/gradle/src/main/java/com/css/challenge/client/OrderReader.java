@@ -0,0 +1,61 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * OrderReader parses a json array of orders one order at a time as the input arrives, only the
+ * order being read is held in memory. Read errors are thrown as {@link UncheckedIOException}.
+ */
+public class OrderReader implements Iterator<Order>, Closeable {
+  private final JsonParser parser;
+  private JsonToken next;
+
+  /** Reads the opening of the array, the orders are read by {@link #next()}. */
+  public OrderReader(InputStream in) throws IOException {
+    this.parser = Json.MAPPER.getFactory().createParser(in);
+    if (parser.nextToken() != JsonToken.START_ARRAY) {
+      throw new IOException("Expected an array of orders");
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null) {
+      try {
+        next = parser.nextToken();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (next == null) {
+        throw new UncheckedIOException(new IOException("Orders ended before the array was closed"));
+      }
+    }
+    return next == JsonToken.START_OBJECT;
+  }
+
+  @Override
+  public Order next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    next = null;
+    try {
+      return Json.MAPPER.readValue(parser, Order.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Closes the parser and the input. */
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+}
@@ -0,0 +1,53 @@
+package com.css.challenge.client;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ProblemCache keeps fetched test problems in a directory, one {@link ProblemFile} per name and
+ * seed, so a rerun with the same name and seed does not fetch the problem again.
+ */
+public class ProblemCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProblemCache.class);
+
+  private final Path directory;
+
+  public ProblemCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Returns the cached problem of name and seed, fetching and caching it on a miss. A zero seed is
+   * random, its problem is always fetched and never cached.
+   */
+  public Problem get(Client client, String name, long seed) throws IOException {
+    if (seed == 0) {
+      return client.newProblem(name, seed);
+    }
+    Path file = fileOf(name, seed);
+    if (Files.exists(file)) {
+      long start = System.nanoTime();
+      Problem problem = ProblemFile.read(file);
+      LOGGER.info(
+          "Read cached test problem, id={} with {} orders from {} in {} ms",
+          problem.getTestId(),
+          problem.getOrders().size(),
+          file,
+          (System.nanoTime() - start) / 1_000_000);
+      return problem;
+    }
+    Problem problem = client.newProblem(name, seed);
+    ProblemFile.write(problem, file);
+    return problem;
+  }
+
+  /** Returns the file the problem of name and seed is cached in. */
+  public Path fileOf(String name, long seed) {
+    // Names are used as file names, anything but letters, digits, '-' and '_' is replaced
+    String key = name.isBlank() ? "problem" : name.replaceAll("[^A-Za-z0-9_-]", "_");
+    return directory.resolve(key + "-" + seed + ".bin");
+  }
+}
@@ -0,0 +1,114 @@
+package com.css.challenge.client;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ProblemFile stores a test problem locally in a compact binary form that is read back through a
+ * memory mapping, or reads the orders of a problem from a json array of orders.
+ *
+ * <p>Binary layout: int magic, int version, the test id, int order count, then per order the id,
+ * name and temperature and int freshness. Strings are an unsigned short byte length followed by
+ * their UTF-8 bytes.
+ */
+public final class ProblemFile {
+  private static final int MAGIC = 0x434b5052;
+  private static final int VERSION = 1;
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private ProblemFile() {}
+
+  /** Writes the problem to a temporary file first and moves it over the file when complete. */
+  public static void write(Problem problem, Path file) throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try (DataOutputStream output =
+        new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_BYTES))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      writeString(output, problem.getTestId());
+      output.writeInt(problem.getOrders().size());
+      for (Order order : problem.getOrders()) {
+        writeString(output, order.getId());
+        writeString(output, order.getName());
+        writeString(output, order.getTemp());
+        output.writeInt(order.getFreshness());
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(temporary);
+      throw e;
+    }
+    Files.move(
+        temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a problem written by {@link #write(Problem, Path)} or a json array of orders. A json
+   * problem has no test id, its test id is empty.
+   */
+  public static Problem read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < 4 || buffer.getInt(0) != MAGIC) {
+        return new Problem("", readJson(file));
+      }
+      try {
+        buffer.position(4);
+        if (buffer.getInt() != VERSION) {
+          throw new IOException("Unsupported problem file version: " + file);
+        }
+        String testId = readString(buffer);
+        int count = buffer.getInt();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          orders.add(
+              new Order(readString(buffer), readString(buffer), readString(buffer), buffer.getInt()));
+        }
+        return new Problem(testId, orders);
+      } catch (BufferUnderflowException e) {
+        throw new IOException("Truncated problem file: " + file, e);
+      }
+    }
+  }
+
+  private static List<Order> readJson(Path file) throws IOException {
+    List<Order> orders = new ArrayList<>();
+    try (InputStream input = Files.newInputStream(file);
+        OrderReader reader = new OrderReader(input)) {
+      reader.forEachRemaining(orders::add);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return orders;
+  }
+
+  private static void writeString(DataOutputStream output, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > 0xffff) {
+      throw new IOException("String too long for a problem file: " + value.length() + " chars");
+    }
+    output.writeShort(bytes.length);
+    output.write(bytes);
+  }
+
+  private static String readString(MappedByteBuffer buffer) {
+    byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,39 @@
+package com.css.challenge.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * ProblemStream is a test problem whose orders are read from the server while they are placed, see
+ * {@link Client#streamProblem(String, long)}. Closing it releases the connection.
+ */
+public class ProblemStream implements Closeable {
+  private final String testId;
+  private final OrderReader orders;
+  private final HttpURLConnection connection;
+
+  ProblemStream(String testId, OrderReader orders, HttpURLConnection connection) {
+    this.testId = testId;
+    this.orders = orders;
+    this.connection = connection;
+  }
+
+  public String getTestId() {
+    return testId;
+  }
+
+  /** Returns the orders in arrival order, they can be read once. */
+  public OrderReader getOrders() {
+    return orders;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      orders.close();
+    } finally {
+      connection.disconnect();
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solution is a submission of actions and the parameters they were produced with. It is written
+ * straight to a stream one action at a time, so encoding holds no copy of the action log. Rejected
+ * orders are left out.
+ */
+final class Solution {
+  private final long rate; // microseconds
+  private final long min;
+  private final long max;
+  private final Iterable<Action> actions;
+
+  Solution(Duration rate, Duration min, Duration max, Iterable<Action> actions) {
+    this.rate = TimeUnit.MILLISECONDS.toMicros(rate.toMillis());
+    this.min = TimeUnit.MILLISECONDS.toMicros(min.toMillis());
+    this.max = TimeUnit.MILLISECONDS.toMicros(max.toMillis());
+    this.actions = actions;
+  }
+
+  /** writeTo encodes the solution as json to out, which is flushed but left open. */
+  void writeTo(OutputStream out) throws IOException {
+    try (JsonGenerator generator = Json.MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("options");
+      generator.writeNumberField("rate", rate);
+      generator.writeNumberField("min", min);
+      generator.writeNumberField("max", max);
+      generator.writeEndObject();
+      generator.writeArrayFieldStart("actions");
+      for (Action action : actions) {
+        if (Action.REJECT.equals(action.getAction())) {
+          // The server only knows the actions on shelves
+          continue;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField("timestamp", action.getTimestamp());
+        generator.writeStringField("id", action.getId());
+        generator.writeStringField("action", action.getAction());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+}
@@ -4,4 +4,5 @@ public class Temperature {
     public static final String HOT = "hot";
     public static final String COLD = "cold";
     public static final String ROOM = "room";
+    public static final String FROZEN = "frozen";
 }
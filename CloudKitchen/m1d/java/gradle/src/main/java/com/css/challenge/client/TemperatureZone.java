@@ -0,0 +1,31 @@
+package com.css.challenge.client;
+
+/** TemperatureZone is the typed form of an order temperature, used to index shelf tables. */
+public enum TemperatureZone {
+  HOT(Temperature.HOT),
+  COLD(Temperature.COLD),
+  ROOM(Temperature.ROOM),
+  FROZEN(Temperature.FROZEN);
+
+  private static final TemperatureZone[] ZONES = values();
+
+  private final String temp;
+
+  TemperatureZone(String temp) {
+    this.temp = temp;
+  }
+
+  /** Returns the zone of a json temperature or null if the temperature is unknown. */
+  public static TemperatureZone of(String temp) {
+    for (TemperatureZone zone : ZONES) {
+      if (zone.temp.equalsIgnoreCase(temp)) {
+        return zone;
+      }
+    }
+    return null;
+  }
+
+  public String getTemp() {
+    return temp;
+  }
+}
@@ -1,32 +1,118 @@
 package com.css.challenge.configuration;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
+/**
+ * AppConfig holds the application properties: the bundled application.properties, optionally
+ * overlaid by an external file that can be reloaded while the application runs. Every reload swaps
+ * the whole property set, so a reader never sees half of an update, and notifies the listeners.
+ */
 public class AppConfig {
-    private final Properties properties;
+    private static final Logger LOGGER = LoggerFactory.getLogger(AppConfig.class);
+
+    private final Properties defaults;
+    private final List<Consumer<AppConfig>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Properties properties;
 
-    private static AppConfig appConfig = null;
+    private static final class Holder {
+        private static final AppConfig INSTANCE = new AppConfig();
+    }
 
     public static AppConfig getInstance() {
-        if(appConfig == null) appConfig = new AppConfig();
-        return appConfig;
+        return Holder.INSTANCE;
     }
+
     private AppConfig() {
-        properties = new Properties();
+        defaults = new Properties();
         try (InputStream input = getClass().getClassLoader().getResourceAsStream("application.properties")) {
             if (input == null) {
                 throw new RuntimeException("Unable to find application.properties");
             }
-            properties.load(input);
+            defaults.load(input);
         } catch (IOException ex) {
             throw new RuntimeException("Error loading application.properties", ex);
         }
+        properties = defaults;
     }
 
     public String getProperty(String key) {
         return properties.getProperty(key);
     }
 
+    /** Returns the int value of key or defaultValue if it is not set. */
+    public int getInt(String key, int defaultValue) {
+        long value = getLong(key, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        return (int) value;
+    }
+
+    /** Returns the long value of key or defaultValue if it is not set. */
+    public long getLong(String key, long defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+    }
+
+    /** Returns the constant of type named by the value of key, case insensitive, or defaultValue. */
+    public <E extends Enum<E>> E getEnum(String key, Class<E> type, E defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(value.trim())) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+    }
+
+    /**
+     * Replaces the properties by the bundled ones overlaid by file and notifies the listeners. The
+     * current properties are kept if file cannot be read.
+     */
+    public void reload(Path file) throws IOException {
+        Properties overlay = new Properties();
+        overlay.putAll(defaults);
+        try (InputStream input = Files.newInputStream(file)) {
+            overlay.load(input);
+        }
+        properties = overlay;
+        LOGGER.info("Loaded configuration from {}", file);
+        for (Consumer<AppConfig> listener : listeners) {
+            try {
+                listener.accept(this);
+            } catch (RuntimeException e) {
+                // One failing listener must not keep the change from the others
+                LOGGER.error("Configuration listener failed", e);
+            }
+        }
+    }
+
+    /** Calls listener with this configuration after every reload. */
+    public void addListener(Consumer<AppConfig> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<AppConfig> listener) {
+        listeners.remove(listener);
+    }
 }
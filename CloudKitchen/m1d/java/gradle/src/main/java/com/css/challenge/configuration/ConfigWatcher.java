@@ -0,0 +1,86 @@
+package com.css.challenge.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * ConfigWatcher reloads {@link AppConfig} from a properties file whenever the file changes. It
+ * watches the directory of the file on a daemon thread, so it never holds up a shutdown.
+ */
+public class ConfigWatcher implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigWatcher.class);
+    // Editors write a file in several steps, changes this close together are reloaded once
+    private static final long SETTLE_MILLIS = 100;
+
+    private final Path file;
+    private final AppConfig config;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    public ConfigWatcher(Path file, AppConfig config) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.config = config;
+        this.watchService = this.file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.watcher = new Thread(this::watch, "config-watcher");
+        watcher.setDaemon(true);
+    }
+
+    public void start() {
+        watcher.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                if (changed(key)) {
+                    Thread.sleep(SETTLE_MILLIS);
+                    for (WatchKey next = watchService.poll(); next != null; next = watchService.poll()) {
+                        changed(next);
+                    }
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        if (!key.reset()) {
+            LOGGER.warn("{} is no longer watched, its directory is gone", file);
+        }
+        return changed;
+    }
+
+    private void reload() {
+        try {
+            config.reload(file);
+        } catch (IOException e) {
+            LOGGER.error("Could not reload {}, the current configuration is kept: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        watcher.interrupt();
+    }
+}
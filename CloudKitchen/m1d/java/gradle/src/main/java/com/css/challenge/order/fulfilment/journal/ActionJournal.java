@@ -0,0 +1,177 @@
+package com.css.challenge.order.fulfilment.journal;
+
+import com.css.challenge.client.Action;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append only binary journal of actions on memory-mapped segment files of a fixed size. Writers
+ * reserve space in the current segment with a CAS and write their record in place, the length
+ * field is written last with release semantics, so a reader never sees a partial record. When a
+ * segment is full the next one is mapped, old segments are left to the page cache.
+ *
+ * <p>Record layout, little endian and 4 byte aligned: int length, long timestamp in microseconds,
+ * byte action type, byte shelf index plus one (0 when unknown), short id length, id bytes in
+ * UTF-8. A length of 0 means no record (yet), -1 marks the end of a segment.
+ */
+public class ActionJournal implements AutoCloseable {
+    static final String SEGMENT_PREFIX = "actions-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final int HEADER_BYTES = 4 + 8 + 1 + 1 + 2;
+    static final int MAX_SHELVES = 254;
+    static final int END_OF_SEGMENT = -1;
+    // Type codes are the index in this array plus one, append only to stay readable
+    static final String[] ACTION_TYPES = {Action.PLACE, Action.MOVE, Action.PICKUP, Action.DISCARD, Action.REJECT};
+    static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    public static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private volatile Segment current;
+
+    private static final class Segment {
+        private final int index;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger position = new AtomicInteger();
+
+        private Segment(int index, MappedByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+    }
+
+    private ActionJournal(Path directory, int segmentBytes, int firstSegment) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.current = map(firstSegment);
+    }
+
+    /** Creates a journal in a new or empty directory. */
+    public static ActionJournal create(Path directory, int segmentBytes) throws IOException {
+        checkSegmentBytes(segmentBytes);
+        Files.createDirectories(directory);
+        if (!ActionJournalReader.segments(directory).isEmpty()) {
+            throw new IllegalStateException("Journal already exists in " + directory);
+        }
+        return new ActionJournal(directory, segmentBytes, 0);
+    }
+
+    /** Continues a journal after a restart, new actions go to a new segment after the existing ones. */
+    public static ActionJournal open(Path directory, int segmentBytes) throws IOException {
+        checkSegmentBytes(segmentBytes);
+        Files.createDirectories(directory);
+        List<Path> segments = ActionJournalReader.segments(directory);
+        return new ActionJournal(directory, segmentBytes, segments.isEmpty() ? 0 : segmentIndex(segments.get(segments.size() - 1)) + 1);
+    }
+
+    private static void checkSegmentBytes(int segmentBytes) {
+        if (segmentBytes < 64 || segmentBytes % 4 != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 4 of at least 64 bytes: " + segmentBytes);
+        }
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static Path segmentPath(Path directory, int index) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    static int align(int length) {
+        return (length + 3) & ~3;
+    }
+
+    static byte typeCode(String action) {
+        for (int code = 0; code < ACTION_TYPES.length; code++) {
+            if (ACTION_TYPES[code].equals(action)) {
+                return (byte) (code + 1);
+            }
+        }
+        throw new IllegalArgumentException("Unknown action type: " + action);
+    }
+
+    private Segment map(int index) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Segment(index, buffer);
+        }
+    }
+
+    public void append(Action action) {
+        append(action, -1);
+    }
+
+    /** Appends the action with the index of the shelf it happened on, -1 when there is none. */
+    public void append(Action action, int shelf) {
+        byte[] id = action.getId().getBytes(StandardCharsets.UTF_8);
+        int length = align(HEADER_BYTES + id.length);
+        if (id.length > Short.MAX_VALUE || length > segmentBytes) {
+            throw new IllegalArgumentException("Order id too long for the journal: " + action.getId());
+        }
+        while (true) {
+            Segment segment = current;
+            int start = segment.position.get();
+            if (start + length > segmentBytes) {
+                seal(segment, start);
+                continue;
+            }
+            if (segment.position.compareAndSet(start, start + length)) {
+                MappedByteBuffer buffer = segment.buffer;
+                buffer.putLong(start + 4, action.getTimestamp());
+                buffer.put(start + 12, typeCode(action.getAction()));
+                buffer.put(start + 13, (byte) (shelf >= 0 && shelf < MAX_SHELVES ? shelf + 1 : 0));
+                buffer.putShort(start + 14, (short) id.length);
+                buffer.put(start + HEADER_BYTES, id);
+                LENGTH.setRelease(buffer, start, length);
+                return;
+            }
+        }
+    }
+
+    // The thread that moves the position to the end marks the end of the segment, the others wait for the rollover
+    private void seal(Segment segment, int start) {
+        if (start < segmentBytes && segment.position.compareAndSet(start, segmentBytes)) {
+            // Positions are aligned, so there is always room for the marker
+            LENGTH.setRelease(segment.buffer, start, END_OF_SEGMENT);
+            rollover(segment);
+        } else if (start >= segmentBytes) {
+            rollover(segment);
+        }
+    }
+
+    private synchronized void rollover(Segment full) {
+        if (current != full) {
+            return;
+        }
+        try {
+            current = map(full.index + 1);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to roll the journal over to a new segment", e);
+        }
+    }
+
+    /** Flushes the current segment to disk, writers must have stopped. */
+    @Override
+    public synchronized void close() {
+        current.buffer.force();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,184 @@
+package com.css.challenge.order.fulfilment.journal;
+
+import com.css.challenge.client.Action;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads the segments of an {@link ActionJournal} in order. Records are returned in the order space
+ * was reserved for them, which may differ slightly from timestamp order across threads. Reading
+ * stops at the first record of a segment that was never completed.
+ */
+public final class ActionJournalReader {
+    /** Records further apart than this in the journal are assumed to be in timestamp order. */
+    public static final int REORDER_WINDOW = 4096;
+
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /** shelf is the index of the shelf in the registry or -1 when unknown. */
+        void visit(Action action, int shelf);
+    }
+
+    private ActionJournalReader() {
+    }
+
+    /** Returns the segment files of the journal in order. */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(ActionJournal.SEGMENT_PREFIX) && name.endsWith(ActionJournal.SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /** Replays every action of the journal in journal order. */
+    public static void replay(Path directory, Consumer<Action> consumer) throws IOException {
+        replayRecords(directory, (action, shelf) -> consumer.accept(action));
+    }
+
+    /** Replays every action of the journal with the shelf it happened on. */
+    public static void replayRecords(Path directory, RecordVisitor visitor) throws IOException {
+        for (Path segment : segments(directory)) {
+            replaySegment(segment, visitor);
+        }
+    }
+
+    /**
+     * Returns the actions of the journal in timestamp order, read lazily one record at a time. A
+     * record is put back in order if it is less than reorderWindow records away from its place,
+     * further displaced ones are returned late. Every iteration reads the journal again and holds
+     * at most reorderWindow actions.
+     */
+    public static Iterable<Action> inTimestampOrder(Path directory, int reorderWindow) {
+        if (reorderWindow <= 0) {
+            throw new IllegalArgumentException("Reorder window must be positive: " + reorderWindow);
+        }
+        return () -> new OrderedIterator(directory, reorderWindow);
+    }
+
+    public static List<Action> readAll(Path directory) throws IOException {
+        List<Action> actions = new ArrayList<>();
+        replay(directory, actions::add);
+        return actions;
+    }
+
+    private static void replaySegment(Path segment, RecordVisitor visitor) throws IOException {
+        SegmentCursor cursor = new SegmentCursor(segment);
+        while (cursor.next(visitor)) {
+            // next hands every record to the visitor
+        }
+    }
+
+    private static final class SegmentCursor {
+        private final MappedByteBuffer buffer;
+        private int position;
+
+        // The mapping stays valid once the channel is closed
+        private SegmentCursor(Path segment) throws IOException {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /** Visits the next record, returns false at the end of the segment. */
+        private boolean next(RecordVisitor visitor) {
+            if (position + ActionJournal.HEADER_BYTES > buffer.limit()) {
+                return false;
+            }
+            int length = (int) ActionJournal.LENGTH.getAcquire(buffer, position);
+            if (length <= 0) {
+                // Unwritten record or end of segment
+                return false;
+            }
+            long timestamp = buffer.getLong(position + 4);
+            byte type = buffer.get(position + 12);
+            int shelf = Byte.toUnsignedInt(buffer.get(position + 13)) - 1;
+            byte[] id = new byte[buffer.getShort(position + 14)];
+            buffer.get(position + ActionJournal.HEADER_BYTES, id);
+            visitor.visit(new Action(Instant.EPOCH.plus(timestamp, ChronoUnit.MICROS),
+                    new String(id, StandardCharsets.UTF_8), ActionJournal.ACTION_TYPES[type - 1]), shelf);
+            position += length;
+            return true;
+        }
+    }
+
+    // Reads ahead up to the window and always returns the earliest action read, journal order breaks ties
+    private static final class OrderedIterator implements Iterator<Action> {
+        private record Sequenced(Action action, long sequence) {
+        }
+
+        private final Iterator<Path> segments;
+        private final int reorderWindow;
+        private final PriorityQueue<Sequenced> window = new PriorityQueue<>(
+                Comparator.comparingLong((Sequenced sequenced) -> sequenced.action.getTimestamp())
+                        .thenComparingLong(Sequenced::sequence));
+        private long sequence;
+        private final RecordVisitor reader = (action, shelf) -> window.add(new Sequenced(action, this.sequence++));
+        private SegmentCursor cursor;
+
+        private OrderedIterator(Path directory, int reorderWindow) {
+            try {
+                this.segments = segments(directory).iterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.reorderWindow = reorderWindow;
+        }
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            return !window.isEmpty();
+        }
+
+        @Override
+        public Action next() {
+            fill();
+            if (window.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return window.poll().action;
+        }
+
+        private void fill() {
+            while (window.size() < reorderWindow) {
+                if (cursor == null) {
+                    if (!segments.hasNext()) {
+                        return;
+                    }
+                    try {
+                        cursor = new SegmentCursor(segments.next());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                if (!cursor.next(reader)) {
+                    cursor = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.css.challenge.order.fulfilment.journal;
+
+import com.css.challenge.client.Action;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Parameters;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Prints the actions of a journal one per line, or replays it into a summary of the action counts
+ * and the orders still on a shelf at the end of the journal.
+ */
+@Command(name = "journal", showDefaultValues = true)
+public class JournalTool implements Runnable {
+
+    @Parameters(index = "0", description = "Journal directory")
+    Path directory;
+
+    @Option(names = "--summary", description = "Print action counts and orders left on shelves instead of every action")
+    boolean summary;
+
+    @Override
+    public void run() {
+        try {
+            if (!summary) {
+                ActionJournalReader.replay(directory, System.out::println);
+                return;
+            }
+            Map<String, Integer> counts = new TreeMap<>();
+            Set<String> onShelf = new HashSet<>();
+            ActionJournalReader.replay(directory, action -> {
+                counts.merge(action.getAction(), 1, Integer::sum);
+                switch (action.getAction()) {
+                    case Action.PLACE -> onShelf.add(action.getId());
+                    case Action.PICKUP, Action.DISCARD -> onShelf.remove(action.getId());
+                    default -> { }
+                }
+            });
+            System.out.println("segments " + ActionJournalReader.segments(directory).size());
+            counts.forEach((action, count) -> System.out.println(action + " " + count));
+            System.out.println("on shelf " + onShelf.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new JournalTool()).execute(args));
+    }
+}
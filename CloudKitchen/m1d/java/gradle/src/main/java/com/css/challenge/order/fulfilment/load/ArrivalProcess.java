@@ -0,0 +1,31 @@
+package com.css.challenge.order.fulfilment.load;
+
+import java.util.Random;
+
+/** ArrivalProcess draws the gaps between generated orders for a mean gap, see {@link OrderGenerator}. */
+public enum ArrivalProcess {
+    // One order every mean gap
+    CONSTANT {
+        @Override
+        long nextGapNanos(Random random, long meanGapNanos, int index, int burstSize) {
+            return meanGapNanos;
+        }
+    },
+    // Exponential gaps, independent arrivals at the mean rate
+    POISSON {
+        @Override
+        long nextGapNanos(Random random, long meanGapNanos, int index, int burstSize) {
+            return (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+    },
+    // burstSize orders at once, then a pause that keeps the mean rate
+    BURSTY {
+        @Override
+        long nextGapNanos(Random random, long meanGapNanos, int index, int burstSize) {
+            return index % burstSize == 0 ? meanGapNanos * burstSize : 0L;
+        }
+    };
+
+    /** Returns the gap before the order at index, the first order arrives at the start and has no gap. */
+    abstract long nextGapNanos(Random random, long meanGapNanos, int index, int burstSize);
+}
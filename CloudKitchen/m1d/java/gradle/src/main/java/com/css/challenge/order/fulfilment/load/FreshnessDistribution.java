@@ -0,0 +1,36 @@
+package com.css.challenge.order.fulfilment.load;
+
+import java.util.Random;
+
+/** FreshnessDistribution draws the freshness of generated orders between a minimum and maximum. */
+public enum FreshnessDistribution {
+    // Every freshness equally likely
+    UNIFORM {
+        @Override
+        int sample(Random random, int min, int max) {
+            return min + random.nextInt(max - min + 1);
+        }
+    },
+    // Centered between min and max, six standard deviations wide
+    NORMAL {
+        @Override
+        int sample(Random random, int min, int max) {
+            double sample = (min + max) / 2.0 + random.nextGaussian() * (max - min) / 6.0;
+            return clamp((int) Math.round(sample), min, max);
+        }
+    },
+    // Mostly short lived orders with a long tail, the mean a quarter of the range above min
+    EXPONENTIAL {
+        @Override
+        int sample(Random random, int min, int max) {
+            double sample = min - Math.log(1.0 - random.nextDouble()) * (max - min) / 4.0;
+            return clamp((int) sample, min, max);
+        }
+    };
+
+    abstract int sample(Random random, int min, int max);
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,181 @@
+package com.css.challenge.order.fulfilment.load;
+
+import com.css.challenge.order.fulfilment.metrics.FulfilmentMetrics;
+import com.css.challenge.order.fulfilment.metrics.LatencyHistogram;
+import com.css.challenge.order.fulfilment.metrics.MetricsReporter;
+import com.css.challenge.order.fulfilment.metrics.ShelfMetrics;
+import com.css.challenge.order.fulfilment.service.ActionLog;
+import com.css.challenge.order.fulfilment.service.AdmissionControl;
+import com.css.challenge.order.fulfilment.service.BackpressurePolicy;
+import com.css.challenge.order.fulfilment.service.ExpirySweeper;
+import com.css.challenge.order.fulfilment.service.OrderFulfilmentService;
+import com.css.challenge.order.fulfilment.service.OrderService;
+import com.css.challenge.order.fulfilment.service.PickupSchedulerType;
+import com.css.challenge.order.fulfilment.service.ShardKey;
+import com.css.challenge.order.fulfilment.service.ShardedOrderFulfilment;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Soaks the kitchen with a generated load, offline. Orders from an {@link OrderGenerator} go through
+ * the {@link OrderService} in real time, then the sustained throughput, placement and pickup latency
+ * percentiles and the discard rate are reported. Only a tail of the actions is kept on the heap.
+ */
+@Command(name = "soak", showDefaultValues = true)
+public class LoadHarness implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadHarness.class);
+
+    @Option(names = "--orders", description = "Number of generated orders")
+    int orders = 1_000_000;
+
+    @Option(names = "--rate", description = "Mean arrivals per second")
+    double rate = 5_000;
+
+    @Option(names = "--arrivals", description = "Arrival process: ${COMPLETION-CANDIDATES}")
+    ArrivalProcess arrivals = ArrivalProcess.POISSON;
+
+    @Option(names = "--burst", description = "Orders per burst of BURSTY arrivals")
+    int burst = 50;
+
+    @Option(names = "--mix", description = "Temperature mix, e.g. hot=40,cold=30,frozen=10,room=20")
+    String mix = "hot=1,cold=1,room=1";
+
+    @Option(names = "--freshness", description = "Freshness distribution: ${COMPLETION-CANDIDATES}")
+    FreshnessDistribution freshness = FreshnessDistribution.UNIFORM;
+
+    @Option(names = "--freshness-min", description = "Minimum freshness in seconds")
+    int freshnessMin = 30;
+
+    @Option(names = "--freshness-max", description = "Maximum freshness in seconds")
+    int freshnessMax = 300;
+
+    @Option(names = "--min", description = "Minimum pickup delay in milliseconds")
+    long min = 2_000;
+
+    @Option(names = "--max", description = "Maximum pickup delay in milliseconds")
+    long max = 6_000;
+
+    @Option(names = "--topology", description = "Shelves per zone, e.g. hot=6+6,cold=6,room=12")
+    String topology = "hot=10000,cold=10000,frozen=2000,room=20000";
+
+    @Option(names = "--fallback", description = "Fallback chains, e.g. frozen=cold>room (default: room)")
+    String fallback = "";
+
+    @Option(names = "--shelf", description = "Shelf implementation: ${COMPLETION-CANDIDATES}")
+    ShelfImplementation shelf = ShelfImplementation.SYNCHRONIZED;
+
+    @Option(names = "--pickup-scheduler", description = "Scheduler of the courier pickups: ${COMPLETION-CANDIDATES}")
+    PickupSchedulerType pickupScheduler = PickupSchedulerType.TIMING_WHEEL;
+
+    @Option(names = "--eviction", description = "Eviction policy when no order has expired: ${COMPLETION-CANDIDATES}")
+    EvictionPolicyType eviction = EvictionPolicyType.EXPIRED_ONLY;
+
+    @Option(names = "--backpressure", description = "Bounded ingress queue with a backpressure policy: ${COMPLETION-CANDIDATES}")
+    BackpressurePolicy backpressure;
+
+    @Option(names = "--shards", description = "Independent kitchens the load is sharded across by order id")
+    int shards = 1;
+
+    @Option(names = "--tail", description = "Actions kept on the heap per thread")
+    int tail = 4096;
+
+    @Option(names = "--seed", description = "Seed of the generated load")
+    long seed = 1;
+
+    @Override
+    public void run() {
+        OrderGenerator generator = OrderGenerator.builder(orders)
+                .temperatureMix(mix)
+                .freshness(freshness, freshnessMin, freshnessMax)
+                .arrivals(arrivals, rate)
+                .burstSize(burst)
+                .seed(seed)
+                .build();
+        List<OrderFulfilmentService> kitchens = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            ShelfRegistry shelfRegistry = ShelfRegistry.parse(topology, fallback, shelf);
+            shelfRegistry.setEvictionPolicy(eviction.create((min + max) / 2, seed));
+            kitchens.add(new OrderFulfilmentService(shelfRegistry, new ActionLog(null, tail)));
+        }
+        ShardedOrderFulfilment orderFulfilment = new ShardedOrderFulfilment(kitchens, ShardKey.ORDER_ID);
+        List<FulfilmentMetrics> metrics = orderFulfilment.getShardMetrics();
+        AdmissionControl admissionControl = backpressure == null ? null
+                : new AdmissionControl(orderFulfilment, backpressure,
+                EvictionPolicyType.LEAST_FRESHNESS.create((min + max) / 2, seed));
+        OrderService orderService = new OrderService(generator, min, max,
+                admissionControl != null ? admissionControl : orderFulfilment, pickupScheduler);
+        ExpirySweeper expirySweeper = new ExpirySweeper(orderFulfilment);
+        MetricsReporter metricsReporter = new MetricsReporter(metrics);
+
+        LOGGER.info("Soaking {} orders at {}/s {} arrivals on {} shards", orders, rate, arrivals, shards);
+        expirySweeper.start();
+        metricsReporter.start();
+        if (admissionControl != null) {
+            admissionControl.start();
+        }
+        long start = System.nanoTime();
+        orderService.startProcessing();
+        orderService.waitForCompletion();
+        long elapsed = System.nanoTime() - start;
+        orderService.stopProcessing();
+        if (admissionControl != null) {
+            admissionControl.stop();
+            LOGGER.info("{}", admissionControl.getMetrics().report());
+        }
+        expirySweeper.stop();
+        metricsReporter.stop();
+        report(orderService, metrics, elapsed);
+    }
+
+    private void report(OrderService orderService, List<FulfilmentMetrics> metrics, long elapsedNanos) {
+        long places = 0;
+        long moves = 0;
+        long discards = 0;
+        long pickups = 0;
+        long rejected = 0;
+        LatencyHistogram placeLatency = new LatencyHistogram();
+        LatencyHistogram pickupLatency = new LatencyHistogram();
+        for (FulfilmentMetrics shard : metrics) {
+            for (ShelfMetrics shelfMetrics : shard.getShelfMetrics()) {
+                places += shelfMetrics.getPlaces();
+                moves += shelfMetrics.getMoves();
+                discards += shelfMetrics.getDiscards();
+                pickups += shelfMetrics.getPickups();
+            }
+            rejected += shard.getRejectedOrders();
+            placeLatency.add(shard.getPlaceLatency());
+            pickupLatency.add(shard.getPickupLatency());
+        }
+        long placementNanos = orderService.getPlacementNanos();
+        LOGGER.info("Soak result\n"
+                        + "orders {} in {} s, placed at {}/s against {}/s offered, max placement lag {} ms\n"
+                        + "place {}\npickup {}\n"
+                        + "placed {} moved {} picked up {} discarded {} rejected {} dropped {}, discard rate {}%",
+                orders, String.format("%.1f", elapsedNanos / 1e9),
+                String.format("%.0f", placementNanos > 0 ? orders * 1e9 / placementNanos : 0.0), String.format("%.0f", rate),
+                TimeUnit.NANOSECONDS.toMillis(orderService.getMaxPlacementLagNanos()),
+                percentiles(placeLatency), percentiles(pickupLatency),
+                places, moves, pickups, discards, rejected, orders - places - rejected,
+                String.format("%.2f", orders > 0 ? (discards + orders - places) * 100.0 / orders : 0.0));
+    }
+
+    private static String percentiles(LatencyHistogram histogram) {
+        return "p50Us=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentileNanos(50))
+                + " p99Us=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentileNanos(99))
+                + " p999Us=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentileNanos(99.9));
+    }
+
+    public static void main(String[] args) {
+        System.exit(new CommandLine(new LoadHarness()).execute(args));
+    }
+}
@@ -0,0 +1,169 @@
+package com.css.challenge.order.fulfilment.load;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.service.OrderSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderGenerator produces a synthetic load of orders lazily, so millions of orders never sit on the
+ * heap at once. Temperatures follow a weighted mix, freshness a {@link FreshnessDistribution} and
+ * arrivals an {@link ArrivalProcess} at a mean rate. The same seed produces the same load.
+ */
+public class OrderGenerator implements OrderSource {
+    private final int count;
+    private final String[] temperatures;
+    private final int[] cumulativeWeights;
+    private final FreshnessDistribution freshness;
+    private final int minFreshness;
+    private final int maxFreshness;
+    private final ArrivalProcess arrivals;
+    private final long meanGapNanos;
+    private final int burstSize;
+    private final Random random;
+    private int index;
+    private int gapIndex;
+
+    private OrderGenerator(Builder builder) {
+        this.count = builder.count;
+        this.temperatures = new String[builder.mix.size()];
+        this.cumulativeWeights = new int[builder.mix.size()];
+        int total = 0;
+        for (int i = 0; i < temperatures.length; i++) {
+            temperatures[i] = builder.mix.get(i).temp;
+            total += builder.mix.get(i).weight;
+            cumulativeWeights[i] = total;
+        }
+        this.freshness = builder.freshness;
+        this.minFreshness = builder.minFreshness;
+        this.maxFreshness = builder.maxFreshness;
+        this.arrivals = builder.arrivals;
+        this.meanGapNanos = (long) (TimeUnit.SECONDS.toNanos(1) / builder.ordersPerSecond);
+        this.burstSize = builder.burstSize;
+        this.random = new Random(builder.seed);
+    }
+
+    public static Builder builder(int count) {
+        return new Builder(count);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return index < count;
+    }
+
+    @Override
+    public long nextGapNanos() {
+        int next = gapIndex++;
+        return next == 0 ? 0L : arrivals.nextGapNanos(random, meanGapNanos, next, burstSize);
+    }
+
+    @Override
+    public Order next() {
+        if (index >= count) {
+            throw new IllegalStateException("All " + count + " orders were generated");
+        }
+        int id = index++;
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int slot = 0;
+        while (cumulativeWeights[slot] <= pick) {
+            slot++;
+        }
+        String temp = temperatures[slot];
+        return new Order("load-" + id, temp + "-" + id % 1000, temp, freshness.sample(random, minFreshness, maxFreshness));
+    }
+
+    private record Weight(String temp, int weight) {
+    }
+
+    public static class Builder {
+        private final int count;
+        private final List<Weight> mix = new ArrayList<>();
+        private FreshnessDistribution freshness = FreshnessDistribution.UNIFORM;
+        private int minFreshness = 30;
+        private int maxFreshness = 300;
+        private ArrivalProcess arrivals = ArrivalProcess.CONSTANT;
+        private double ordersPerSecond = 100;
+        private int burstSize = 50;
+        private long seed;
+
+        private Builder(int count) {
+            if (count < 0) {
+                throw new IllegalArgumentException("Order count must not be negative: " + count);
+            }
+            this.count = count;
+        }
+
+        /** Adds a temperature to the mix, orders get it with probability weight over the total weight. */
+        public Builder temperature(TemperatureZone zone, int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + weight);
+            }
+            if (weight > 0) {
+                mix.add(new Weight(zone.getTemp(), weight));
+            }
+            return this;
+        }
+
+        /** Parses a mix such as {@code hot=40,cold=30,room=30}. */
+        public Builder temperatureMix(String spec) {
+            for (String zoneSpec : spec.split(",")) {
+                String[] parts = zoneSpec.trim().split("=");
+                TemperatureZone zone = parts.length == 2 ? TemperatureZone.of(parts[0].trim()) : null;
+                if (zone == null) {
+                    throw new IllegalArgumentException("Invalid temperature mix: " + zoneSpec);
+                }
+                temperature(zone, Integer.parseInt(parts[1].trim()));
+            }
+            return this;
+        }
+
+        /** Freshness in seconds between min and max inclusive. */
+        public Builder freshness(FreshnessDistribution distribution, int min, int max) {
+            if (min <= 0 || max < min) {
+                throw new IllegalArgumentException("Invalid freshness range: " + min + ".." + max);
+            }
+            this.freshness = distribution;
+            this.minFreshness = min;
+            this.maxFreshness = max;
+            return this;
+        }
+
+        public Builder arrivals(ArrivalProcess arrivals, double ordersPerSecond) {
+            if (ordersPerSecond <= 0) {
+                throw new IllegalArgumentException("Order rate must be positive: " + ordersPerSecond);
+            }
+            this.arrivals = arrivals;
+            this.ordersPerSecond = ordersPerSecond;
+            return this;
+        }
+
+        /** Orders per burst of {@link ArrivalProcess#BURSTY} arrivals. */
+        public Builder burstSize(int burstSize) {
+            if (burstSize <= 0) {
+                throw new IllegalArgumentException("Burst size must be positive: " + burstSize);
+            }
+            this.burstSize = burstSize;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Builds the generator, an empty mix is an even mix of hot, cold and room. */
+        public OrderGenerator build() {
+            if (mix.isEmpty()) {
+                temperature(TemperatureZone.HOT, 1);
+                temperature(TemperatureZone.COLD, 1);
+                temperature(TemperatureZone.ROOM, 1);
+            }
+            return new OrderGenerator(this);
+        }
+    }
+}
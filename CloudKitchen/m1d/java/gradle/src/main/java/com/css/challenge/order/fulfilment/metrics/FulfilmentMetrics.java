@@ -0,0 +1,199 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of an {@link com.css.challenge.order.fulfilment.service.OrderFulfilmentService}: latency
+ * histograms of placement and pickup and the counters of every shelf, named zone-index such as
+ * room-0. Recording never locks.
+ */
+public class FulfilmentMetrics implements FulfilmentMetricsMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FulfilmentMetrics.class);
+    private static final String DOMAIN = "com.css.challenge";
+
+    private final LatencyHistogram placeLatency = new LatencyHistogram();
+    private final LatencyHistogram pickupLatency = new LatencyHistogram();
+    // Pickups of orders that were discarded before the courier arrived
+    private final LongAdder alreadyDiscardedPickups = new LongAdder();
+    // Orders that found no room and were lost, and orders refused by admission control
+    private final LongAdder droppedOrders = new LongAdder();
+    private final LongAdder rejectedOrders = new LongAdder();
+    // Never modified after construction, so lookups need no synchronization
+    private final Map<ShelfStorage, ShelfMetrics> shelfMetrics;
+    private final List<ShelfMetrics> allShelfMetrics;
+
+    public FulfilmentMetrics(ShelfRegistry shelfRegistry) {
+        Map<ShelfStorage, ShelfMetrics> metrics = new IdentityHashMap<>();
+        List<ShelfMetrics> all = new ArrayList<>();
+        for (TemperatureZone zone : TemperatureZone.values()) {
+            ShelfStorage[] shelves = shelfRegistry.getShelves(zone);
+            for (int index = 0; index < shelves.length; index++) {
+                ShelfMetrics shelf = new ShelfMetrics(zone.getTemp() + "-" + index, shelves[index]);
+                metrics.put(shelves[index], shelf);
+                all.add(shelf);
+            }
+        }
+        this.shelfMetrics = metrics;
+        this.allShelfMetrics = Collections.unmodifiableList(all);
+    }
+
+    public ShelfMetrics shelf(ShelfStorage shelf) {
+        return shelfMetrics.get(shelf);
+    }
+
+    public List<ShelfMetrics> getShelfMetrics() {
+        return allShelfMetrics;
+    }
+
+    public void recordPlace(long nanos) {
+        placeLatency.record(nanos);
+    }
+
+    public void recordPickup(long nanos) {
+        pickupLatency.record(nanos);
+    }
+
+    public void alreadyDiscardedPickup() {
+        alreadyDiscardedPickups.increment();
+    }
+
+    public void dropped() {
+        droppedOrders.increment();
+    }
+
+    public void rejected() {
+        rejectedOrders.increment();
+    }
+
+    public LatencyHistogram getPlaceLatency() {
+        return placeLatency;
+    }
+
+    public LatencyHistogram getPickupLatency() {
+        return pickupLatency;
+    }
+
+    @Override
+    public long getPlaceCount() {
+        return placeLatency.getCount();
+    }
+
+    @Override
+    public long getPlaceMeanNanos() {
+        return placeLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getPlaceP50Nanos() {
+        return placeLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getPlaceP99Nanos() {
+        return placeLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getPickupCount() {
+        return pickupLatency.getCount();
+    }
+
+    @Override
+    public long getPickupMeanNanos() {
+        return pickupLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getPickupP50Nanos() {
+        return pickupLatency.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getPickupP99Nanos() {
+        return pickupLatency.getPercentileNanos(99);
+    }
+
+    @Override
+    public long getAlreadyDiscardedPickups() {
+        return alreadyDiscardedPickups.sum();
+    }
+
+    @Override
+    public long getDroppedOrders() {
+        return droppedOrders.sum();
+    }
+
+    @Override
+    public long getRejectedOrders() {
+        return rejectedOrders.sum();
+    }
+
+    /** Registers the fulfilment and shelf MBeans, replacing the ones of an earlier service. */
+    public void registerMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            register(server, new ObjectName(DOMAIN + ":type=Fulfilment"), this);
+            for (ShelfMetrics shelf : allShelfMetrics) {
+                register(server, new ObjectName(DOMAIN + ":type=Shelf,name=" + shelf.getName()), shelf);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register metrics MBeans", e);
+        }
+    }
+
+    public void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(new ObjectName(DOMAIN + ":type=Fulfilment"));
+            for (ShelfMetrics shelf : allShelfMetrics) {
+                server.unregisterMBean(new ObjectName(DOMAIN + ":type=Shelf,name=" + shelf.getName()));
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Unable to unregister metrics MBeans", e);
+        }
+    }
+
+    /** Returns a multi-line text report, latencies in microseconds. */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("place ").append(latencyReport(placeLatency))
+                .append("\npickup ").append(latencyReport(pickupLatency))
+                .append(" alreadyDiscarded=").append(getAlreadyDiscardedPickups())
+                .append("\ndropped=").append(getDroppedOrders())
+                .append(" rejected=").append(getRejectedOrders());
+        for (ShelfMetrics shelf : allShelfMetrics) {
+            report.append('\n').append(shelf);
+        }
+        return report.toString();
+    }
+
+    private static String latencyReport(LatencyHistogram histogram) {
+        return "count=" + histogram.getCount()
+                + " meanUs=" + TimeUnit.NANOSECONDS.toMicros(histogram.getMeanNanos())
+                + " p50Us=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentileNanos(50))
+                + " p99Us=" + TimeUnit.NANOSECONDS.toMicros(histogram.getPercentileNanos(99));
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object mbean) throws JMException {
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(mbean, name);
+    }
+}
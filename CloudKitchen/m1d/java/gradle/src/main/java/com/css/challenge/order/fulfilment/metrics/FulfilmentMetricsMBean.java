@@ -0,0 +1,27 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+/** JMX view of {@link FulfilmentMetrics}, latencies are in nanoseconds. */
+public interface FulfilmentMetricsMBean {
+
+    long getPlaceCount();
+
+    long getPlaceMeanNanos();
+
+    long getPlaceP50Nanos();
+
+    long getPlaceP99Nanos();
+
+    long getPickupCount();
+
+    long getPickupMeanNanos();
+
+    long getPickupP50Nanos();
+
+    long getPickupP99Nanos();
+
+    long getAlreadyDiscardedPickups();
+
+    long getDroppedOrders();
+
+    long getRejectedOrders();
+}
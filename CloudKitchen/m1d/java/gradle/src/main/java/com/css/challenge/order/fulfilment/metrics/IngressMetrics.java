@@ -0,0 +1,143 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Metrics of the ingress queue of {@link com.css.challenge.order.fulfilment.service.AdmissionControl}:
+ * its depth, how long orders wait in it and what happened to the orders that could not be placed.
+ */
+public class IngressMetrics implements IngressMetricsMBean {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngressMetrics.class);
+    private static final String NAME = "com.css.challenge:type=Ingress";
+
+    private final IntSupplier depth;
+    private final int capacity;
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    // From enqueue to placement on a shelf
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    // Orders rejected because the queue was full, also counted in rejected
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    // Offers that found the queue full and waited for space
+    private final LongAdder blockedOffers = new LongAdder();
+
+    public IngressMetrics(IntSupplier depth, int capacity) {
+        this.depth = depth;
+        this.capacity = capacity;
+    }
+
+    public void enqueued() {
+        maxDepth.accumulateAndGet(depth.getAsInt(), Math::max);
+    }
+
+    public void admitted(long queueWaitNanos) {
+        queueWait.record(queueWaitNanos);
+    }
+
+    public void shed() {
+        shed.increment();
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    public void retried() {
+        retries.increment();
+    }
+
+    public void blockedOffer() {
+        blockedOffers.increment();
+    }
+
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth.getAsInt();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public long getAdmitted() {
+        return queueWait.getCount();
+    }
+
+    @Override
+    public long getShed() {
+        return shed.sum();
+    }
+
+    @Override
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getBlockedOffers() {
+        return blockedOffers.sum();
+    }
+
+    @Override
+    public long getQueueWaitP50Nanos() {
+        return queueWait.getPercentileNanos(50);
+    }
+
+    @Override
+    public long getQueueWaitP99Nanos() {
+        return queueWait.getPercentileNanos(99);
+    }
+
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.warn("Unable to register ingress MBean", e);
+        }
+    }
+
+    /** Returns a one line text report, latencies in microseconds. */
+    public String report() {
+        return "ingress depth=" + getDepth() + "/" + capacity
+                + " maxDepth=" + getMaxDepth()
+                + " admitted=" + getAdmitted()
+                + " waitP50Us=" + TimeUnit.NANOSECONDS.toMicros(getQueueWaitP50Nanos())
+                + " waitP99Us=" + TimeUnit.NANOSECONDS.toMicros(getQueueWaitP99Nanos())
+                + " shed=" + getShed()
+                + " rejected=" + getRejected()
+                + " retries=" + getRetries()
+                + " blockedOffers=" + getBlockedOffers();
+    }
+}
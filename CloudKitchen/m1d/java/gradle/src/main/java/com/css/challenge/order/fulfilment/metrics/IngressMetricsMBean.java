@@ -0,0 +1,25 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+/** JMX view of {@link IngressMetrics}, latencies are in nanoseconds. */
+public interface IngressMetricsMBean {
+
+    int getDepth();
+
+    int getCapacity();
+
+    int getMaxDepth();
+
+    long getAdmitted();
+
+    long getShed();
+
+    long getRejected();
+
+    long getRetries();
+
+    long getBlockedOffers();
+
+    long getQueueWaitP50Nanos();
+
+    long getQueueWaitP99Nanos();
+}
@@ -0,0 +1,72 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with one bucket per power of two nanoseconds. Every bucket and the
+ * sum are striped counters, so threads recording into the same few buckets do not contend on one
+ * cache line. Reading sums the stripes. Percentiles are reported as the upper bound of the bucket
+ * they fall in, so they are accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    // Bucket b counts latencies in [2^(b-1), 2^b) nanoseconds, bucket 0 counts zero
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets[bucket] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long latency = Math.max(nanos, 0);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(latency)].increment();
+        totalNanos.add(latency);
+    }
+
+    /** Adds the latencies recorded by other, e.g. to report several shards together. */
+    public void add(LatencyHistogram other) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets[bucket].add(other.buckets[bucket].sum());
+        }
+        totalNanos.add(other.totalNanos.sum());
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            count += buckets[bucket].sum();
+        }
+        return count;
+    }
+
+    public long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    /** Returns the upper bound of the bucket holding the given percentile, 0 when empty. */
+    public long getPercentileNanos(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] = buckets[bucket].sum();
+            count += counts[bucket];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return bucket == 0 ? 0 : bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import com.css.challenge.configuration.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/** MetricsReporter periodically logs the text report of the fulfilment metrics, of one or several shards. */
+public class MetricsReporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsReporter.class);
+    private final List<FulfilmentMetrics> shards;
+    private final long intervalMillis;
+    private final ScheduledExecutorService reportScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public MetricsReporter(FulfilmentMetrics metrics) {
+        this(metrics, AppConfig.getInstance().getLong("metrics.report.interval.ms", 5000L));
+    }
+
+    public MetricsReporter(FulfilmentMetrics metrics, long intervalMillis) {
+        this(List.of(metrics), intervalMillis);
+    }
+
+    public MetricsReporter(List<FulfilmentMetrics> shards) {
+        this(shards, AppConfig.getInstance().getLong("metrics.report.interval.ms", 5000L));
+    }
+
+    public MetricsReporter(List<FulfilmentMetrics> shards, long intervalMillis) {
+        this.shards = shards;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** Starts reporting, an interval of zero or less disables the reporter. */
+    public void start() {
+        if (intervalMillis <= 0) {
+            LOGGER.info("Metrics reporter disabled");
+            return;
+        }
+        reportScheduler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops reporting and logs a final report. */
+    public void stop() {
+        reportScheduler.shutdown();
+        try {
+            if (!reportScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                reportScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reportScheduler.shutdownNow();
+        }
+        report();
+    }
+
+    private void report() {
+        try {
+            if (shards.size() == 1) {
+                LOGGER.info("Metrics\n{}", shards.get(0).report());
+                return;
+            }
+            for (int shard = 0; shard < shards.size(); shard++) {
+                LOGGER.info("Metrics of shard {}\n{}", shard, shards.get(shard).report());
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            LOGGER.error("Metrics report failed", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single shelf. Counters are striped adders so concurrent placements and pickups do
+ * not contend, occupancy is read from the shelf when reported.
+ */
+public class ShelfMetrics implements ShelfMetricsMBean {
+    private final String name;
+    private final ShelfStorage shelf;
+    private final LongAdder places = new LongAdder();
+    // Orders moved off this shelf to their ideal shelf
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+    private final LongAdder pickups = new LongAdder();
+
+    public ShelfMetrics(String name, ShelfStorage shelf) {
+        this.name = name;
+        this.shelf = shelf;
+    }
+
+    public void placed() {
+        places.increment();
+    }
+
+    public void moved() {
+        moves.increment();
+    }
+
+    public void discarded() {
+        discards.increment();
+    }
+
+    public void pickedUp() {
+        pickups.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getOccupancy() {
+        return shelf.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return shelf.getCapacity();
+    }
+
+    @Override
+    public long getPlaces() {
+        return places.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    @Override
+    public long getPickups() {
+        return pickups.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + " occupancy=" + getOccupancy() + "/" + getCapacity() + " places=" + getPlaces()
+                + " moves=" + getMoves() + " discards=" + getDiscards() + " pickups=" + getPickups();
+    }
+}
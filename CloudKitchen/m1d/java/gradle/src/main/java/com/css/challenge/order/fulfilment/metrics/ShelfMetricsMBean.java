@@ -0,0 +1,17 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+/** JMX view of {@link ShelfMetrics}. */
+public interface ShelfMetricsMBean {
+
+    int getOccupancy();
+
+    int getCapacity();
+
+    long getPlaces();
+
+    long getMoves();
+
+    long getDiscards();
+
+    long getPickups();
+}
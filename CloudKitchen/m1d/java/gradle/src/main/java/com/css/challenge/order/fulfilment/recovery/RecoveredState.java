@@ -0,0 +1,25 @@
+package com.css.challenge.order.fulfilment.recovery;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/** The orders on the shelves after a restart and the ids of every order placed before it. */
+public class RecoveredState {
+    private final Map<String, ResidentOrder> residents;
+    private final Set<String> handledOrderIds;
+
+    public RecoveredState(Map<String, ResidentOrder> residents, Set<String> handledOrderIds) {
+        this.residents = residents;
+        this.handledOrderIds = handledOrderIds;
+    }
+
+    public Collection<ResidentOrder> getResidents() {
+        return residents.values();
+    }
+
+    /** Returns true if the order was placed, picked up or discarded before the restart. */
+    public boolean isHandled(String orderId) {
+        return handledOrderIds.contains(orderId);
+    }
+}
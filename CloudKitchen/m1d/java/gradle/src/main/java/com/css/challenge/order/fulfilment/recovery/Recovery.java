@@ -0,0 +1,87 @@
+package com.css.challenge.order.fulfilment.recovery;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.order.fulfilment.journal.ActionJournalReader;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rebuilds the orders on the shelves from the latest snapshot and the actions journaled from the
+ * time it was taken. Replay is idempotent, so actions already reflected in the snapshot are
+ * harmless: a place of an order that is on a shelf or already gone is skipped, a move sets the
+ * shelf, a pickup or discard removes the order for good.
+ */
+public final class Recovery {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Recovery.class);
+
+    private Recovery() {
+    }
+
+    /**
+     * Recovers the shelves of shelfRegistry. orders looks up the orders of the problem by id for
+     * those placed after the snapshot, snapshotFile may not exist when no snapshot was taken.
+     */
+    public static RecoveredState recover(Path snapshotFile, Path journalDirectory, Map<String, Order> orders,
+                                         ShelfRegistry shelfRegistry) throws IOException {
+        long start = System.nanoTime();
+        Map<String, ResidentOrder> residents = new LinkedHashMap<>();
+        Set<String> handled = new HashSet<>();
+        long takenAt = Long.MIN_VALUE;
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            ShelfSnapshot snapshot = ShelfSnapshot.read(snapshotFile);
+            takenAt = snapshot.takenAt();
+            for (ResidentOrder resident : snapshot.residents()) {
+                // An order caught in the middle of a move is on both shelves, the move is replayed below
+                residents.put(resident.order().getId(), resident);
+                handled.add(resident.order().getId());
+            }
+        }
+        Set<String> gone = new HashSet<>();
+        long replayFrom = takenAt;
+        ActionJournalReader.replayRecords(journalDirectory, (action, shelf) -> {
+            String orderId = action.getId();
+            handled.add(orderId);
+            if (action.getTimestamp() < replayFrom) {
+                return;
+            }
+            switch (action.getAction()) {
+                case Action.PLACE -> {
+                    Order order = orders.get(orderId);
+                    if (order != null && shelf >= 0 && !gone.contains(orderId) && !residents.containsKey(orderId)) {
+                        residents.put(orderId, placed(order, shelf, action.getTimestamp() / 1000, shelfRegistry));
+                    }
+                }
+                case Action.MOVE -> {
+                    ResidentOrder resident = residents.get(orderId);
+                    if (resident != null && shelf >= 0) {
+                        residents.put(orderId, placed(resident.order(), shelf, action.getTimestamp() / 1000, shelfRegistry));
+                    }
+                }
+                case Action.PICKUP, Action.DISCARD -> {
+                    residents.remove(orderId);
+                    gone.add(orderId);
+                }
+                default -> { }
+            }
+        });
+        LOGGER.info("Recovered {} orders on shelves, {} orders handled, in {} ms", residents.size(), handled.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return new RecoveredState(residents, handled);
+    }
+
+    // Same expiry the shelf computes on placement, halved on a shelf of another zone
+    private static ResidentOrder placed(Order order, int shelf, long placedAt, ShelfRegistry shelfRegistry) {
+        long expiry = placedAt + order.compact().getShelfLifeMillis(shelfRegistry.getZone(shelf));
+        return new ResidentOrder(order, shelf, placedAt, expiry);
+    }
+}
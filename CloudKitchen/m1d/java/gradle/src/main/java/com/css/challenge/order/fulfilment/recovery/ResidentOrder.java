@@ -0,0 +1,7 @@
+package com.css.challenge.order.fulfilment.recovery;
+
+import com.css.challenge.client.Order;
+
+/** An order on a shelf, shelf is the index of the shelf in the registry and times are epoch millis. */
+public record ResidentOrder(Order order, int shelf, long placedAt, long expiry) {
+}
@@ -0,0 +1,87 @@
+package com.css.challenge.order.fulfilment.recovery;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary snapshot of the orders on every shelf. Shelves are visited one at a time under
+ * their own lock, so the snapshot is not taken at a single instant: actions from takenAt onwards
+ * are replayed over it by {@link Recovery}.
+ *
+ * <p>Layout: int magic, int version, long takenAt in microseconds, int order count, then per order
+ * int shelf, long placedAt, long expiry, the order id, name and temperature and int freshness.
+ */
+public record ShelfSnapshot(long takenAt, List<ResidentOrder> residents) {
+    private static final int MAGIC = 0x434b534e;
+    private static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /** Writes the snapshot to a temporary file first and moves it over the file when complete. */
+    public static void write(ShelfRegistry shelfRegistry, Path file) throws IOException {
+        long takenAt = ChronoUnit.MICROS.between(Instant.EPOCH, shelfRegistry.getClock().instant());
+        List<ResidentOrder> residents = new ArrayList<>();
+        List<ShelfStorage> shelves = shelfRegistry.getAllShelves();
+        for (int shelf = 0; shelf < shelves.size(); shelf++) {
+            int index = shelf;
+            shelves.get(shelf).forEachOrder((key, order, placedAt, expiry) ->
+                    residents.add(new ResidentOrder(order, index, placedAt, expiry)));
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_BYTES))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(takenAt);
+            output.writeInt(residents.size());
+            for (ResidentOrder resident : residents) {
+                Order order = resident.order();
+                output.writeInt(resident.shelf());
+                output.writeLong(resident.placedAt());
+                output.writeLong(resident.expiry());
+                output.writeUTF(order.getId());
+                output.writeUTF(order.getName());
+                output.writeUTF(order.getTemp());
+                output.writeInt(order.getFreshness());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static ShelfSnapshot read(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a shelf snapshot: " + file);
+            }
+            long takenAt = input.readLong();
+            int count = input.readInt();
+            List<ResidentOrder> residents = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int shelf = input.readInt();
+                long placedAt = input.readLong();
+                long expiry = input.readLong();
+                Order order = new Order(input.readUTF(), input.readUTF(), input.readUTF(), input.readInt());
+                residents.add(new ResidentOrder(order, shelf, placedAt, expiry));
+            }
+            return new ShelfSnapshot(takenAt, residents);
+        }
+    }
+}
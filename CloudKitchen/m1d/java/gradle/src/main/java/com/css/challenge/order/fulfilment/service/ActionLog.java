@@ -0,0 +1,257 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.journal.ActionJournal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append only log of actions. Every thread appends to its own buffer and publishes its size with a
+ * volatile write, so appends never contend and never lock. A snapshot copies the published part
+ * of every buffer, sorts each one (a single pass when already in order, as is usual for one
+ * thread) and merges them by timestamp, without stopping writers.
+ *
+ * <p>A journaled log streams every action to an {@link ActionJournal} and keeps only the latest
+ * actions of every thread on the heap.
+ */
+public class ActionLog {
+    private static final int CHUNK_SIZE = 1024;
+    private static final Comparator<Action> BY_TIMESTAMP = Comparator.comparingLong(Action::getTimestamp);
+
+    private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Buffer> threadBuffer = ThreadLocal.withInitial(this::register);
+    private final ActionJournal journal;
+    private final int tailCapacity;
+
+    // Written by its owner thread only, read by any thread up to the published size
+    abstract static class Buffer {
+        volatile long size;
+
+        abstract void append(Action action);
+
+        abstract List<Action> copy();
+    }
+
+    // Keeps every action
+    private static final class ChunkedBuffer extends Buffer {
+        private volatile Action[][] chunks = new Action[4][];
+
+        @Override
+        void append(Action action) {
+            int index = (int) size;
+            int chunk = index / CHUNK_SIZE;
+            Action[][] current = chunks;
+            if (chunk == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                chunks = current;
+            }
+            if (current[chunk] == null) {
+                current[chunk] = new Action[CHUNK_SIZE];
+            }
+            current[chunk][index % CHUNK_SIZE] = action;
+            // Publishes the action, and a grown chunk directory, to readers
+            size = index + 1;
+        }
+
+        @Override
+        List<Action> copy() {
+            // Size first, every action below it and the chunks holding them are then visible
+            int published = (int) size;
+            Action[][] current = chunks;
+            List<Action> actions = new ArrayList<>(published);
+            for (int index = 0; index < published; index++) {
+                actions.add(current[index / CHUNK_SIZE][index % CHUNK_SIZE]);
+            }
+            return actions;
+        }
+    }
+
+    // Keeps the latest capacity actions, older ones are overwritten
+    static final class RingBuffer extends Buffer {
+        private final Action[] ring;
+        private final int mask;
+        private final int capacity;
+
+        RingBuffer(int capacity) {
+            // One spare slot, the one the writer is storing into never holds a kept action
+            ring = new Action[Integer.highestOneBit(capacity) << 1];
+            mask = ring.length - 1;
+            this.capacity = capacity;
+        }
+
+        @Override
+        void append(Action action) {
+            long index = size;
+            ring[(int) (index & mask)] = action;
+            size = index + 1;
+        }
+
+        @Override
+        List<Action> copy() {
+            long published = size;
+            long first = Math.max(0, published - capacity);
+            Action[] copied = new Action[(int) (published - first)];
+            for (long index = first; index < published; index++) {
+                copied[(int) (index - first)] = ring[(int) (index & mask)];
+            }
+            // Drop the actions the writer may have overwritten while they were copied, including the
+            // slot of the action it may be storing but has not published yet
+            long overwritten = Math.max(0, size + 1 - ring.length) - first;
+            List<Action> actions = new ArrayList<>(copied.length);
+            for (int index = (int) Math.max(0, overwritten); index < copied.length; index++) {
+                actions.add(copied[index]);
+            }
+            return actions;
+        }
+    }
+
+    /** Creates a log that keeps every action on the heap. */
+    public ActionLog() {
+        this(null, 0);
+    }
+
+    /**
+     * Creates a log that streams every action to the journal and keeps the latest tailCapacity
+     * actions of every thread, journal may be null to only keep the tail.
+     */
+    public ActionLog(ActionJournal journal, int tailCapacity) {
+        if (journal != null && tailCapacity <= 0) {
+            throw new IllegalArgumentException("Tail capacity must be positive: " + tailCapacity);
+        }
+        this.journal = journal;
+        this.tailCapacity = tailCapacity;
+    }
+
+    /**
+     * Creates a journaled log in a new directory, or continues the journal in it when resuming after
+     * a restart. Segment and tail sizes are read from journal.segment.bytes and journal.tail.size.
+     */
+    public static ActionLog journaled(Path directory, boolean resume) throws IOException {
+        int segmentBytes = AppConfig.getInstance().getInt("journal.segment.bytes", ActionJournal.DEFAULT_SEGMENT_BYTES);
+        int tailCapacity = AppConfig.getInstance().getInt("journal.tail.size", 4096);
+        ActionJournal journal = resume
+                ? ActionJournal.open(directory, segmentBytes)
+                : ActionJournal.create(directory, segmentBytes);
+        return new ActionLog(journal, tailCapacity);
+    }
+
+
+    private Buffer register() {
+        Buffer buffer = tailCapacity > 0 ? new RingBuffer(tailCapacity) : new ChunkedBuffer();
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    public void append(Action action) {
+        append(action, -1);
+    }
+
+    /** Appends the action, the shelf index is only kept in the journal to recover shelves from. */
+    public void append(Action action, int shelf) {
+        if (journal != null) {
+            journal.append(action, shelf);
+        }
+        threadBuffer.get().append(action);
+    }
+
+    public void appendAll(Collection<Action> actions) {
+        Buffer buffer = threadBuffer.get();
+        for (Action action : actions) {
+            if (journal != null) {
+                journal.append(action);
+            }
+            buffer.append(action);
+        }
+    }
+
+    /** Appends every action of the batch with one buffer lookup. */
+    public void appendAll(Batch batch) {
+        Buffer buffer = threadBuffer.get();
+        for (int index = 0; index < batch.actions.size(); index++) {
+            Action action = batch.actions.get(index);
+            if (journal != null) {
+                journal.append(action, batch.shelves[index]);
+            }
+            buffer.append(action);
+        }
+    }
+
+    /** Actions collected with the index of their shelf, to be appended together. */
+    public static final class Batch {
+        private final List<Action> actions = new ArrayList<>();
+        private int[] shelves = new int[8];
+
+        public void add(Action action, int shelf) {
+            if (actions.size() == shelves.length) {
+                shelves = Arrays.copyOf(shelves, shelves.length * 2);
+            }
+            shelves[actions.size()] = shelf;
+            actions.add(action);
+        }
+
+        public int size() {
+            return actions.size();
+        }
+    }
+
+    /** Returns the number of actions appended so far, including those no longer in the tail. */
+    public long size() {
+        long size = 0;
+        for (Buffer buffer : buffers) {
+            size += buffer.size;
+        }
+        return size;
+    }
+
+    public ActionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns the actions appended so far, or the tail of a bounded log, in timestamp order. Actions
+     * with the same timestamp keep the order of their thread. Actions appended while the snapshot
+     * is taken may be left out.
+     */
+    public List<Action> snapshot() {
+        List<List<Action>> runs = new ArrayList<>();
+        int total = 0;
+        for (Buffer buffer : buffers) {
+            List<Action> run = buffer.copy();
+            if (!run.isEmpty()) {
+                run.sort(BY_TIMESTAMP);
+                runs.add(run);
+                total += run.size();
+            }
+        }
+        if (runs.size() == 1) {
+            return runs.get(0);
+        }
+        // k-way merge, ties go to the earlier run so the merge is stable
+        PriorityQueue<int[]> cursors = new PriorityQueue<>((a, b) -> {
+            int order = Long.compare(runs.get(a[0]).get(a[1]).getTimestamp(), runs.get(b[0]).get(b[1]).getTimestamp());
+            return order != 0 ? order : Integer.compare(a[0], b[0]);
+        });
+        for (int run = 0; run < runs.size(); run++) {
+            cursors.add(new int[]{run, 0});
+        }
+        List<Action> merged = new ArrayList<>(total);
+        while (!cursors.isEmpty()) {
+            int[] cursor = cursors.poll();
+            List<Action> run = runs.get(cursor[0]);
+            merged.add(run.get(cursor[1]));
+            if (++cursor[1] < run.size()) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,234 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.metrics.IngressMetrics;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * AdmissionControl puts a bounded ingress queue in front of an {@link OrderFulfilment}. Producers
+ * enqueue orders and a single worker places them in arrival order. An order that finds no room is
+ * handled by the {@link BackpressurePolicy} instead of being dropped silently: it is retried,
+ * rejected with a {@link Action#REJECT} action or placed by discarding another order.
+ *
+ * <p>An order still queued or waiting for room when its courier arrives is rejected, the courier
+ * leaves without it.
+ */
+public class AdmissionControl implements OrderFulfilment {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionControl.class);
+    private static final long POLL_MILLIS = 100;
+
+    private record Queued(Order order, long pickupDelayMillis, long enqueuedNanos) {
+    }
+
+    private final OrderFulfilment delegate;
+    private final BackpressurePolicy policy;
+    private final EvictionPolicy forcedEviction;
+    private final long retryIntervalNanos;
+    private final long retryDeadlineNanos;
+    private final BlockingQueue<Queued> queue;
+    // Orders admitted but not yet placed or rejected, whoever removes an order decides its fate
+    private final ConcurrentHashMap<String, Order> pending = new ConcurrentHashMap<>();
+    private final IngressMetrics metrics;
+    private final Thread worker;
+    private volatile boolean stopped;
+
+    /**
+     * Reads the queue capacity, retry interval and retry deadline from ingress.capacity,
+     * ingress.retry.interval.ms and ingress.retry.deadline.ms.
+     */
+    public AdmissionControl(OrderFulfilment delegate, BackpressurePolicy policy, EvictionPolicy forcedEviction) {
+        this(delegate, policy, forcedEviction, AppConfig.getInstance().getInt("ingress.capacity", 1024),
+                AppConfig.getInstance().getLong("ingress.retry.interval.ms", 5L),
+                AppConfig.getInstance().getLong("ingress.retry.deadline.ms", 1000L));
+    }
+
+    /**
+     * forcedEviction chooses the order to discard with {@link BackpressurePolicy#FORCE_EVICT}, retries
+     * of {@link BackpressurePolicy#BLOCK} and {@link BackpressurePolicy#RETRY} are retryIntervalMillis
+     * apart and RETRY gives up retryDeadlineMillis after the order was enqueued.
+     */
+    public AdmissionControl(OrderFulfilment delegate, BackpressurePolicy policy, EvictionPolicy forcedEviction,
+                            int capacity, long retryIntervalMillis, long retryDeadlineMillis) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ingress capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.forcedEviction = forcedEviction;
+        this.retryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, retryIntervalMillis));
+        this.retryDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(retryDeadlineMillis);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.metrics = new IngressMetrics(queue::size, capacity);
+        this.worker = new Thread(this::admitOrders, "ingress");
+        this.worker.setDaemon(true);
+    }
+
+
+    public void start() {
+        worker.start();
+    }
+
+    /** Places or rejects the orders still queued and stops the worker. */
+    public void stop() {
+        stopped = true;
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Enqueues the order. A full queue sheds it with {@link BackpressurePolicy#SHED} and blocks the
+     * caller otherwise. Returns false if the order was rejected.
+     */
+    @Override
+    public boolean placeOrder(Order order) {
+        return placeOrder(order, -1L);
+    }
+
+    /** Enqueues the order like {@link #placeOrder(Order)}, the pickup delay is kept for its placement. */
+    @Override
+    public boolean placeOrder(Order order, long pickupDelayMillis) {
+        String orderId = order.getId();
+        pending.put(orderId, order);
+        Queued queued = new Queued(order, pickupDelayMillis, System.nanoTime());
+        if (!queue.offer(queued)) {
+            if (policy == BackpressurePolicy.SHED) {
+                metrics.shed();
+                reject(orderId);
+                return false;
+            }
+            metrics.blockedOffer();
+            try {
+                queue.put(queued);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reject(orderId);
+                return false;
+            }
+        }
+        metrics.enqueued();
+        return true;
+    }
+
+    /** Enqueues the order, forcedEviction is ignored, the policy of the admission control applies. */
+    @Override
+    public boolean placeOrder(Order order, EvictionPolicy forcedEviction) {
+        return placeOrder(order);
+    }
+
+    @Override
+    public void placeOrders(Collection<Order> orders) {
+        for (Order order : orders) {
+            placeOrder(order);
+        }
+    }
+
+    @Override
+    public void pickupOrder(String orderId) {
+        if (pending.containsKey(orderId) && reject(orderId)) {
+            LOGGER.warn("Order {} was not placed before its courier arrived", orderId);
+            return;
+        }
+        delegate.pickupOrder(orderId);
+    }
+
+    @Override
+    public void rejectOrder(String orderId) {
+        delegate.rejectOrder(orderId);
+    }
+
+    @Override
+    public int sweepExpiredOrders(int batchSize) {
+        return delegate.sweepExpiredOrders(batchSize);
+    }
+
+    @Override
+    public List<Action> getActionLog() {
+        return delegate.getActionLog();
+    }
+
+    @Override
+    public Clock getClock() {
+        return delegate.getClock();
+    }
+
+    public IngressMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void admitOrders() {
+        while (!stopped || !queue.isEmpty()) {
+            try {
+                Queued queued = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (queued != null) {
+                    admit(queued);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Order admission failed", e);
+            }
+        }
+    }
+
+    private void admit(Queued queued) {
+        String orderId = queued.order().getId();
+        EvictionPolicy eviction = policy == BackpressurePolicy.FORCE_EVICT ? forcedEviction : null;
+        while (true) {
+            // The courier is on its way while the order waits, the time queued is off its pickup delay
+            long pickupDelayMillis = queued.pickupDelayMillis() < 0 ? -1L : Math.max(0L, queued.pickupDelayMillis()
+                    - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued.enqueuedNanos()));
+            boolean[] placed = new boolean[1];
+            // Placed under the lock of the pending entry, so a pickup waits for the placement to finish
+            boolean stillPending = pending.computeIfPresent(orderId, (id, order) -> {
+                placed[0] = delegate.placeOrder(order, eviction, pickupDelayMillis);
+                return placed[0] ? null : order;
+            }) != null || placed[0];
+            if (!stillPending) {
+                // Rejected when its courier arrived
+                return;
+            }
+            if (placed[0]) {
+                metrics.admitted(System.nanoTime() - queued.enqueuedNanos());
+                return;
+            }
+            boolean retry = switch (policy) {
+                case BLOCK -> !stopped;
+                case RETRY -> System.nanoTime() - queued.enqueuedNanos() < retryDeadlineNanos;
+                case SHED, FORCE_EVICT -> false;
+            };
+            if (!retry) {
+                reject(orderId);
+                return;
+            }
+            metrics.retried();
+            LockSupport.parkNanos(retryIntervalNanos);
+        }
+    }
+
+    // Only the caller that removes the order from pending records the rejection
+    private boolean reject(String orderId) {
+        if (pending.remove(orderId) == null) {
+            return false;
+        }
+        metrics.rejected();
+        delegate.rejectOrder(orderId);
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.css.challenge.order.fulfilment.service;
+
+/**
+ * BackpressurePolicy decides what {@link AdmissionControl} does with an order that finds no room, on
+ * the shelves or in the ingress queue.
+ */
+public enum BackpressurePolicy {
+    // Retry the order until it is placed or its courier arrives, a full queue blocks the producer
+    BLOCK,
+    // Retry the order until the retry deadline, then reject it, a full queue blocks the producer
+    RETRY,
+    // Reject the order at once, also when the queue is full
+    SHED,
+    // Discard the lowest value order on the overflow shelf to place it, a full queue blocks the producer
+    FORCE_EVICT
+}
@@ -0,0 +1,44 @@
+package com.css.challenge.order.fulfilment.service;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/** Schedules every pickup as its own delayed task on a {@link ScheduledThreadPoolExecutor}. */
+public class ExecutorPickupScheduler implements PickupScheduler {
+    private final ScheduledThreadPoolExecutor executor;
+    private final Consumer<String> pickup;
+
+    public ExecutorPickupScheduler(int threads, Consumer<String> pickup) {
+        this.executor = new ScheduledThreadPoolExecutor(threads);
+        this.pickup = pickup;
+    }
+
+    @Override
+    public void schedule(String orderId, long delayMillis) {
+        executor.schedule(() -> pickup.accept(orderId), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public long getPending() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void setThreads(int threads) {
+        executor.setCorePoolSize(threads);
+    }
+
+    @Override
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
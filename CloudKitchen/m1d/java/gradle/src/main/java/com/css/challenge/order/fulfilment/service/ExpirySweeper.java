@@ -0,0 +1,108 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.configuration.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpirySweeper periodically discards expired orders from every shelf, so spoiled orders do not
+ * hold capacity until the room shelf overflows.
+ */
+public class ExpirySweeper {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpirySweeper.class);
+    private final OrderFulfilment orderFulfilmentService;
+    private final ScheduledExecutorService sweepScheduler = Executors.newSingleThreadScheduledExecutor();
+    private volatile long intervalMillis;
+    private volatile int batchSize;
+    private boolean started;
+    private ScheduledFuture<?> sweeps;
+
+    public ExpirySweeper(OrderFulfilment orderFulfilmentService) {
+        this(orderFulfilmentService, AppConfig.getInstance().getLong("sweep.interval.ms", 1000L),
+                AppConfig.getInstance().getInt("sweep.batch.size", 64));
+    }
+
+    public ExpirySweeper(OrderFulfilment orderFulfilmentService, long intervalMillis, int batchSize) {
+        checkBatchSize(batchSize);
+        this.orderFulfilmentService = orderFulfilmentService;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = batchSize;
+    }
+
+    /** Starts sweeping, an interval of zero or less disables the sweeper. */
+    public synchronized void start() {
+        started = true;
+        schedule();
+    }
+
+    private void schedule() {
+        if (intervalMillis <= 0) {
+            LOGGER.info("Expiry sweeper disabled");
+            return;
+        }
+        sweeps = sweepScheduler.scheduleWithFixedDelay(this::sweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Changes the interval and batch size of a running sweeper. A sweep in progress finishes first,
+     * the next one runs intervalMillis later.
+     */
+    public synchronized void reschedule(long intervalMillis, int batchSize) {
+        checkBatchSize(batchSize);
+        this.batchSize = batchSize;
+        if (intervalMillis == this.intervalMillis) {
+            return;
+        }
+        this.intervalMillis = intervalMillis;
+        if (sweeps != null) {
+            sweeps.cancel(false);
+            sweeps = null;
+        }
+        if (started && !sweepScheduler.isShutdown()) {
+            schedule();
+        }
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public synchronized void stop() {
+        sweepScheduler.shutdown();
+        try {
+            if (!sweepScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                sweepScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sweepScheduler.shutdownNow();
+        }
+    }
+
+    private void sweep() {
+        try {
+            int discarded = orderFulfilmentService.sweepExpiredOrders(batchSize);
+            if (discarded > 0) {
+                LOGGER.info("Expiry sweeper discarded {} orders", discarded);
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic task
+            LOGGER.error("Expiry sweep failed", e);
+        }
+    }
+
+    private static void checkBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Sweep batch size must be positive: " + batchSize);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * KitchenSettings are the settings of a kitchen that can change while it runs, read from
+ * {@link AppConfig}. Shelf capacities, keyed shelf.capacity.&lt;temp&gt;, and shelf.eviction are
+ * optional, a kitchen keeps the ones it was started with while they are not set.
+ */
+public record KitchenSettings(Map<TemperatureZone, Integer> shelfCapacities, EvictionPolicyType eviction,
+                              int pickupThreads, long sweepIntervalMillis, int sweepBatchSize) {
+
+    /** Reads the settings, throws IllegalArgumentException if a value is invalid. */
+    public static KitchenSettings from(AppConfig config) {
+        Map<TemperatureZone, Integer> shelfCapacities = new EnumMap<>(TemperatureZone.class);
+        for (TemperatureZone zone : TemperatureZone.values()) {
+            String key = "shelf.capacity." + zone.getTemp();
+            if (config.getProperty(key) != null) {
+                shelfCapacities.put(zone, atLeast(key, config.getInt(key, 0), 0));
+            }
+        }
+        return new KitchenSettings(
+                Collections.unmodifiableMap(shelfCapacities),
+                config.getEnum("shelf.eviction", EvictionPolicyType.class, null),
+                atLeast("thread.pool.size", config.getInt("thread.pool.size", 10), 1),
+                config.getLong("sweep.interval.ms", 1000L),
+                atLeast("sweep.batch.size", config.getInt("sweep.batch.size", 64), 1));
+    }
+
+    private static int atLeast(String key, int value, int min) {
+        if (value < min) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        return value;
+    }
+}
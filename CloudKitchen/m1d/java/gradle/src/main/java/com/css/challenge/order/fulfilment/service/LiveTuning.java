@@ -0,0 +1,92 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * LiveTuning applies the {@link KitchenSettings} of every reloaded {@link AppConfig} to running
+ * kitchens. Only what changed is applied and nothing is restarted, so orders on the shelves and
+ * pending pickups are kept. An invalid configuration is logged and the running settings stay.
+ */
+public class LiveTuning implements Consumer<AppConfig> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LiveTuning.class);
+    private final List<ShelfRegistry> shelfRegistries;
+    private final OrderService orderService;
+    private final ExpirySweeper expirySweeper;
+    private final long expectedPickupMillis;
+    private final long seed;
+    private KitchenSettings settings;
+
+    /**
+     * expectedPickupMillis and seed create the eviction policy, see {@link EvictionPolicyType}. The
+     * order service and the sweeper may be null, their settings are then ignored.
+     */
+    public LiveTuning(List<ShelfRegistry> shelfRegistries, OrderService orderService, ExpirySweeper expirySweeper,
+                      long expectedPickupMillis, long seed) {
+        this.shelfRegistries = shelfRegistries;
+        this.orderService = orderService;
+        this.expirySweeper = expirySweeper;
+        this.expectedPickupMillis = expectedPickupMillis;
+        this.seed = seed;
+    }
+
+    @Override
+    public synchronized void accept(AppConfig config) {
+        KitchenSettings next;
+        try {
+            next = KitchenSettings.from(config);
+        } catch (IllegalArgumentException e) {
+            LOGGER.error("Configuration ignored, the running settings are kept: {}", e.getMessage());
+            return;
+        }
+        apply(next);
+        settings = next;
+    }
+
+    /** Returns the settings applied last, null before the first configuration. */
+    public synchronized KitchenSettings getSettings() {
+        return settings;
+    }
+
+    private void apply(KitchenSettings next) {
+        for (Map.Entry<TemperatureZone, Integer> capacity : next.shelfCapacities().entrySet()) {
+            for (ShelfRegistry shelfRegistry : shelfRegistries) {
+                resize(shelfRegistry, capacity.getKey(), capacity.getValue());
+            }
+        }
+        if (next.eviction() != null && (settings == null || next.eviction() != settings.eviction())) {
+            // Every registry gets a policy of its own, a sampling policy holds a random generator
+            shelfRegistries.forEach(shelfRegistry ->
+                    shelfRegistry.setEvictionPolicy(next.eviction().create(expectedPickupMillis, seed)));
+            LOGGER.info("Eviction policy set to {}", next.eviction());
+        }
+        if (orderService != null && (settings == null || next.pickupThreads() != settings.pickupThreads())) {
+            orderService.setPickupThreads(next.pickupThreads());
+            LOGGER.info("Pickup threads set to {}", next.pickupThreads());
+        }
+        if (expirySweeper != null && (next.sweepIntervalMillis() != expirySweeper.getIntervalMillis()
+                || next.sweepBatchSize() != expirySweeper.getBatchSize())) {
+            expirySweeper.reschedule(next.sweepIntervalMillis(), next.sweepBatchSize());
+            LOGGER.info("Expiry sweeps set to {} orders every {} ms", next.sweepBatchSize(), next.sweepIntervalMillis());
+        }
+    }
+
+    private static void resize(ShelfRegistry shelfRegistry, TemperatureZone zone, int capacity) {
+        for (ShelfStorage shelf : shelfRegistry.getShelves(zone)) {
+            if (shelf.getCapacity() != capacity) {
+                shelfRegistry.setCapacity(zone, capacity);
+                LOGGER.info("{} shelf capacity set to {}", zone, capacity);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicy;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * OrderFulfilment places orders on shelves and picks them up, recording every action. Implemented by
+ * a single kitchen, {@link OrderFulfilmentService}, and by {@link ShardedOrderFulfilment} over
+ * several independent ones.
+ */
+public interface OrderFulfilment {
+
+    /** Places the order, returns false if there was no room for it and it was dropped. */
+    boolean placeOrder(Order order);
+
+    /**
+     * Places the order, discarding the order chosen by forcedEviction when the shelves are full and
+     * nothing has expired. Returns false if the order was not placed, without counting it as dropped.
+     */
+    boolean placeOrder(Order order, EvictionPolicy forcedEviction);
+
+    /**
+     * Places the order its courier picks up pickupDelayMillis from now, see {@link PlacementStrategy}.
+     * Implementations that do not place by pickup time place it like {@link #placeOrder(Order)}.
+     */
+    default boolean placeOrder(Order order, long pickupDelayMillis) {
+        return placeOrder(order);
+    }
+
+    /**
+     * Same as {@link #placeOrder(Order, EvictionPolicy)} for an order its courier picks up
+     * pickupDelayMillis from now, -1 if that is not known.
+     */
+    default boolean placeOrder(Order order, EvictionPolicy forcedEviction, long pickupDelayMillis) {
+        return placeOrder(order, forcedEviction);
+    }
+
+    /** Places a burst of orders with the same result as placing them one by one in iteration order. */
+    void placeOrders(Collection<Order> orders);
+
+    void pickupOrder(String orderId);
+
+    /** Records that the order was refused before it reached a shelf, with a reject action. */
+    void rejectOrder(String orderId);
+
+    /** Discards every expired order, see {@link OrderFulfilmentService#sweepExpiredOrders(int)}. */
+    int sweepExpiredOrders(int batchSize);
+
+    /** Returns the actions so far in timestamp order. */
+    List<Action> getActionLog();
+
+    /** Returns the clock placement and expiry times are read from. */
+    Clock getClock();
+}
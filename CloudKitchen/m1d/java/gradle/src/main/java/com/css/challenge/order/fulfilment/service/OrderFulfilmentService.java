@@ -3,174 +3,437 @@ package com.css.challenge.order.fulfilment.service;
 
 import com.css.challenge.client.Action;
 import com.css.challenge.client.Order;
-import com.css.challenge.client.Temperature;
-import com.css.challenge.order.fulfilment.storage.Shelf;
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.metrics.FulfilmentMetrics;
+import com.css.challenge.order.fulfilment.recovery.RecoveredState;
+import com.css.challenge.order.fulfilment.recovery.ResidentOrder;
+import com.css.challenge.order.fulfilment.recovery.ShelfSnapshot;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicy;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
 
-public class OrderFulfilmentService {
+/** OrderFulfilmentService runs a single kitchen: one shelf registry, one order index and one action log. */
+public class OrderFulfilmentService implements OrderFulfilment {
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderFulfilmentService.class);
-    private final Shelf hotShelf;
-    private final Shelf coldShelf;
-    private final Shelf roomShelf;
+    private final ShelfRegistry shelfRegistry;
 
-    private final ConcurrentHashMap<String, String> orderShelfMapping;
-    private final PriorityQueue<Action> actionLog;
+    // One entry per order on a shelf, a pickup takes one lookup to find and remove it
+    private final ConcurrentHashMap<String, OrderLocation> orderLocations;
+    private final ActionLog actionLog;
+    private final FulfilmentMetrics metrics;
+    private volatile PlacementStrategy placementStrategy = PlacementStrategy.GREEDY;
+    private volatile long expectedPickupMillis = -1;
 
     public OrderFulfilmentService(int hotsize, int coldsize, int roomsize) {
-        hotShelf = new Shelf(hotsize, Temperature.HOT);
-        coldShelf = new Shelf(coldsize, Temperature.COLD);
-        roomShelf = new Shelf(roomsize, Temperature.ROOM);
-        orderShelfMapping = new ConcurrentHashMap<>();
-        actionLog = new PriorityQueue<>(Comparator.comparingLong(Action::getTimestamp));
+        this(hotsize, coldsize, roomsize, ShelfImplementation.SYNCHRONIZED);
     }
 
-    public void placeOrder(Order order) {
-        switch (order.getTemp()) {
-            case Temperature.HOT:
-                placeOrder(order, hotShelf);
-                break;
-            case Temperature.COLD:
-                placeOrder(order, coldShelf);
-                break;
-            case Temperature.ROOM:
-                placeRoomOrder(order);
-                break;
-            default:
-                LOGGER.error("placeOrder - Invalid temperature {} for order {}", order.getTemp(), order.getId());
+    public OrderFulfilmentService(int hotsize, int coldsize, int roomsize, ShelfImplementation shelfImplementation) {
+        this(ShelfRegistry.standard(hotsize, coldsize, roomsize, shelfImplementation));
+    }
 
-        }
+    public OrderFulfilmentService(ShelfRegistry shelfRegistry) {
+        this(shelfRegistry, new ActionLog());
     }
 
-    private void placeRoomOrder(Order order) {
-        String orderId = order.getId();
+    public OrderFulfilmentService(ShelfRegistry shelfRegistry, ActionLog actionLog) {
+        this.shelfRegistry = shelfRegistry;
+        this.actionLog = actionLog;
+        orderLocations = new ConcurrentHashMap<>();
+        metrics = new FulfilmentMetrics(shelfRegistry);
+    }
 
-        // Attempt to place the order on the room shelf
-        if (roomShelf.put(orderId, order)) {
-            // Successfully placed on the room shelf
-            orderShelfMapping.put(orderId, Temperature.ROOM);
-            addToActionLog(new Action(Instant.now(), orderId, Action.PLACE));
-            return;
+    @Override
+    public boolean placeOrder(Order order) {
+        return placeOrder(order, -1L);
+    }
+
+    @Override
+    public boolean placeOrder(Order order, long pickupDelayMillis) {
+        if (placeOrder(order, null, pickupDelayMillis)) {
+            return true;
         }
+        dropped(order);
+        return false;
+    }
 
-        LOGGER.info("No space on the room shelf. Attempting to move eligible entries from the room shelf.");
+    /**
+     * Places the order like {@link #placeOrder(Order)}, but when every shelf it may go on is full and
+     * nothing has expired the overflow shelf discards the order chosen by forcedEviction instead of
+     * its own policy, e.g. to make room for an order that must not be dropped. A null forcedEviction
+     * keeps the policy of the shelves. Returns false if the order was not placed, it is not counted
+     * as dropped, the caller decides what becomes of it.
+     */
+    @Override
+    public boolean placeOrder(Order order, EvictionPolicy forcedEviction) {
+        return placeOrder(order, forcedEviction, -1L);
+    }
 
-        // Find an eligible order to move from the room shelf
-        Order eligibleOrder = roomShelf.findEligibleOrder();
+    @Override
+    public boolean placeOrder(Order order, EvictionPolicy forcedEviction, long pickupDelayMillis) {
+        long start = System.nanoTime();
+        ActionLog.Batch actions = new ActionLog.Batch();
+        try {
+            return place(order, actions, forcedEviction, pickupDelayMillis);
+        } finally {
+            actionLog.appendAll(actions);
+            metrics.recordPlace(System.nanoTime() - start);
+        }
+    }
 
-        if (eligibleOrder != null) {
-            // Try to move the eligible order to its ideal shelf
-            if (moveEligibleOrderToIdealShelf(eligibleOrder)) {
-                // Place the new order on the room shelf after creating space
-                roomShelf.put(orderId, order);
-                orderShelfMapping.put(orderId, Temperature.ROOM);
-                addToActionLog(new Action(Instant.now(), orderId, Action.PLACE));
-            } else {
-                // If unable to move the eligible order, evict an order and place the new one
-                evictAndPlace(order);
+    /**
+     * Places a burst of orders with the same result as placing them one by one in iteration order.
+     * Every shelf is held for the whole batch, so each shelf lock is taken once rather than on every
+     * call, and the resulting actions are appended to the log in one operation. Pickups and sweeps
+     * wait for the batch, keep batches to a burst of arrivals.
+     */
+    @Override
+    public void placeOrders(Collection<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        ActionLog.Batch actions = new ActionLog.Batch();
+        try {
+            shelfRegistry.exclusively(() -> {
+                for (Order order : orders) {
+                    if (!place(order, actions, null, -1L)) {
+                        dropped(order);
+                    }
+                }
+                return null;
+            });
+        } finally {
+            actionLog.appendAll(actions);
+            long perOrder = (System.nanoTime() - start) / orders.size();
+            for (int i = 0; i < orders.size(); i++) {
+                metrics.recordPlace(perOrder);
             }
-        } else {
-            // If no eligible order is found, evict an order and place the new one
-            evictAndPlace(order);
         }
     }
 
-    private boolean moveEligibleOrderToIdealShelf(Order eligibleOrder) {
-        String eligibleOrderId = eligibleOrder.getId();
-        String orderTemp = eligibleOrder.getTemp();
+    /**
+     * Sets how orders choose between their ideal and fallback shelves. expectedPickupMillis is the
+     * pickup delay assumed for orders placed without one, e.g. the latest pickup of the range, or -1
+     * if there is no estimate.
+     */
+    public void setPlacementStrategy(PlacementStrategy placementStrategy, long expectedPickupMillis) {
+        this.placementStrategy = placementStrategy;
+        this.expectedPickupMillis = expectedPickupMillis;
+    }
 
-        if (orderTemp.equalsIgnoreCase(Temperature.COLD) && coldShelf.hasSpace()) {
-            moveOrder(eligibleOrderId, eligibleOrder, roomShelf, coldShelf, Temperature.COLD);
-            return true;
-        } else if (orderTemp.equalsIgnoreCase(Temperature.HOT) && hotShelf.hasSpace()) {
-            moveOrder(eligibleOrderId, eligibleOrder, roomShelf, hotShelf, Temperature.HOT);
+    private boolean place(Order order, ActionLog.Batch actions, EvictionPolicy forcedEviction,
+                          long pickupDelayMillis) {
+        TemperatureZone zone = order.compact().getZone();
+        if (zone == null || !shelfRegistry.hasZone(zone)) {
+            LOGGER.error("placeOrder - Invalid temperature {} for order {}", order.getTemp(), order.getId());
+            return false;
+        }
+        String orderId = order.getId();
+        // Registered before the order is on a shelf, so a discard racing the placement finds it
+        OrderLocation location = OrderLocation.placing();
+        orderLocations.put(orderId, location);
+        if (place(order, zone, location, actions, forcedEviction, pickupDelayMillis)) {
             return true;
         }
+        orderLocations.remove(orderId, location);
+        location.endPlacement(null);
         return false;
     }
 
-    private void moveOrder(String orderId, Order order, Shelf fromShelf, Shelf toShelf, String newTemp) {
-        fromShelf.remove(orderId);
-        toShelf.put(orderId, order);
-        orderShelfMapping.put(orderId, newTemp);
-        addToActionLog(new Action(Instant.now(), orderId, Action.MOVE));
+    private boolean place(Order order, TemperatureZone zone, OrderLocation location, ActionLog.Batch actions,
+                          EvictionPolicy forcedEviction, long pickupDelayMillis) {
+        String orderId = order.getId();
+        TemperatureZone[] fallbacks = shelfRegistry.getFallbacks(zone);
+        long pickupDelay = pickupDelayMillis >= 0 ? pickupDelayMillis : expectedPickupMillis;
+        int firstFallback = 0;
+        if (fallbacks.length > 0 && placementStrategy.fallbackFirst(order.compact(), fallbacks[0], pickupDelay)) {
+            // The order outlives its pickup on the fallback, the ideal shelf is kept for one that would not
+            ShelfStorage shelf = shelfRegistry.put(fallbacks[0], orderId, order);
+            if (shelf != null) {
+                placed(orderId, location, shelf, actions);
+                return true;
+            }
+            firstFallback = 1;
+        }
+        //Try to place on ideal shelf
+        ShelfStorage shelf = shelfRegistry.put(zone, orderId, order);
+        if (shelf != null) {
+            placed(orderId, location, shelf, actions);
+            return true;
+        }
+        for (int i = firstFallback; i < fallbacks.length; i++) {
+            TemperatureZone fallback = fallbacks[i];
+            // Try to place on the fallback shelves, usually room temperature
+            LOGGER.info("No room on {} shelf trying on {} shelf", order.getTemp(), fallback.getTemp());
+            shelf = shelfRegistry.put(fallback, orderId, order);
+            if (shelf != null) {
+                placed(orderId, location, shelf, actions);
+                return true;
+            }
+        }
+        // Overflow is resolved on the last zone of the chain, the zone itself if it has no fallback
+        TemperatureZone overflowZone = fallbacks.length > 0 ? fallbacks[fallbacks.length - 1] : zone;
+        return placeOverflowOrder(order, location, overflowZone, actions, forcedEviction);
+    }
+
+    private void dropped(Order order) {
+        metrics.dropped();
+        LOGGER.warn("Order {} dropped, there is no room for it and no order could be discarded for it", order.getId());
     }
 
-    private void evictAndPlace(Order order) {
+    private boolean placeOverflowOrder(Order order, OrderLocation location, TemperatureZone overflowZone,
+                                       ActionLog.Batch actions, EvictionPolicy forcedEviction) {
         String orderId = order.getId();
-        LOGGER.warn("There are no eligible orders on room shelf to move to hot or cold");
-        String evictedOrderId = roomShelf.evictStaleOrder();
-        if(!evictedOrderId.isEmpty()) {
-            orderShelfMapping.remove(evictedOrderId);
-            addToActionLog(new Action(Instant.now(), evictedOrderId, Action.DISCARD));
+        LOGGER.info("No space on the {} shelf. Attempting to move eligible entries from the {} shelf.",
+                overflowZone.getTemp(), overflowZone.getTemp());
 
-            roomShelf.put(orderId, order);
-            orderShelfMapping.put(orderId, Temperature.ROOM);
-            addToActionLog(new Action(Instant.now(), orderId, Action.PLACE));
+        for (ShelfStorage overflowShelf : shelfRegistry.getShelves(overflowZone)) {
+            // Expired orders are discarded rather than moved, which may already make room
+            if (discardExpiredOrders(overflowShelf, actions) > 0 && overflowShelf.put(orderId, order)) {
+                placed(orderId, location, overflowShelf, actions);
+                return true;
+            }
+            for (TemperatureZone idealZone : TemperatureZone.values()) {
+                if (idealZone == overflowZone || !shelfRegistry.hasSpace(idealZone)) {
+                    continue;
+                }
+                // Find the order closest to expiry that can go back to a zone with space
+                Order eligibleOrder = overflowShelf.findEligibleOrder(idealZone);
+                // Try to move the eligible order to its ideal shelf and place the new order after creating space
+                if (eligibleOrder != null && moveEligibleOrderToIdealShelf(eligibleOrder, overflowShelf, actions)
+                        && overflowShelf.put(orderId, order)) {
+                    placed(orderId, location, overflowShelf, actions);
+                    return true;
+                }
+            }
         }
+        // If unable to move an eligible order, evict an order and place the new one
+        return evictAndPlace(order, location, overflowZone, actions, forcedEviction);
     }
 
-    private void placeOrder(Order order, Shelf shelf) {
-        //Try to place on ideal shelf
+    private int discardExpiredOrders(ShelfStorage shelf, ActionLog.Batch actions) {
+        List<String> evictedOrderIds = shelf.evictExpiredOrders(Math.max(1, shelf.size()));
+        for (String evictedOrderId : evictedOrderIds) {
+            discarded(evictedOrderId, shelf, actions);
+        }
+        return evictedOrderIds.size();
+    }
+
+    private boolean moveEligibleOrderToIdealShelf(Order eligibleOrder, ShelfStorage fromShelf, ActionLog.Batch actions) {
+        String eligibleOrderId = eligibleOrder.getId();
+        TemperatureZone idealZone = eligibleOrder.compact().getZone();
+        if (idealZone == null) {
+            return false;
+        }
+        // Pickups of the order wait for the move, so they find it on one of the two shelves
+        OrderLocation location = orderLocations.get(eligibleOrderId);
+        if (location == null || !location.beginMove(fromShelf)) {
+            return false;
+        }
+        // Take the slot on the ideal shelf first so the order is never left without a shelf
+        ShelfStorage toShelf = shelfRegistry.put(idealZone, eligibleOrderId, eligibleOrder);
+        if (toShelf == null) {
+            location.endMove(fromShelf);
+            return false;
+        }
+        if (!fromShelf.remove(eligibleOrderId)) {
+            // Picked up or discarded by the expiry sweeper in the meantime, the space is free anyway
+            toShelf.remove(eligibleOrderId);
+            location.endMove(null);
+            return true;
+        }
+        location.endMove(toShelf);
+        metrics.shelf(fromShelf).moved();
+        actions.add(new Action(now(), eligibleOrderId, Action.MOVE), shelfRegistry.indexOf(toShelf));
+        return true;
+    }
+
+    private boolean evictAndPlace(Order order, OrderLocation location, TemperatureZone overflowZone,
+                                  ActionLog.Batch actions, EvictionPolicy forcedEviction) {
         String orderId = order.getId();
-        if(!shelf.put(orderId, order)) {
-            // Try to place on room temperature shelf
-            LOGGER.info("No room on {} shelf trying on room shelf", order.getTemp());
-            placeRoomOrder(order);
-        } else {
-            orderShelfMapping.put(orderId, order.getTemp());
-            addToActionLog(new Action(Instant.now(), orderId, Action.PLACE));
+        LOGGER.warn("There are no eligible orders on {} shelf to move to their ideal shelf", overflowZone.getTemp());
+        for (ShelfStorage overflowShelf : shelfRegistry.getShelves(overflowZone)) {
+            if (overflowShelf.size() > overflowShelf.getCapacity()) {
+                // Over a lowered capacity, a discard would not make room for the order
+                continue;
+            }
+            // A lock-free shelf may lose the freed slot to a concurrent placement, it then evicts again
+            for (int attempt = 0; attempt <= overflowShelf.getCapacity(); attempt++) {
+                // Evict and put under the shelf lock, so no other placement takes the freed slot
+                Boolean placedAfterEviction = overflowShelf.exclusively(() -> {
+                    String evictedOrderId = forcedEviction != null
+                            ? overflowShelf.evictStaleOrder(forcedEviction)
+                            : overflowShelf.evictStaleOrder();
+                    if (evictedOrderId.isEmpty()) {
+                        return null;
+                    }
+                    discarded(evictedOrderId, overflowShelf, actions);
+                    return overflowShelf.put(orderId, order);
+                });
+                if (placedAfterEviction == null) {
+                    break;
+                }
+                if (placedAfterEviction) {
+                    placed(orderId, location, overflowShelf, actions);
+                    return true;
+                }
+            }
         }
+        return false;
     }
 
-    public void pickupOrder(String orderId) {
-        if(!orderShelfMapping.containsKey(orderId)) {
-            LOGGER.warn("The order {} is already discarded", orderId);
-            return;
+    private void discarded(String orderId, ShelfStorage shelf, ActionLog.Batch actions) {
+        if (discard(orderId, shelf)) {
+            actions.add(new Action(now(), orderId, Action.DISCARD), shelfRegistry.indexOf(shelf));
+        }
+    }
+
+    /**
+     * Drops the location of an order discarded from shelf. Returns false if the order is still being
+     * placed, its placement then records the discard after the PLACE.
+     */
+    private boolean discard(String orderId, ShelfStorage shelf) {
+        OrderLocation location = orderLocations.remove(orderId);
+        metrics.shelf(shelf).discarded();
+        return location == null || location.discard();
+    }
+
+    private Instant now() {
+        return shelfRegistry.getClock().instant();
+    }
+
+    private void placed(String orderId, OrderLocation location, ShelfStorage shelf, ActionLog.Batch actions) {
+        metrics.shelf(shelf).placed();
+        actions.add(new Action(now(), orderId, Action.PLACE), shelfRegistry.indexOf(shelf));
+        if (!location.endPlacement(shelf)) {
+            // Expired and discarded between the put and here, the discard was left to the placement
+            actions.add(new Action(now(), orderId, Action.DISCARD), shelfRegistry.indexOf(shelf));
+        }
+    }
+
+    /** Records that admission control refused the order, it never reached a shelf. */
+    @Override
+    public void rejectOrder(String orderId) {
+        metrics.rejected();
+        actionLog.append(new Action(now(), orderId, Action.REJECT));
+    }
+
+    /**
+     * Discards every expired order from all shelves. Each shelf is locked for at most one batch of
+     * batchSize orders at a time. Returns the number of discarded orders.
+     */
+    @Override
+    public int sweepExpiredOrders(int batchSize) {
+        int discarded = 0;
+        for (ShelfStorage shelf : shelfRegistry.getAllShelves()) {
+            List<String> evictedOrderIds;
+            do {
+                evictedOrderIds = shelf.evictExpiredOrders(batchSize);
+                for (String evictedOrderId : evictedOrderIds) {
+                    if (discard(evictedOrderId, shelf)) {
+                        actionLog.append(new Action(now(), evictedOrderId, Action.DISCARD), shelfRegistry.indexOf(shelf));
+                    }
+                }
+                discarded += evictedOrderIds.size();
+            } while (evictedOrderIds.size() == batchSize);
         }
-        String temperature = orderShelfMapping.get(orderId);
-        boolean pickUpStatus;
-        switch (temperature) {
-            case Temperature.COLD -> pickUpStatus = coldShelf.remove(orderId);
-            case Temperature.HOT -> pickUpStatus= hotShelf.remove(orderId);
-            case Temperature.ROOM -> pickUpStatus = roomShelf.remove(orderId);
-            default -> {
-                LOGGER.error("pickOrder Invalid temperature {}  for order {}", temperature, orderId);
-                return;
+        return discarded;
+    }
+
+    /** Returns the number of orders in the order index, each one is on a shelf or being placed. */
+    int locatedOrders() {
+        return orderLocations.size();
+    }
+
+    /** Writes a snapshot of every shelf, see {@link ShelfSnapshot}. */
+    public void snapshot(Path file) throws IOException {
+        ShelfSnapshot.write(shelfRegistry, file);
+    }
+
+    /**
+     * Puts the recovered orders back on their shelves with their original expiry, before any new
+     * order is placed. No action is recorded, the journal already holds their placement.
+     */
+    public void restore(RecoveredState recoveredState) {
+        List<ShelfStorage> shelves = shelfRegistry.getAllShelves();
+        for (ResidentOrder resident : recoveredState.getResidents()) {
+            String orderId = resident.order().getId();
+            ShelfStorage shelf = resident.shelf() >= 0 && resident.shelf() < shelves.size() ? shelves.get(resident.shelf()) : null;
+            if (shelf == null || !shelf.restore(orderId, resident.order(), resident.placedAt(), resident.expiry())) {
+                LOGGER.warn("Unable to restore order {} on shelf {}", orderId, resident.shelf());
+                continue;
             }
+            orderLocations.put(orderId, new OrderLocation(shelf));
+        }
+    }
+
+    @Override
+    public void pickupOrder(String orderId) {
+        long start = System.nanoTime();
+        try {
+            pickup(orderId);
+        } finally {
+            metrics.recordPickup(System.nanoTime() - start);
         }
-        if(pickUpStatus) {
-            addToActionLog(new Action(Instant.now(), orderId, Action.PICKUP));
-            orderShelfMapping.remove(orderId);
+    }
+
+    private void pickup(String orderId) {
+        OrderLocation location = orderLocations.remove(orderId);
+        ShelfStorage shelf = location != null ? location.remove(orderId) : null;
+        if(shelf == null) {
+            LOGGER.warn("The order {} is already discarded", orderId);
+            metrics.alreadyDiscardedPickup();
+            return;
         }
+        metrics.shelf(shelf).pickedUp();
+        actionLog.append(new Action(now(), orderId, Action.PICKUP), shelfRegistry.indexOf(shelf));
+    }
+
+    /**
+     * Returns the actions so far in timestamp order, writers are not stopped. A journaled log only
+     * returns its tail, the complete log is in the journal.
+     */
+    @Override
+    public List<Action> getActionLog() {
+        return actionLog.snapshot();
+    }
+
+    @Override
+    public Clock getClock() {
+        return shelfRegistry.getClock();
     }
 
-    private synchronized void addToActionLog(Action action) {
-         actionLog.offer(action);
+    public FulfilmentMetrics getMetrics() {
+        return metrics;
     }
 
-    public synchronized  List<Action> getActionLog() {
-        return new ArrayList<>(actionLog);
+    public ShelfRegistry getShelfRegistry() {
+        return shelfRegistry;
     }
 
-    public Shelf getHotShelf() {
-        return hotShelf;
+    public ShelfStorage getHotShelf() {
+        return shelfRegistry.getShelves(TemperatureZone.HOT)[0];
     }
 
-    public Shelf getColdShelf() {
-        return coldShelf;
+    public ShelfStorage getColdShelf() {
+        return shelfRegistry.getShelves(TemperatureZone.COLD)[0];
     }
 
-    public Shelf getRoomShelf() {
-        return roomShelf;
+    public ShelfStorage getRoomShelf() {
+        return shelfRegistry.getShelves(TemperatureZone.ROOM)[0];
     }
 }
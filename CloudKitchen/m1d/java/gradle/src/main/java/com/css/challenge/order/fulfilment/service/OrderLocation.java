@@ -0,0 +1,97 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OrderLocation is the entry of an order in the order index: the shelf it is on and a generation
+ * counter bumped by every move. The generation is odd while the order moves between shelves, so a
+ * pickup that misses the order on the shelf it read retries instead of losing it to the move. An
+ * order being placed starts at generation 1, pickups wait for the placement the same way.
+ */
+final class OrderLocation {
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile ShelfStorage shelf;
+
+    OrderLocation(ShelfStorage shelf) {
+        this.shelf = shelf;
+    }
+
+    /** Creates the entry of an order registered before it is put on a shelf. */
+    static OrderLocation placing() {
+        OrderLocation location = new OrderLocation(null);
+        location.generation.set(1);
+        return location;
+    }
+
+    /**
+     * Ends the placement on shelf, null if the order was not placed. Returns false if the order was
+     * discarded meanwhile, see {@link #discard()}.
+     */
+    boolean endPlacement(ShelfStorage shelf) {
+        this.shelf = shelf;
+        if (generation.compareAndSet(1, 2)) {
+            return true;
+        }
+        this.shelf = null;
+        return false;
+    }
+
+    /**
+     * Records that the order was discarded from its shelf. Returns false if its placement has not
+     * ended yet, the placement then records the discard after the order is placed.
+     */
+    boolean discard() {
+        return !generation.compareAndSet(1, 2);
+    }
+
+    ShelfStorage getShelf() {
+        return shelf;
+    }
+
+    /**
+     * Starts moving the order off from. Returns false if the order is no longer on from or another
+     * move is in progress, otherwise {@link #endMove(ShelfStorage)} must follow.
+     */
+    boolean beginMove(ShelfStorage from) {
+        int current = generation.get();
+        if ((current & 1) != 0 || !generation.compareAndSet(current, current + 1)) {
+            return false;
+        }
+        if (shelf != from) {
+            generation.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /** Ends the move on shelf, null if the order left the shelves meanwhile. */
+    void endMove(ShelfStorage shelf) {
+        this.shelf = shelf;
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Removes the order from its shelf and returns the shelf, or null if the order is no longer on a
+     * shelf, e.g. it was discarded.
+     */
+    ShelfStorage remove(String orderId) {
+        while (true) {
+            int current = generation.get();
+            if ((current & 1) != 0) {
+                // A move is in progress, it only takes one shelf operation
+                Thread.yield();
+                continue;
+            }
+            ShelfStorage currentShelf = shelf;
+            if (currentShelf != null && currentShelf.remove(orderId)) {
+                return currentShelf;
+            }
+            // Not on the shelf read, unless it was moved meanwhile it is gone
+            if (generation.get() == current) {
+                return null;
+            }
+        }
+    }
+}
@@ -2,46 +2,203 @@ package com.css.challenge.order.fulfilment.service;
 
 import com.css.challenge.client.Order;
 import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.recovery.RecoveredState;
+import com.css.challenge.order.fulfilment.recovery.ResidentOrder;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class OrderService {
     private static final Logger LOGGER = LoggerFactory.getLogger(OrderService.class);
-    private final long rate;
     private final long min;
     private final long max;
-    private final List<Order> orderList;
+    private final OrderSource orders;
     private final AtomicInteger placedCount;
-    private final OrderFulfilmentService orderFulfilmentService;
+    private final OrderFulfilment orderFulfilmentService;
     private final ScheduledExecutorService placeScheduler = Executors.newScheduledThreadPool(1);
-    private final ScheduledExecutorService pickUpScheduler;
+    private final PickupScheduler pickUpScheduler;
+    // Orders placed or recovered and not yet picked up, plus one until the source is exhausted
+    private final AtomicInteger outstanding;
     private final CountDownLatch completionLatch;
+    private final Collection<ResidentOrder> residents;
+    private final DiscreteEventScheduler events;
+    private final Random random;
+    // Arrival of the next order relative to the start, only used by the placing thread
+    private long arrivalNanos;
+    private long startNanos;
+    private long startMillis;
+    private volatile long placementNanos = -1;
+    private volatile long maxPlacementLagNanos;
 
 
-    public OrderService(long rate, long min, long max, List<Order> orderList, OrderFulfilmentService orderFulfilmentService) {
-        this.rate = rate;
+    public OrderService(long rate, long min, long max, List<Order> orderList, OrderFulfilment orderFulfilmentService) {
+        this(rate, min, max, orderList, orderFulfilmentService, PickupSchedulerType.EXECUTOR);
+    }
+
+    public OrderService(long rate, long min, long max, List<Order> orderList, OrderFulfilment orderFulfilmentService,
+                        PickupSchedulerType pickupSchedulerType) {
+        this(OrderSource.of(orderList, rate), min, max, orderFulfilmentService, pickupSchedulerType);
+    }
+
+    /** Places the orders of source as they arrive, e.g. a generated load. */
+    public OrderService(OrderSource source, long min, long max, OrderFulfilment orderFulfilmentService,
+                        PickupSchedulerType pickupSchedulerType) {
+        this(source, min, max, orderFulfilmentService, List.of(),
+                pickup -> pickupSchedulerType.create(threadPoolSize(), pickup), null, new Random());
+    }
+
+    /**
+     * Runs the problem as a simulation in the virtual time of events: {@link #waitForCompletion()}
+     * runs every placement and pickup on the calling thread as fast as it can. Pickup delays are
+     * drawn from seed, so a run is reproducible. The shelves must use the clock of events.
+     */
+    public OrderService(long rate, long min, long max, List<Order> orderList, OrderFulfilment orderFulfilmentService,
+                        DiscreteEventScheduler events, long seed) {
+        this(OrderSource.of(orderList, rate), min, max, orderFulfilmentService, events, seed);
+    }
+
+    /** Simulates the orders of source in the virtual time of events, arrival gaps are rounded up to milliseconds. */
+    public OrderService(OrderSource source, long min, long max, OrderFulfilment orderFulfilmentService,
+                        DiscreteEventScheduler events, long seed) {
+        this(source, min, max, orderFulfilmentService, List.of(),
+                pickup -> new SimulatedPickupScheduler(events, pickup), events, new Random(seed));
+    }
+
+    /**
+     * Resumes after a restart: orders handled before it are not placed again and the pickups of the
+     * recovered orders still on a shelf are rescheduled.
+     */
+    public OrderService(long rate, long min, long max, List<Order> orderList, OrderFulfilment orderFulfilmentService,
+                        RecoveredState recoveredState, PickupSchedulerType pickupSchedulerType) {
+        this(OrderSource.of(unhandled(orderList, recoveredState), rate), min, max, orderFulfilmentService,
+                recoveredState.getResidents(), pickup -> pickupSchedulerType.create(threadPoolSize(), pickup), null,
+                new Random());
+    }
+
+    private OrderService(OrderSource orders, long min, long max, OrderFulfilment orderFulfilmentService,
+                         Collection<ResidentOrder> residents, Function<Consumer<String>, PickupScheduler> pickupSchedulers,
+                         DiscreteEventScheduler events, Random random) {
         this.min = min;
         this.max = max;
-        this.orderList = orderList;
+        this.orders = orders;
+        this.residents = residents;
         this.placedCount = new AtomicInteger(0);
         this.orderFulfilmentService = orderFulfilmentService;
-        this.completionLatch = new CountDownLatch(orderList.size());
-        AppConfig appConfig = AppConfig.getInstance();
-        String tpSize = appConfig.getProperty("thread.pool.size");
-        int threadPoolSize = tpSize != null ? Integer.parseInt(tpSize) : 10;
-        this.pickUpScheduler = Executors.newScheduledThreadPool(threadPoolSize);
+        this.outstanding = new AtomicInteger(residents.size() + 1);
+        this.completionLatch = new CountDownLatch(1);
+        this.events = events;
+        this.random = random;
+        this.pickUpScheduler = pickupSchedulers.apply(this::pickUpOrder);
+    }
 
+    private static int threadPoolSize() {
+        return AppConfig.getInstance().getInt("thread.pool.size", 10);
+    }
+
+    private static List<Order> unhandled(List<Order> orderList, RecoveredState recoveredState) {
+        List<Order> unhandled = new ArrayList<>();
+        for (Order order : orderList) {
+            if (!recoveredState.isHandled(order.getId())) {
+                unhandled.add(order);
+            }
+        }
+        return unhandled;
     }
 
     public void startProcessing() {
-        placeScheduler.scheduleAtFixedRate(this::placeOrder, 0L, this.rate, TimeUnit.MILLISECONDS);
+        long now = orderFulfilmentService.getClock().millis();
+        for (ResidentOrder resident : residents) {
+            // The original pickup time is not journaled, draw it again from the placement time
+            long pickUpAt = resident.placedAt() + nextPickUpDelay();
+            String orderId = resident.order().getId();
+            pickUpScheduler.schedule(orderId, pickUpAt - now);
+        }
+        if (!hasNextOrder()) {
+            placementNanos = 0;
+            completed();
+            return;
+        }
+        startNanos = System.nanoTime();
+        startMillis = now;
+        arrivalNanos = orders.nextGapNanos();
+        schedulePlacement(arrivalNanos);
+    }
+
+    // Places every order that has arrived and schedules the placement of the next one. Arrivals are
+    // relative to the start, so a late placement does not delay the orders after it.
+    private void placeArrivedOrders() {
+        long elapsed = elapsedNanos();
+        while (arrivalNanos <= elapsed) {
+            maxPlacementLagNanos = Math.max(maxPlacementLagNanos, elapsed - arrivalNanos);
+            placeOrder();
+            if (!hasNextOrder()) {
+                placementNanos = elapsedNanos();
+                completed();
+                return;
+            }
+            arrivalNanos += orders.nextGapNanos();
+            elapsed = elapsedNanos();
+        }
+        schedulePlacement(arrivalNanos - elapsed);
+    }
+
+    // A source that fails to read ends the run with the orders placed so far
+    private boolean hasNextOrder() {
+        try {
+            return orders.hasNext();
+        } catch (UncheckedIOException e) {
+            LOGGER.error("Reading orders failed after {} orders: {}", placedCount.get(), e.getMessage());
+            return false;
+        }
+    }
+
+    private long elapsedNanos() {
+        if (events != null) {
+            return TimeUnit.MILLISECONDS.toNanos(events.getClock().millis() - startMillis);
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private void schedulePlacement(long delayNanos) {
+        if (events != null) {
+            // Rounded up, the order has arrived when the event runs
+            long delayMillis = (delayNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+            events.schedule(delayMillis, this::placeArrivedOrders);
+            return;
+        }
+        placeScheduler.schedule(this::placeArrivedOrders, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns the number of orders placed so far. */
+    public int getPlacedCount() {
+        return placedCount.get();
+    }
+
+    /** Returns the nanoseconds from the start to the placement of the last order, or -1 before then. */
+    public long getPlacementNanos() {
+        return placementNanos;
     }
 
+    /** Returns the longest an order waited past its arrival to be placed, a placer that keeps up stays near zero. */
+    public long getMaxPlacementLagNanos() {
+        return maxPlacementLagNanos;
+    }
+
+    /** Waits until every order is picked up or discarded, a simulation is run to its end here. */
     public void waitForCompletion() {
+        if (events != null) {
+            events.run();
+        }
         try {
             completionLatch.await();
         } catch (InterruptedException e) {
@@ -50,40 +207,49 @@ public class OrderService {
         }
     }
 
+    /** Resizes the pool of courier threads, pending pickups are kept. */
+    public void setPickupThreads(int threads) {
+        pickUpScheduler.setThreads(threads);
+    }
+
     public void stopProcessing() {
         placeScheduler.shutdown();
-        pickUpScheduler.shutdown();
         try {
             if (!placeScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
                 placeScheduler.shutdownNow();
             }
-            if (!pickUpScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                pickUpScheduler.shutdownNow();
-            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             placeScheduler.shutdownNow();
-            pickUpScheduler.shutdownNow();
         }
+        pickUpScheduler.stop();
     }
 
     private void placeOrder() {
-        int currentCount = placedCount.getAndIncrement();
-        if(currentCount >= orderList.size()) {
-            placeScheduler.shutdown();
-            return;
-        }
-        Order order = orderList.get(currentCount);
-        orderFulfilmentService.placeOrder(order);
+        Order order = orders.next();
+        placedCount.incrementAndGet();
+        outstanding.incrementAndGet();
+        // Drawn first, a pickup aware placement strategy places by it
+        long pickUpDelay = nextPickUpDelay();
+        orderFulfilmentService.placeOrder(order, pickUpDelay);
 
-        long pickUpDelay = ThreadLocalRandom.current().nextLong(min, max + 1);
         LOGGER.debug("Picking up {} after {} ms", order.getId(), pickUpDelay);
-        pickUpScheduler.schedule( () -> this.pickUpOrder(order.getId()) , pickUpDelay, TimeUnit.MILLISECONDS);
+        pickUpScheduler.schedule(order.getId(), pickUpDelay);
+
+    }
 
+    private long nextPickUpDelay() {
+        return random.nextLong(min, max + 1);
     }
 
     private void pickUpOrder(String orderId) {
         orderFulfilmentService.pickupOrder(orderId);
-        completionLatch.countDown();
+        completed();
+    }
+
+    private void completed() {
+        if (outstanding.decrementAndGet() == 0) {
+            completionLatch.countDown();
+        }
     }
 }
@@ -0,0 +1,62 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Order;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderSource supplies the orders of a run in arrival order, with the time between arrivals. It is
+ * read by the single placing thread of the {@link OrderService}, so orders can be produced lazily
+ * and the number of orders need not be known up front.
+ */
+public interface OrderSource {
+
+    /** Returns true if there is another order, may wait for it to be read. */
+    boolean hasNext();
+
+    /**
+     * Returns the nanoseconds from the arrival of the previous order, or the start of the run, to the
+     * arrival of the next one. Called once before every {@link #next()}.
+     */
+    long nextGapNanos();
+
+    /** Returns the next order, only called after {@link #hasNext()} returned true. */
+    Order next();
+
+    /** Returns a source of the orders arriving one every rateMillis, the first one at the start. */
+    static OrderSource of(List<Order> orders, long rateMillis) {
+        return of(orders.iterator(), rateMillis);
+    }
+
+    /**
+     * Returns a source of the orders arriving one every rateMillis, the first one at the start. The
+     * orders are taken from the iterator as they arrive, e.g. while they are still being read.
+     */
+    static OrderSource of(Iterator<Order> orders, long rateMillis) {
+        long rateNanos = TimeUnit.MILLISECONDS.toNanos(rateMillis);
+        return new OrderSource() {
+            private boolean first = true;
+
+            @Override
+            public boolean hasNext() {
+                return orders.hasNext();
+            }
+
+            @Override
+            public long nextGapNanos() {
+                if (first) {
+                    first = false;
+                    return 0L;
+                }
+                return rateNanos;
+            }
+
+            @Override
+            public Order next() {
+                return orders.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,24 @@
+package com.css.challenge.order.fulfilment.service;
+
+/**
+ * PickupScheduler runs the courier pickup of every placed order after its pickup delay. The pickup
+ * itself is given to the scheduler when it is created, so scheduling holds only the order id.
+ */
+public interface PickupScheduler {
+
+    /** Picks up the order after delayMillis, zero or less picks it up as soon as possible. */
+    void schedule(String orderId, long delayMillis);
+
+    /** Returns the number of pickups scheduled but not run yet. */
+    long getPending();
+
+    /**
+     * Resizes the pool running the pickups while pickups are pending, none is dropped. Schedulers
+     * without a pool ignore it.
+     */
+    default void setThreads(int threads) {
+    }
+
+    /** Stops the scheduler once the pickups are done, waits up to 5 seconds for scheduled ones to run. */
+    void stop();
+}
@@ -0,0 +1,23 @@
+package com.css.challenge.order.fulfilment.service;
+
+import java.util.function.Consumer;
+
+/** PickupSchedulerType selects the {@link PickupScheduler} of the order service. */
+public enum PickupSchedulerType {
+    // One delayed task per pickup in the delay heap of a scheduled pool of threads threads
+    EXECUTOR {
+        @Override
+        public PickupScheduler create(int threads, Consumer<String> pickup) {
+            return new ExecutorPickupScheduler(threads, pickup);
+        }
+    },
+    // Pickups bucketed by millisecond in a timing wheel, due ones are handed to threads workers
+    TIMING_WHEEL {
+        @Override
+        public PickupScheduler create(int threads, Consumer<String> pickup) {
+            return new TimingWheelPickupScheduler(threads, pickup);
+        }
+    };
+
+    public abstract PickupScheduler create(int threads, Consumer<String> pickup);
+}
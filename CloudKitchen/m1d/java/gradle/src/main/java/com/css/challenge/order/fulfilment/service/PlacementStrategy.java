@@ -0,0 +1,32 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.CompactOrder;
+import com.css.challenge.client.TemperatureZone;
+
+/**
+ * PlacementStrategy chooses whether an order tries the shelves of its ideal zone or of its first
+ * fallback zone first. The zones after that are tried in the usual order.
+ */
+public enum PlacementStrategy {
+    // Ideal zone first, then the fallbacks in order, whatever the pickup time
+    GREEDY {
+        @Override
+        public boolean fallbackFirst(CompactOrder order, TemperatureZone fallback, long pickupDelayMillis) {
+            return false;
+        }
+    },
+    // An order that stays fresh on the fallback until its pickup goes there first, so the ideal
+    // shelves are kept for the orders that would spoil anywhere else
+    PICKUP_AWARE {
+        @Override
+        public boolean fallbackFirst(CompactOrder order, TemperatureZone fallback, long pickupDelayMillis) {
+            return pickupDelayMillis >= 0 && order.getShelfLifeMillis(fallback) > pickupDelayMillis;
+        }
+    };
+
+    /**
+     * Returns true if the order should try the fallback zone before its ideal zone. pickupDelayMillis
+     * is the expected time until the courier arrives, negative if it is unknown.
+     */
+    public abstract boolean fallbackFirst(CompactOrder order, TemperatureZone fallback, long pickupDelayMillis);
+}
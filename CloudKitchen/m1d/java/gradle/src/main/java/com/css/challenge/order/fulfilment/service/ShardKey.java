@@ -0,0 +1,39 @@
+package com.css.challenge.order.fulfilment.service;
+
+/**
+ * ShardKey chooses the shard of an order in a {@link ShardedOrderFulfilment} from its id alone, so a
+ * pickup finds the shard of its order without a lookup.
+ */
+public enum ShardKey {
+    // Spreads the orders of every kitchen evenly across the shards
+    ORDER_ID {
+        @Override
+        int hash(String orderId) {
+            return orderId.hashCode();
+        }
+    },
+    // Keeps the orders of a kitchen, the id prefix before ':', on one shard
+    KITCHEN {
+        @Override
+        int hash(String orderId) {
+            return kitchenOf(orderId).hashCode();
+        }
+    };
+
+    private static final char KITCHEN_SEPARATOR = ':';
+
+    abstract int hash(String orderId);
+
+    /** Returns the shard of the order among shardCount shards. */
+    public int shardOf(String orderId, int shardCount) {
+        int hash = hash(orderId);
+        // Spread the high bits, string hashes of similar ids differ mostly in the low ones
+        return Math.floorMod(hash ^ (hash >>> 16), shardCount);
+    }
+
+    /** Returns the kitchen of an order id such as {@code kitchen-7:order-42}, "" when it has none. */
+    public static String kitchenOf(String orderId) {
+        int separator = orderId.indexOf(KITCHEN_SEPARATOR);
+        return separator < 0 ? "" : orderId.substring(0, separator);
+    }
+}
@@ -0,0 +1,154 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.order.fulfilment.metrics.FulfilmentMetrics;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicy;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Routes orders to one of several independent {@link OrderFulfilmentService} shards, each with its
+ * own shelves, order index and action log. The shard of an order follows from its id by the
+ * {@link ShardKey}, so placements and pickups on different shards never share a lock, a map or a
+ * log buffer and throughput grows with the number of shards. An order overflowing its shard is
+ * moved or discarded within the shard, it never takes space on another one.
+ */
+public class ShardedOrderFulfilment implements OrderFulfilment {
+    private static final Comparator<Action> BY_TIMESTAMP = Comparator.comparingLong(Action::getTimestamp);
+
+    private final OrderFulfilmentService[] shards;
+    private final ShardKey shardKey;
+
+    /** Creates shardCount shards on the kitchens of kitchens, each one gets a new registry. */
+    public ShardedOrderFulfilment(int shardCount, ShardKey shardKey, Supplier<ShelfRegistry> kitchens) {
+        this(createShards(shardCount, kitchens), shardKey);
+    }
+
+    public ShardedOrderFulfilment(List<OrderFulfilmentService> shards, ShardKey shardKey) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = shards.toArray(new OrderFulfilmentService[0]);
+        this.shardKey = shardKey;
+    }
+
+    private static List<OrderFulfilmentService> createShards(int shardCount, Supplier<ShelfRegistry> kitchens) {
+        List<OrderFulfilmentService> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(new OrderFulfilmentService(kitchens.get()));
+        }
+        return shards;
+    }
+
+    public int shardOf(String orderId) {
+        return shardKey.shardOf(orderId, shards.length);
+    }
+
+    @Override
+    public boolean placeOrder(Order order) {
+        return shards[shardOf(order.getId())].placeOrder(order);
+    }
+
+    @Override
+    public boolean placeOrder(Order order, EvictionPolicy forcedEviction) {
+        return shards[shardOf(order.getId())].placeOrder(order, forcedEviction);
+    }
+
+    @Override
+    public boolean placeOrder(Order order, long pickupDelayMillis) {
+        return shards[shardOf(order.getId())].placeOrder(order, pickupDelayMillis);
+    }
+
+    @Override
+    public boolean placeOrder(Order order, EvictionPolicy forcedEviction, long pickupDelayMillis) {
+        return shards[shardOf(order.getId())].placeOrder(order, forcedEviction, pickupDelayMillis);
+    }
+
+    /** Splits the burst by shard, every shard places its part in iteration order. */
+    @Override
+    public void placeOrders(Collection<Order> orders) {
+        List<List<Order>> byShard = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (Order order : orders) {
+            byShard.get(shardOf(order.getId())).add(order);
+        }
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard].placeOrders(byShard.get(shard));
+        }
+    }
+
+    @Override
+    public void pickupOrder(String orderId) {
+        shards[shardOf(orderId)].pickupOrder(orderId);
+    }
+
+    @Override
+    public void rejectOrder(String orderId) {
+        shards[shardOf(orderId)].rejectOrder(orderId);
+    }
+
+    @Override
+    public int sweepExpiredOrders(int batchSize) {
+        int discarded = 0;
+        for (OrderFulfilmentService shard : shards) {
+            discarded += shard.sweepExpiredOrders(batchSize);
+        }
+        return discarded;
+    }
+
+    /** Returns the actions of every shard merged in timestamp order. */
+    @Override
+    public List<Action> getActionLog() {
+        List<Action> actions = new ArrayList<>();
+        for (OrderFulfilmentService shard : shards) {
+            actions.addAll(shard.getActionLog());
+        }
+        // Stable, and a single merge pass over the already ordered shard logs
+        actions.sort(BY_TIMESTAMP);
+        return actions;
+    }
+
+    /**
+     * Returns the actions of every kitchen, see {@link ShardKey#kitchenOf(String)}, merged across the
+     * shards in timestamp order. Kitchens are in the order of their first action.
+     */
+    public Map<String, List<Action>> getActionLogsByKitchen() {
+        Map<String, List<Action>> kitchens = new LinkedHashMap<>();
+        for (Action action : getActionLog()) {
+            kitchens.computeIfAbsent(ShardKey.kitchenOf(action.getId()), kitchen -> new ArrayList<>()).add(action);
+        }
+        return kitchens;
+    }
+
+    @Override
+    public Clock getClock() {
+        return shards[0].getClock();
+    }
+
+    public List<FulfilmentMetrics> getShardMetrics() {
+        List<FulfilmentMetrics> metrics = new ArrayList<>(shards.length);
+        for (OrderFulfilmentService shard : shards) {
+            metrics.add(shard.getMetrics());
+        }
+        return metrics;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public OrderFulfilmentService getShard(int shard) {
+        return shards[shard];
+    }
+}
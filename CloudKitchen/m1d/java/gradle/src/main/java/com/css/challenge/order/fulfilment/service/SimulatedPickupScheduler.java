@@ -0,0 +1,36 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+
+import java.util.function.Consumer;
+
+/** Schedules pickups as events of a simulation, they run in virtual time when the simulation runs. */
+public class SimulatedPickupScheduler implements PickupScheduler {
+    private final DiscreteEventScheduler events;
+    private final Consumer<String> pickup;
+    private long pending;
+
+    public SimulatedPickupScheduler(DiscreteEventScheduler events, Consumer<String> pickup) {
+        this.events = events;
+        this.pickup = pickup;
+    }
+
+    @Override
+    public void schedule(String orderId, long delayMillis) {
+        pending++;
+        events.schedule(delayMillis, () -> {
+            pending--;
+            pickup.accept(orderId);
+        });
+    }
+
+    @Override
+    public long getPending() {
+        return pending;
+    }
+
+    @Override
+    public void stop() {
+        // Nothing runs outside the simulation
+    }
+}
@@ -0,0 +1,65 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.configuration.AppConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshotter periodically writes a snapshot of every shelf, so a restart only replays the
+ * journal from the latest snapshot.
+ */
+public class Snapshotter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Snapshotter.class);
+    private final OrderFulfilmentService orderFulfilmentService;
+    private final Path file;
+    private final long intervalMillis;
+    private final ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public Snapshotter(OrderFulfilmentService orderFulfilmentService, Path file) {
+        this(orderFulfilmentService, file, AppConfig.getInstance().getLong("snapshot.interval.ms", 5000L));
+    }
+
+    public Snapshotter(OrderFulfilmentService orderFulfilmentService, Path file, long intervalMillis) {
+        this.orderFulfilmentService = orderFulfilmentService;
+        this.file = file;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /** Starts snapshotting, an interval of zero or less disables the snapshotter. */
+    public void start() {
+        if (intervalMillis <= 0) {
+            LOGGER.info("Snapshotter disabled");
+            return;
+        }
+        snapshotScheduler.scheduleWithFixedDelay(this::snapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        snapshotScheduler.shutdown();
+        try {
+            if (!snapshotScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                snapshotScheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            snapshotScheduler.shutdownNow();
+        }
+    }
+
+    private void snapshot() {
+        try {
+            long start = System.nanoTime();
+            orderFulfilmentService.snapshot(file);
+            LOGGER.debug("Snapshot written to {} in {} ms", file, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // An exception would cancel the periodic task
+            LOGGER.error("Snapshot failed", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.order.fulfilment.storage.TimingWheel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps pending pickups in a {@link TimingWheel} of millisecond ticks, so scheduling is an O(1)
+ * insert of one node however many pickups are pending, where a delay heap pays O(log n) and a
+ * task per pickup. A ticker thread takes the due pickups out of the wheel every tick and hands
+ * them in chunks to a small pool of workers.
+ */
+public class TimingWheelPickupScheduler implements PickupScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimingWheelPickupScheduler.class);
+    private static final long TICK_MILLIS = 1;
+    // Due pickups taken per hold of the wheel lock and run by one worker task
+    private static final int CHUNK_SIZE = 256;
+
+    private final TimingWheel<String> wheel = TimingWheel.schedule(TICK_MILLIS, System.currentTimeMillis());
+    private final Consumer<String> pickup;
+    private final AtomicLong pending = new AtomicLong();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor();
+    private final ThreadPoolExecutor workers;
+
+    public TimingWheelPickupScheduler(int threads, Consumer<String> pickup) {
+        this.pickup = pickup;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void schedule(String orderId, long delayMillis) {
+        // One tick more, the current millisecond may be almost over and a pickup must never run early
+        long due = System.currentTimeMillis() + Math.max(0, delayMillis) + TICK_MILLIS;
+        pending.incrementAndGet();
+        synchronized (wheel) {
+            wheel.add(orderId, due);
+        }
+    }
+
+    @Override
+    public long getPending() {
+        return pending.get();
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> due;
+            do {
+                due = takeDue(now);
+                if (!due.isEmpty()) {
+                    List<String> chunk = due;
+                    workers.execute(() -> run(chunk));
+                }
+            } while (due.size() == CHUNK_SIZE);
+        } catch (RuntimeException e) {
+            // An exception would cancel the ticker and strand every pending pickup
+            LOGGER.error("Pickup tick failed", e);
+        }
+    }
+
+    private List<String> takeDue(long now) {
+        List<String> due = new ArrayList<>(CHUNK_SIZE);
+        synchronized (wheel) {
+            wheel.pollDue(now, CHUNK_SIZE, due::add);
+        }
+        return due;
+    }
+
+    private void run(List<String> orderIds) {
+        for (String orderId : orderIds) {
+            try {
+                pickup.accept(orderId);
+            } catch (RuntimeException e) {
+                LOGGER.error("Pickup of order {} failed", orderId, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void setThreads(int threads) {
+        // The core size may never exceed the maximum, so the order depends on the direction
+        if (threads > workers.getMaximumPoolSize()) {
+            workers.setMaximumPoolSize(threads);
+            workers.setCorePoolSize(threads);
+        } else {
+            workers.setCorePoolSize(threads);
+            workers.setMaximumPoolSize(threads);
+        }
+    }
+
+    @Override
+    public void stop() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try {
+            // Like a shut down executor, the pickups still in the wheel run if they are due in time
+            while (pending.get() > 0 && System.nanoTime() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(TICK_MILLIS);
+            }
+            // The ticker hands pickups to the workers, stop it first
+            ticker.shutdown();
+            if (!ticker.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                ticker.shutdownNow();
+            }
+            workers.shutdown();
+            if (!workers.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ticker.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+}
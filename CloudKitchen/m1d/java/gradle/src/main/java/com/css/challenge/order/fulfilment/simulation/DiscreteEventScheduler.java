@@ -0,0 +1,53 @@
+package com.css.challenge.order.fulfilment.simulation;
+
+import java.util.PriorityQueue;
+
+/**
+ * Runs scheduled tasks one after another on the calling thread in virtual time: the clock jumps
+ * straight to the next task instead of waiting for it. Tasks due at the same time run in the order
+ * they were scheduled, so a run is reproducible. Tasks may schedule further tasks.
+ *
+ * <p>Not thread safe, tasks are only scheduled before {@link #run()} and from the tasks it runs.
+ */
+public class DiscreteEventScheduler {
+    private final SimulationClock clock;
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long sequence;
+
+    private record Event(long time, long sequence, Runnable task) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event other) {
+            int order = Long.compare(time, other.time);
+            return order != 0 ? order : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public DiscreteEventScheduler(long startMillis) {
+        this.clock = new SimulationClock(startMillis);
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /** Runs task delayMillis after the current virtual time, zero or less runs it next at the current time. */
+    public void schedule(long delayMillis, Runnable task) {
+        events.add(new Event(clock.millis() + Math.max(0, delayMillis), sequence++, task));
+    }
+
+    public int getPending() {
+        return events.size();
+    }
+
+    /** Runs every task in time order until none is left and returns the number of tasks run. */
+    public long run() {
+        long ran = 0;
+        Event event;
+        while ((event = events.poll()) != null) {
+            clock.advanceTo(event.time());
+            event.task().run();
+            ran++;
+        }
+        return ran;
+    }
+}
@@ -0,0 +1,42 @@
+package com.css.challenge.order.fulfilment.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/** Virtual clock of a simulation, time only moves when the {@link DiscreteEventScheduler} advances it. */
+public class SimulationClock extends Clock {
+    private volatile long millis;
+
+    public SimulationClock(long startMillis) {
+        this.millis = startMillis;
+    }
+
+    void advanceTo(long millis) {
+        if (millis < this.millis) {
+            throw new IllegalArgumentException("Time cannot go back from " + this.millis + " to " + millis);
+        }
+        this.millis = millis;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException("A simulation clock is always in UTC");
+    }
+}
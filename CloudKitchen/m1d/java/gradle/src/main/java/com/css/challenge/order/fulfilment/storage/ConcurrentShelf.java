@@ -0,0 +1,309 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shelf variant without a shelf wide monitor. Placements reserve capacity with a CAS on the
+ * occupancy counter before touching the map, so the shelf never goes over capacity while pickups
+ * and placements run in parallel.
+ */
+public class ConcurrentShelf implements ShelfStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentShelf.class);
+    private static final Comparator<Slot> EXPIRY_ORDER =
+            Comparator.comparingLong(Slot::timestamp).thenComparingLong(Slot::sequence);
+
+    private final ConcurrentHashMap<String, Slot> shelfMap;
+    // Expiry ordered index, the sequence keeps orders expiring in the same millisecond apart
+    private final ConcurrentSkipListSet<Slot> orderSequenceSet;
+    // Used in case of Room Shelf to hold hot and cold orders, one index per ideal zone
+    private final ConcurrentSkipListSet<Slot>[] nonIdealSequenceSets;
+    private final AtomicInteger occupancy;
+    private final AtomicLong sequence;
+    private final String shelfType;
+    private final TemperatureZone shelfZone;
+    private volatile int capacity;
+    private final ResidentOrders residentOrders;
+    private volatile EvictionPolicy evictionPolicy;
+    private volatile Clock clock;
+
+    private record Slot(String key, Order order, long placedAt, long timestamp, long sequence, TemperatureZone zone) {
+    }
+
+    public ConcurrentShelf(int size, String shelfType) {
+        this.shelfMap = new ConcurrentHashMap<>(size);
+        this.orderSequenceSet = new ConcurrentSkipListSet<>(EXPIRY_ORDER);
+        @SuppressWarnings("unchecked")
+        ConcurrentSkipListSet<Slot>[] sets = (ConcurrentSkipListSet<Slot>[]) new ConcurrentSkipListSet<?>[TemperatureZone.values().length];
+        this.nonIdealSequenceSets = sets;
+        for (int zone = 0; zone < nonIdealSequenceSets.length; zone++) {
+            nonIdealSequenceSets[zone] = new ConcurrentSkipListSet<>(EXPIRY_ORDER);
+        }
+        this.occupancy = new AtomicInteger(0);
+        this.sequence = new AtomicLong(0);
+        this.capacity = size;
+        this.shelfType = shelfType;
+        this.shelfZone = TemperatureZone.of(shelfType);
+        this.residentOrders = new ResidentView();
+        this.evictionPolicy = EvictionPolicy.EXPIRED_ONLY;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Override
+    public boolean put(String key, Order value) {
+        long currentTimeStamp = clock.millis();
+        // Halved if placed on a shelf of another zone, e.g. the ROOM shelf
+        long expiryTimeStamp = currentTimeStamp + value.compact().getShelfLifeMillis(shelfZone);
+        return place(key, value, currentTimeStamp, expiryTimeStamp);
+    }
+
+    @Override
+    public boolean restore(String key, Order value, long placedAt, long expiry) {
+        return place(key, value, placedAt, expiry);
+    }
+
+    private boolean place(String key, Order value, long currentTimeStamp, long expiryTimeStamp) {
+        TemperatureZone zone = value.compact().getZone();
+        Slot slot = new Slot(key, value, currentTimeStamp, expiryTimeStamp, sequence.incrementAndGet(), zone);
+        while (true) {
+            Slot existing = shelfMap.get(key);
+            if (existing != null) {
+                // A replacement keeps the reservation of the order it replaces
+                index(slot);
+                if (shelfMap.replace(key, existing, slot)) {
+                    unindex(existing);
+                    LOGGER.debug("Order {} Replaced in {} Shelf ", key, shelfType);
+                    return true;
+                }
+                unindex(slot);
+                continue;
+            }
+            if (!reserve()) {
+                return false;
+            }
+            index(slot);
+            if (shelfMap.putIfAbsent(key, slot) == null) {
+                LOGGER.debug("Order {} Placed in {} Shelf ", key, shelfType);
+                return true;
+            }
+            // Placed by another thread meanwhile, replace it instead
+            unindex(slot);
+            occupancy.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean remove(String key) {
+        Slot slot = shelfMap.remove(key);
+        if (slot == null) {
+            return false;
+        }
+        unindex(slot);
+        occupancy.decrementAndGet();
+        LOGGER.debug("Order {} Picked from {} Shelf ", key, slot.order.getTemp());
+        return true;
+    }
+
+    @Override
+    public boolean hasSpace() {
+        return occupancy.get() < capacity;
+    }
+
+    @Override
+    public int size() {
+        return occupancy.get();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Shelf capacity must not be negative: " + capacity);
+        }
+        // A placement that read the old capacity may still complete, later ones see the new one
+        this.capacity = capacity;
+    }
+
+    @Override
+    public Order findEligibleOrder() {
+        long currentTimeStamp = clock.millis();
+        Slot eligibleSlot = null;
+        for (ConcurrentSkipListSet<Slot> nonIdealSequenceSet : nonIdealSequenceSets) {
+            Slot slot = firstResident(nonIdealSequenceSet);
+            if (slot != null && (eligibleSlot == null || EXPIRY_ORDER.compare(slot, eligibleSlot) < 0)) {
+                eligibleSlot = slot;
+            }
+        }
+        return eligibleSlot != null && eligibleSlot.timestamp < currentTimeStamp ? eligibleSlot.order : null;
+    }
+
+    @Override
+    public Order findEligibleOrder(TemperatureZone idealZone) {
+        Slot slot = firstResident(nonIdealSequenceSets[idealZone.ordinal()]);
+        return slot != null && slot.timestamp >= clock.millis() ? slot.order : null;
+    }
+
+    @Override
+    public String evictStaleOrder() {
+        return evictStaleOrder(evictionPolicy);
+    }
+
+    @Override
+    public String evictStaleOrder(EvictionPolicy evictionPolicy) {
+        long currentTimeStamp = clock.millis();
+        for (Slot slot : orderSequenceSet) {
+            if (slot.timestamp >= currentTimeStamp) {
+                break;
+            }
+            // Only the thread that wins the conditional remove evicts the order
+            if (shelfMap.remove(slot.key, slot)) {
+                unindex(slot);
+                occupancy.decrementAndGet();
+                return slot.key;
+            }
+        }
+        // Nothing has expired, let the policy choose, again if another thread removed its choice first
+        while (!shelfMap.isEmpty()) {
+            String victim = evictionPolicy.selectVictim(residentOrders, currentTimeStamp);
+            if (victim == null) {
+                break;
+            }
+            Slot slot = shelfMap.get(victim);
+            if (slot != null && shelfMap.remove(victim, slot)) {
+                unindex(slot);
+                occupancy.decrementAndGet();
+                return victim;
+            }
+        }
+        return "";
+    }
+
+    @Override
+    public void forEachOrder(ResidentOrders.Visitor visitor) {
+        residentOrders.forEach(visitor);
+    }
+
+    @Override
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public List<String> evictExpiredOrders(int maxBatch) {
+        List<String> evictedOrderIds = new ArrayList<>();
+        long currentTimeStamp = clock.millis();
+        for (Slot slot : orderSequenceSet) {
+            if (evictedOrderIds.size() >= maxBatch || slot.timestamp >= currentTimeStamp) {
+                break;
+            }
+            if (shelfMap.remove(slot.key, slot)) {
+                unindex(slot);
+                occupancy.decrementAndGet();
+                evictedOrderIds.add(slot.key);
+            }
+        }
+        return evictedOrderIds;
+    }
+
+    @Override
+    public boolean containsOrder(String key) {
+        return shelfMap.containsKey(key);
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int occupied = occupancy.get();
+            if (occupied >= capacity) {
+                return false;
+            }
+            if (occupancy.compareAndSet(occupied, occupied + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Slot firstResident(ConcurrentSkipListSet<Slot> sequenceSet) {
+        for (Slot slot : sequenceSet) {
+            // Skip entries that are being placed or removed concurrently
+            if (shelfMap.get(slot.key) == slot) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    // Index before publishing in the map so a concurrent remove always finds the index entries
+    private void index(Slot slot) {
+        orderSequenceSet.add(slot);
+        if (slot.zone != shelfZone && slot.zone != null) {
+            nonIdealSequenceSets[slot.zone.ordinal()].add(slot);
+        }
+    }
+
+    private void unindex(Slot slot) {
+        orderSequenceSet.remove(slot);
+        if (slot.zone != shelfZone && slot.zone != null) {
+            nonIdealSequenceSets[slot.zone.ordinal()].remove(slot);
+        }
+    }
+
+    // Weakly consistent view, orders placed or removed meanwhile may or may not be visited
+    private final class ResidentView implements ResidentOrders {
+        @Override
+        public int size() {
+            return shelfMap.size();
+        }
+
+        @Override
+        public String earliestExpiring() {
+            Slot slot = firstResident(orderSequenceSet);
+            return slot != null ? slot.key : null;
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+            for (Slot slot : shelfMap.values()) {
+                visitor.visit(slot.key, slot.order, slot.placedAt, slot.timestamp);
+            }
+        }
+
+        @Override
+        public void sample(int sampleSize, Random random, Visitor visitor) {
+            // Reservoir sample in one pass over every order, O(n): the map has no random access and a
+            // dense index would need the lock this shelf does without
+            Slot[] reservoir = new Slot[sampleSize];
+            int seen = 0;
+            for (Slot slot : shelfMap.values()) {
+                int index = seen < sampleSize ? seen : random.nextInt(seen + 1);
+                if (index < sampleSize) {
+                    reservoir[index] = slot;
+                }
+                seen++;
+            }
+            for (int i = 0; i < Math.min(seen, sampleSize); i++) {
+                visitor.visit(reservoir[i].key, reservoir[i].order, reservoir[i].placedAt, reservoir[i].timestamp);
+            }
+        }
+    }
+}
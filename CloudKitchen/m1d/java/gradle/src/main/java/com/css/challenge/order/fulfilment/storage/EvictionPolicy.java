@@ -0,0 +1,15 @@
+package com.css.challenge.order.fulfilment.storage;
+
+/**
+ * EvictionPolicy chooses the order to discard from a full shelf when none of its orders has
+ * expired yet. Expired orders are always discarded first, closest to expiry first.
+ */
+@FunctionalInterface
+public interface EvictionPolicy {
+
+    // Keeps every order that has not expired, the default of every shelf
+    EvictionPolicy EXPIRED_ONLY = (residents, currentTimeStamp) -> null;
+
+    /** Returns the id of the order to discard or null to keep every order. */
+    String selectVictim(ResidentOrders residents, long currentTimeStamp);
+}
@@ -0,0 +1,104 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+
+import java.util.Random;
+
+/** EvictionPolicyType lists the built-in {@link EvictionPolicy} implementations. */
+public enum EvictionPolicyType {
+    // Only expired orders are discarded, a new order is dropped when the shelf is full
+    EXPIRED_ONLY {
+        @Override
+        public EvictionPolicy create(long expectedPickupMillis, long seed) {
+            return EvictionPolicy.EXPIRED_ONLY;
+        }
+    },
+    // Discard the order closest to expiry
+    EARLIEST_EXPIRY {
+        @Override
+        public EvictionPolicy create(long expectedPickupMillis, long seed) {
+            return (residents, currentTimeStamp) -> residents.earliestExpiring();
+        }
+    },
+    // Discard the order with the smallest fraction of its shelf life left
+    LEAST_FRESHNESS {
+        @Override
+        public EvictionPolicy create(long expectedPickupMillis, long seed) {
+            return (residents, currentTimeStamp) -> {
+                LeastFreshness selector = new LeastFreshness(currentTimeStamp);
+                residents.forEach(selector);
+                return selector.victim;
+            };
+        }
+    },
+    // Discard the order predicted to be picked up furthest past its expiry
+    LARGEST_PICKUP_WAIT {
+        @Override
+        public EvictionPolicy create(long expectedPickupMillis, long seed) {
+            return (residents, currentTimeStamp) -> {
+                LargestPickupWait selector = new LargestPickupWait(expectedPickupMillis);
+                residents.forEach(selector);
+                return selector.victim;
+            };
+        }
+    },
+    // Least freshness among a few random orders, as in approximate LRU. A CONCURRENT shelf walks all
+    // of its orders to draw them, the other shelves draw each in constant time
+    RANDOM_SAMPLE {
+        @Override
+        public EvictionPolicy create(long expectedPickupMillis, long seed) {
+            Random random = new Random(seed);
+            return (residents, currentTimeStamp) -> {
+                LeastFreshness selector = new LeastFreshness(currentTimeStamp);
+                residents.sample(SAMPLE_SIZE, random, selector);
+                return selector.victim;
+            };
+        }
+    };
+
+    private static final int SAMPLE_SIZE = 5;
+
+    /**
+     * Creates the policy. expectedPickupMillis is the expected delay between placement and pickup,
+     * seed drives the random policies.
+     */
+    public abstract EvictionPolicy create(long expectedPickupMillis, long seed);
+
+    private static final class LeastFreshness implements ResidentOrders.Visitor {
+        private final long currentTimeStamp;
+        private String victim;
+        private double victimFreshness = Double.MAX_VALUE;
+
+        private LeastFreshness(long currentTimeStamp) {
+            this.currentTimeStamp = currentTimeStamp;
+        }
+
+        @Override
+        public void visit(String key, Order order, long placedAt, long expiry) {
+            double freshness = (expiry - currentTimeStamp) / (double) Math.max(1L, expiry - placedAt);
+            if (freshness < victimFreshness) {
+                victimFreshness = freshness;
+                victim = key;
+            }
+        }
+    }
+
+    private static final class LargestPickupWait implements ResidentOrders.Visitor {
+        private final long expectedPickupMillis;
+        private String victim;
+        private long victimWait = Long.MIN_VALUE;
+
+        private LargestPickupWait(long expectedPickupMillis) {
+            this.expectedPickupMillis = expectedPickupMillis;
+        }
+
+        @Override
+        public void visit(String key, Order order, long placedAt, long expiry) {
+            long wait = placedAt + expectedPickupMillis - expiry;
+            if (wait > victimWait) {
+                victimWait = wait;
+                victim = key;
+            }
+        }
+    }
+}
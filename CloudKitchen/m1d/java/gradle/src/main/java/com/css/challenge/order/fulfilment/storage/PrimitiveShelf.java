@@ -0,0 +1,317 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.CompactOrder;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Allocation light shelf. Order ids map to int slot handles, expiry times and temperature codes
+ * live in parallel primitive arrays and free slots are chained through a free-list, so steady
+ * state put and remove do not allocate. Raising the capacity grows the arrays once, lowering it
+ * keeps them and only limits the number of occupied slots.
+ */
+public class PrimitiveShelf implements ShelfStorage {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrimitiveShelf.class);
+    // Temperature codes are zone ordinals, unknown temperatures get their own code
+    private static final byte UNKNOWN = CompactOrder.UNKNOWN;
+    private static final TemperatureZone[] ZONES = TemperatureZone.values();
+
+    private SlotIndex slotIndex;
+    private String[] keys;
+    private Order[] orders;
+    private long[] placedAt;
+    private long[] expiry;
+    private byte[] temperature;
+    // Free slots are chained through nextFree, -1 terminates the list
+    private int[] nextFree;
+    private SlotHeap orderSequenceHeap;
+    // Used in case of Room Shelf to hold slots of hot and cold orders, one heap per ideal zone
+    private final SlotHeap[] nonIdealSequenceHeaps;
+    private final String shelfType;
+    private final TemperatureZone shelfZone;
+    private final byte shelfCode;
+    private volatile int capacity;
+    private final ResidentOrders residentOrders;
+    private volatile EvictionPolicy evictionPolicy;
+    private volatile Clock clock;
+    private int freeHead;
+    private int size;
+
+    public PrimitiveShelf(int size, String shelfType) {
+        this.slotIndex = new SlotIndex(size);
+        this.keys = new String[size];
+        this.orders = new Order[size];
+        this.placedAt = new long[size];
+        this.expiry = new long[size];
+        this.temperature = new byte[size];
+        this.nextFree = new int[size];
+        for (int slot = 0; slot < size; slot++) {
+            nextFree[slot] = slot + 1 < size ? slot + 1 : -1;
+        }
+        this.freeHead = size > 0 ? 0 : -1;
+        this.orderSequenceHeap = new SlotHeap(size, expiry);
+        this.nonIdealSequenceHeaps = new SlotHeap[ZONES.length];
+        for (int zone = 0; zone < ZONES.length; zone++) {
+            nonIdealSequenceHeaps[zone] = new SlotHeap(size, expiry);
+        }
+        this.shelfType = shelfType;
+        this.shelfZone = TemperatureZone.of(shelfType);
+        this.shelfCode = shelfZone != null ? (byte) shelfZone.ordinal() : UNKNOWN;
+        this.capacity = size;
+        this.residentOrders = new ResidentView();
+        this.evictionPolicy = EvictionPolicy.EXPIRED_ONLY;
+        this.clock = Clock.systemUTC();
+    }
+
+    @Override
+    public synchronized boolean put(String key, Order value) {
+        long currentTimeStamp = clock.millis();
+        // Halved if placed on a shelf of another zone, e.g. the ROOM shelf
+        long expiryTimeStamp = currentTimeStamp + value.compact().getShelfLifeMillis(shelfZone);
+        return place(key, value, currentTimeStamp, expiryTimeStamp);
+    }
+
+    @Override
+    public synchronized boolean restore(String key, Order value, long placedAt, long expiry) {
+        return place(key, value, placedAt, expiry);
+    }
+
+    private boolean place(String key, Order value, long currentTimeStamp, long expiryTimeStamp) {
+        int existing = slotIndex.get(key);
+        if (existing < 0 && size >= capacity) {
+            return false;
+        }
+        if (existing >= 0) {
+            // Replaced, its slot is taken again below
+            slotIndex.remove(key);
+            release(existing);
+        }
+        int slot = freeHead;
+        freeHead = nextFree[slot];
+        size++;
+
+        byte code = value.compact().getTemperatureCode();
+        keys[slot] = key;
+        orders[slot] = value;
+        placedAt[slot] = currentTimeStamp;
+        expiry[slot] = expiryTimeStamp;
+        temperature[slot] = code;
+        slotIndex.put(key, slot);
+        orderSequenceHeap.add(slot);
+        if (code != shelfCode && code != UNKNOWN) {
+            nonIdealSequenceHeaps[code].add(slot);
+        }
+        LOGGER.debug("Order {} Placed in {} Shelf ", key, shelfType);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(String key) {
+        int slot = slotIndex.remove(key);
+        if (slot < 0) {
+            return false;
+        }
+        release(slot);
+        LOGGER.debug("Order {} Picked from {} Shelf ", key, shelfType);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean hasSpace() {
+        return size < capacity;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Shelf capacity must not be negative: " + capacity);
+        }
+        if (capacity > keys.length) {
+            grow(capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized Order findEligibleOrder() {
+        int slot = -1;
+        for (SlotHeap nonIdealSequenceHeap : nonIdealSequenceHeaps) {
+            int candidate = nonIdealSequenceHeap.peek();
+            if (candidate >= 0 && (slot < 0 || expiry[candidate] < expiry[slot])) {
+                slot = candidate;
+            }
+        }
+        if (slot < 0 || expiry[slot] >= clock.millis()) {
+            return null;
+        }
+        return orders[slot];
+    }
+
+    @Override
+    public synchronized Order findEligibleOrder(TemperatureZone idealZone) {
+        int slot = nonIdealSequenceHeaps[idealZone.ordinal()].peek();
+        return slot < 0 || expiry[slot] < clock.millis() ? null : orders[slot];
+    }
+
+    @Override
+    public String evictStaleOrder() {
+        return evictStaleOrder(evictionPolicy);
+    }
+
+    @Override
+    public synchronized String evictStaleOrder(EvictionPolicy evictionPolicy) {
+        long currentTimeStamp = clock.millis();
+        int slot = orderSequenceHeap.peek();
+        if (slot < 0 || expiry[slot] >= currentTimeStamp) {
+            // Nothing has expired, let the policy choose
+            String victim = size == 0 ? null : evictionPolicy.selectVictim(residentOrders, currentTimeStamp);
+            slot = victim != null ? slotIndex.get(victim) : -1;
+            if (slot < 0) {
+                return "";
+            }
+        }
+        String orderId = keys[slot];
+        slotIndex.remove(orderId);
+        release(slot);
+        return orderId;
+    }
+
+    @Override
+    public synchronized void forEachOrder(ResidentOrders.Visitor visitor) {
+        residentOrders.forEach(visitor);
+    }
+
+    @Override
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized List<String> evictExpiredOrders(int maxBatch) {
+        List<String> evictedOrderIds = new ArrayList<>();
+        long currentTimeStamp = clock.millis();
+        while (evictedOrderIds.size() < maxBatch) {
+            int slot = orderSequenceHeap.peek();
+            if (slot < 0 || expiry[slot] >= currentTimeStamp) {
+                break;
+            }
+            evictedOrderIds.add(keys[slot]);
+            slotIndex.remove(keys[slot]);
+            release(slot);
+        }
+        return evictedOrderIds;
+    }
+
+    @Override
+    public <T> T exclusively(Supplier<T> task) {
+        synchronized (this) {
+            return task.get();
+        }
+    }
+
+    @Override
+    public synchronized boolean containsOrder(String key) {
+        return slotIndex.get(key) >= 0;
+    }
+
+    // Copies the slots into longer arrays and rebuilds the index and heaps, slot handles are kept
+    private void grow(int slots) {
+        int oldSlots = keys.length;
+        keys = Arrays.copyOf(keys, slots);
+        orders = Arrays.copyOf(orders, slots);
+        placedAt = Arrays.copyOf(placedAt, slots);
+        expiry = Arrays.copyOf(expiry, slots);
+        temperature = Arrays.copyOf(temperature, slots);
+        nextFree = Arrays.copyOf(nextFree, slots);
+        for (int slot = oldSlots; slot < slots; slot++) {
+            nextFree[slot] = slot + 1 < slots ? slot + 1 : freeHead;
+        }
+        freeHead = oldSlots;
+        slotIndex = new SlotIndex(slots);
+        orderSequenceHeap = new SlotHeap(slots, expiry);
+        for (int zone = 0; zone < ZONES.length; zone++) {
+            nonIdealSequenceHeaps[zone] = new SlotHeap(slots, expiry);
+        }
+        for (int slot = 0; slot < oldSlots; slot++) {
+            if (keys[slot] != null) {
+                slotIndex.put(keys[slot], slot);
+                orderSequenceHeap.add(slot);
+                if (temperature[slot] != shelfCode && temperature[slot] != UNKNOWN) {
+                    nonIdealSequenceHeaps[temperature[slot]].add(slot);
+                }
+            }
+        }
+    }
+
+    private void release(int slot) {
+        orderSequenceHeap.remove(slot);
+        if (temperature[slot] != shelfCode && temperature[slot] != UNKNOWN) {
+            nonIdealSequenceHeaps[temperature[slot]].remove(slot);
+        }
+        keys[slot] = null;
+        orders[slot] = null;
+        nextFree[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    // Only used by the eviction policy while the shelf lock is held
+    private final class ResidentView implements ResidentOrders {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String earliestExpiring() {
+            int slot = orderSequenceHeap.peek();
+            return slot >= 0 ? keys[slot] : null;
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != null) {
+                    visitor.visit(keys[slot], orders[slot], placedAt[slot], expiry[slot]);
+                }
+            }
+        }
+
+        @Override
+        public void sample(int sampleSize, Random random, Visitor visitor) {
+            // Slots are random access, probe from a random slot to the next occupied one
+            for (int i = 0; i < sampleSize && size > 0; i++) {
+                // Over all slots, a lowered capacity may leave orders beyond it
+                int slot = random.nextInt(keys.length);
+                while (keys[slot] == null) {
+                    slot = slot + 1 < keys.length ? slot + 1 : 0;
+                }
+                visitor.visit(keys[slot], orders[slot], placedAt[slot], expiry[slot]);
+            }
+        }
+    }
+}
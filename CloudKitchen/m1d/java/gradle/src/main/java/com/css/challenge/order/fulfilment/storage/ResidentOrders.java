@@ -0,0 +1,24 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+
+import java.util.Random;
+
+/** ResidentOrders is the read only view of a shelf handed to an {@link EvictionPolicy}. */
+public interface ResidentOrders {
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(String key, Order order, long placedAt, long expiry);
+    }
+
+    int size();
+
+    /** Returns the id of the order closest to expiry or null if the shelf is empty. */
+    String earliestExpiring();
+
+    void forEach(Visitor visitor);
+
+    /** Visits up to sampleSize orders picked at random, an order may be visited more than once. */
+    void sample(int sampleSize, Random random, Visitor visitor);
+}
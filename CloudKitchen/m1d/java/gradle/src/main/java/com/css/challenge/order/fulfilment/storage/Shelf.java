@@ -1,104 +1,275 @@
 package com.css.challenge.order.fulfilment.storage;
 
 import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.TreeMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
 
-public class Shelf {
+public class Shelf implements ShelfStorage {
     private static final Logger LOGGER = LoggerFactory.getLogger(Shelf.class);
     private final HashMap<String, OrderWithTime> shelfMap;
-    // Maintains a mapping between the order expiry time and orderId for faster eviction
-    private final TreeMap<Long, String> orderSequenceMap;
-    // Used in case of Room Shelf to hold orderIds of hot and cold orders
-    private final TreeMap<Long,String> nonIdealMapSequence;
+    // Expiry index bucketed by tick for faster eviction, orders may share an expiry
+    private final TimingWheel<String> orderSequenceWheel;
+    // Used in case of Room Shelf to hold orderIds of hot and cold orders, one wheel per ideal zone
+    private final TimingWheel<String>[] nonIdealSequenceWheels;
+    // Dense list of the orders on the shelf, gives the eviction policy random access
+    private final ArrayList<OrderWithTime> residents;
     private final String shelfType;
-    private final int capacity;
+    private final TemperatureZone shelfZone;
+    private volatile int capacity;
+    private final ResidentOrders residentOrders;
+    private volatile EvictionPolicy evictionPolicy;
+    private volatile Clock clock;
 
 
-    private record OrderWithTime(Order order, Long timestamp) {
+    private static final class OrderWithTime {
+        private final String key;
+        private final Order order;
+        private final long placedAt;
+        private final long timestamp;
+        private final TimingWheel.Node<String> sequenceNode;
+        private final TimingWheel<String> nonIdealWheel;
+        private final TimingWheel.Node<String> nonIdealNode;
+        // Index in residents, changes when another order is removed
+        private int position;
+
+        private OrderWithTime(String key, Order order, long placedAt, long timestamp, TimingWheel.Node<String> sequenceNode,
+                              TimingWheel<String> nonIdealWheel, TimingWheel.Node<String> nonIdealNode) {
+            this.key = key;
+            this.order = order;
+            this.placedAt = placedAt;
+            this.timestamp = timestamp;
+            this.sequenceNode = sequenceNode;
+            this.nonIdealWheel = nonIdealWheel;
+            this.nonIdealNode = nonIdealNode;
+        }
     }
 
 
     public Shelf(int size, String shelfType) {
         this.shelfMap = new HashMap<>(size);
-        this.orderSequenceMap = new TreeMap<>();
+        this.orderSequenceWheel = new TimingWheel<>();
+        this.residents = new ArrayList<>(size);
         this.capacity = size;
         this.shelfType = shelfType;
-        this.nonIdealMapSequence = new TreeMap<>();
+        this.shelfZone = TemperatureZone.of(shelfType);
+        @SuppressWarnings("unchecked")
+        TimingWheel<String>[] wheels = (TimingWheel<String>[]) new TimingWheel<?>[TemperatureZone.values().length];
+        this.nonIdealSequenceWheels = wheels;
+        for (int zone = 0; zone < nonIdealSequenceWheels.length; zone++) {
+            nonIdealSequenceWheels[zone] = new TimingWheel<>();
+        }
+        this.residentOrders = new ResidentView();
+        this.evictionPolicy = EvictionPolicy.EXPIRED_ONLY;
+        this.clock = Clock.systemUTC();
     }
 
+    @Override
     public synchronized boolean put(String key, Order value) {
-        if(shelfMap.size() == capacity) {
+        long currentTimeStamp = clock.millis();
+        // Halved if placed on a shelf of another zone, e.g. the ROOM shelf
+        long expiryTimeStamp = currentTimeStamp + value.compact().getShelfLifeMillis(shelfZone);
+        return place(key, value, currentTimeStamp, expiryTimeStamp);
+    }
+
+    @Override
+    public synchronized boolean restore(String key, Order value, long placedAt, long expiry) {
+        return place(key, value, placedAt, expiry);
+    }
+
+    private boolean place(String key, Order value, long currentTimeStamp, long expiryTimeStamp) {
+        if(shelfMap.size() >= capacity && !shelfMap.containsKey(key)) {
             return false;
         }
-        long expiryTimeStamp = System.currentTimeMillis() + (value.getFreshness() * 1000L);
-
-        String temp = value.getTemp();
-        if(!shelfType.equalsIgnoreCase(temp)) {
-            expiryTimeStamp  = System.currentTimeMillis() + ((value.getFreshness()/ 2) * 1000L); //if placed in ROOM shelf expiry reduces to half
-            nonIdealMapSequence.put(expiryTimeStamp, key);
+        TemperatureZone zone = value.compact().getZone();
+        TimingWheel<String> nonIdealWheel = null;
+        TimingWheel.Node<String> nonIdealNode = null;
+        if(zone != shelfZone && zone != null) {
+            nonIdealWheel = nonIdealSequenceWheels[zone.ordinal()];
+            nonIdealNode = nonIdealWheel.add(key, expiryTimeStamp);
         }
-        shelfMap.put(key, new OrderWithTime(value, expiryTimeStamp));
-        orderSequenceMap.put(expiryTimeStamp, key);
-        LOGGER.debug("Order {} Placed in {} Shelf ", key, temp);
+        TimingWheel.Node<String> sequenceNode = orderSequenceWheel.add(key, expiryTimeStamp);
+        OrderWithTime orderWithTime = new OrderWithTime(key, value, currentTimeStamp, expiryTimeStamp, sequenceNode, nonIdealWheel, nonIdealNode);
+        OrderWithTime replaced = shelfMap.put(key, orderWithTime);
+        if (replaced != null) {
+            unindex(replaced);
+        }
+        orderWithTime.position = residents.size();
+        residents.add(orderWithTime);
+        LOGGER.debug("Order {} Placed in {} Shelf ", key, shelfType);
 
         return true;
     }
 
+    @Override
     public synchronized boolean remove(String key) {
-        if(!shelfMap.containsKey(key)) {
+        OrderWithTime orderWithTime = shelfMap.remove(key);
+        if(orderWithTime == null) {
             return false;
         }
 
-        OrderWithTime orderWithTime = shelfMap.remove(key);
-        String temp = orderWithTime.order.getTemp();
-        orderSequenceMap.remove(orderWithTime.timestamp);
-        LOGGER.debug("Order {} Picked from {} Shelf ", key, temp);
-        if(!shelfType.equalsIgnoreCase(temp)) {
-            nonIdealMapSequence.remove(orderWithTime.timestamp);
-        }
+        unindex(orderWithTime);
+        LOGGER.debug("Order {} Picked from {} Shelf ", key, orderWithTime.order.getTemp());
         return true;
     }
 
+    @Override
     public synchronized boolean hasSpace() {
-        return shelfMap.size() != capacity;
+        return shelfMap.size() < capacity;
     }
 
+    @Override
+    public synchronized int size() {
+        return shelfMap.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Shelf capacity must not be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
     public synchronized Order findEligibleOrder() {
-        Order eligibleOrder = null;
-        if(nonIdealMapSequence.isEmpty()) {
+        TimingWheel.Node<String> eligibleNode = null;
+        for (TimingWheel<String> nonIdealWheel : nonIdealSequenceWheels) {
+            var node = nonIdealWheel.peekFirst();
+            if (node != null && (eligibleNode == null || node.expiry() < eligibleNode.expiry())) {
+                eligibleNode = node;
+            }
+        }
+        // check if expiry oldest non-ideal order < currentTimeStamp
+        if (eligibleNode == null || eligibleNode.expiry() >= clock.millis()) {
             return null;
         }
+        return shelfMap.get(eligibleNode.value()).order; // Get the order associated with the eligible timestamp
+    }
 
-        long currentTimeStamp = System.currentTimeMillis();
-        // check if expiry oldest non-ideal order < currentTimeStamp
-        var eligibleEntry = nonIdealMapSequence.firstKey() < currentTimeStamp ? nonIdealMapSequence.firstEntry(): null;
-        if (eligibleEntry != null) {
-            eligibleOrder = shelfMap.get(eligibleEntry.getValue()).order; // Get the order associated with the eligible timestamp
-        }
-        return eligibleOrder;
-    }
-
-    public synchronized String evictStaleOrder() {
-        long currentTimeStamp = System.currentTimeMillis();
-        // check if expiry the oldest order < currentTimeStamp
-        var expiredEntry = orderSequenceMap.firstKey() < currentTimeStamp ? orderSequenceMap.firstEntry(): null;
-        String orderId =  (expiredEntry != null) ? expiredEntry.getValue() : "";
-        if(!orderId.isEmpty()) {
-            OrderWithTime evictedRecord = shelfMap.remove(orderId);
-            orderSequenceMap.remove(expiredEntry.getKey());
-            String temp = evictedRecord.order.getTemp();
-            if (!shelfType.equalsIgnoreCase(temp)) {
-                nonIdealMapSequence.remove(evictedRecord.timestamp);
-            }
+    @Override
+    public synchronized Order findEligibleOrder(TemperatureZone idealZone) {
+        var eligibleNode = nonIdealSequenceWheels[idealZone.ordinal()].peekFirst();
+        if (eligibleNode == null || eligibleNode.expiry() < clock.millis()) {
+            return null;
+        }
+        return shelfMap.get(eligibleNode.value()).order;
+    }
+
+    @Override
+    public String evictStaleOrder() {
+        return evictStaleOrder(evictionPolicy);
+    }
+
+    @Override
+    public synchronized String evictStaleOrder(EvictionPolicy evictionPolicy) {
+        long currentTimeStamp = clock.millis();
+        var expiredNode = orderSequenceWheel.peekFirst();
+        // check if expiry the oldest order < currentTimeStamp, otherwise let the policy choose
+        String orderId = expiredNode != null && expiredNode.expiry() < currentTimeStamp
+                ? expiredNode.value()
+                : (shelfMap.isEmpty() ? null : evictionPolicy.selectVictim(residentOrders, currentTimeStamp));
+        OrderWithTime evictedRecord = orderId != null ? shelfMap.remove(orderId) : null;
+        if (evictedRecord == null) {
+            return "";
         }
+        unindex(evictedRecord);
         return orderId;
     }
 
+    @Override
+    public synchronized void forEachOrder(ResidentOrders.Visitor visitor) {
+        residentOrders.forEach(visitor);
+    }
+
+    @Override
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized List<String> evictExpiredOrders(int maxBatch) {
+        List<String> evictedOrderIds = new ArrayList<>();
+        long currentTimeStamp = clock.millis();
+        while (evictedOrderIds.size() < maxBatch) {
+            var expiredNode = orderSequenceWheel.peekFirst();
+            if (expiredNode == null || expiredNode.expiry() >= currentTimeStamp) {
+                break;
+            }
+            String orderId = expiredNode.value();
+            unindex(shelfMap.remove(orderId));
+            evictedOrderIds.add(orderId);
+        }
+        return evictedOrderIds;
+    }
+
+    @Override
+    public <T> T exclusively(Supplier<T> task) {
+        synchronized (this) {
+            return task.get();
+        }
+    }
+
+    @Override
     public synchronized boolean containsOrder(String key) {
         return shelfMap.containsKey(key);
     }
+
+    private void unindex(OrderWithTime orderWithTime) {
+        orderSequenceWheel.cancel(orderWithTime.sequenceNode);
+        if (orderWithTime.nonIdealNode != null) {
+            orderWithTime.nonIdealWheel.cancel(orderWithTime.nonIdealNode);
+        }
+        // Swap with the last resident, keeps the list dense
+        OrderWithTime last = residents.remove(residents.size() - 1);
+        if (last != orderWithTime) {
+            last.position = orderWithTime.position;
+            residents.set(last.position, last);
+        }
+    }
+
+    // Only used by the eviction policy while the shelf lock is held
+    private final class ResidentView implements ResidentOrders {
+        @Override
+        public int size() {
+            return shelfMap.size();
+        }
+
+        @Override
+        public String earliestExpiring() {
+            var node = orderSequenceWheel.peekFirst();
+            return node != null ? node.value() : null;
+        }
+
+        @Override
+        public void forEach(Visitor visitor) {
+            shelfMap.forEach((key, orderWithTime) ->
+                    visitor.visit(key, orderWithTime.order, orderWithTime.placedAt, orderWithTime.timestamp));
+        }
+
+        @Override
+        public void sample(int sampleSize, Random random, Visitor visitor) {
+            for (int i = 0; i < sampleSize && !residents.isEmpty(); i++) {
+                OrderWithTime orderWithTime = residents.get(random.nextInt(residents.size()));
+                visitor.visit(orderWithTime.key, orderWithTime.order, orderWithTime.placedAt, orderWithTime.timestamp);
+            }
+        }
+    }
 }
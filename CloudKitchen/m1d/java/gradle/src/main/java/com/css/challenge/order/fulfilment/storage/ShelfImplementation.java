@@ -0,0 +1,28 @@
+package com.css.challenge.order.fulfilment.storage;
+
+/** ShelfImplementation selects the {@link ShelfStorage} used for every shelf of a kitchen. */
+public enum ShelfImplementation {
+    // Every operation is synchronized on the shelf
+    SYNCHRONIZED {
+        @Override
+        public ShelfStorage create(int size, String shelfType) {
+            return new Shelf(size, shelfType);
+        }
+    },
+    // Concurrent map and expiry index, capacity is reserved with CAS
+    CONCURRENT {
+        @Override
+        public ShelfStorage create(int size, String shelfType) {
+            return new ConcurrentShelf(size, shelfType);
+        }
+    },
+    // Synchronized, primitive arrays and slot free-list, no allocation per put and remove
+    PRIMITIVE {
+        @Override
+        public ShelfStorage create(int size, String shelfType) {
+            return new PrimitiveShelf(size, shelfType);
+        }
+    };
+
+    public abstract ShelfStorage create(int size, String shelfType);
+}
@@ -0,0 +1,254 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ShelfRegistry holds the shelves of a kitchen indexed by {@link TemperatureZone}. A zone may have
+ * any number of shelves, each with its own capacity, and a fallback chain of zones tried in order
+ * when all of its shelves are full. Placement starts at a rotating shelf of the zone so that
+ * shelves of the same temperature share the load.
+ */
+public class ShelfRegistry {
+    private static final TemperatureZone[] NO_FALLBACK = new TemperatureZone[0];
+
+    private final ShelfStorage[][] shelves;
+    private final TemperatureZone[][] fallbacks;
+    private final AtomicInteger[] cursors;
+    private final List<ShelfStorage> allShelves;
+    private final Map<ShelfStorage, Integer> shelfIndexes;
+    private final TemperatureZone[] shelfZones;
+    private volatile Clock clock = Clock.systemUTC();
+
+    private ShelfRegistry(List<List<ShelfStorage>> shelves, TemperatureZone[][] fallbacks) {
+        int zones = TemperatureZone.values().length;
+        this.shelves = new ShelfStorage[zones][];
+        this.cursors = new AtomicInteger[zones];
+        List<ShelfStorage> all = new ArrayList<>();
+        List<TemperatureZone> allZones = new ArrayList<>();
+        for (int zone = 0; zone < zones; zone++) {
+            this.shelves[zone] = shelves.get(zone).toArray(new ShelfStorage[0]);
+            this.cursors[zone] = new AtomicInteger();
+            all.addAll(shelves.get(zone));
+            for (ShelfStorage ignored : shelves.get(zone)) {
+                allZones.add(TemperatureZone.values()[zone]);
+            }
+        }
+        this.shelfZones = allZones.toArray(new TemperatureZone[0]);
+        this.fallbacks = fallbacks;
+        this.allShelves = Collections.unmodifiableList(all);
+        this.shelfIndexes = new IdentityHashMap<>();
+        for (int index = 0; index < all.size(); index++) {
+            shelfIndexes.put(all.get(index), index);
+        }
+    }
+
+    /** Returns the classic kitchen of one hot, cold and room shelf, hot and cold fall back to room. */
+    public static ShelfRegistry standard(int hotsize, int coldsize, int roomsize, ShelfImplementation shelfImplementation) {
+        return builder(shelfImplementation)
+                .shelf(TemperatureZone.HOT, hotsize)
+                .shelf(TemperatureZone.COLD, coldsize)
+                .shelf(TemperatureZone.ROOM, roomsize)
+                .build();
+    }
+
+    /**
+     * Parses a topology such as {@code hot=6+6,cold=6,frozen=4,room=12+12}, where every capacity
+     * adds a shelf to the zone, and fallback chains such as {@code frozen=cold>room}.
+     */
+    public static ShelfRegistry parse(String topology, String fallbackChains, ShelfImplementation shelfImplementation) {
+        Builder builder = builder(shelfImplementation);
+        for (String zoneSpec : topology.split(",")) {
+            String[] parts = zoneSpec.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid shelf topology: " + zoneSpec);
+            }
+            TemperatureZone zone = parseZone(parts[0]);
+            for (String capacity : parts[1].split("\\+")) {
+                builder.shelf(zone, Integer.parseInt(capacity.trim()));
+            }
+        }
+        if (fallbackChains != null && !fallbackChains.isBlank()) {
+            for (String chainSpec : fallbackChains.split(",")) {
+                String[] parts = chainSpec.trim().split("=");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid fallback chain: " + chainSpec);
+                }
+                String[] chain = parts[1].split(">");
+                TemperatureZone[] zones = new TemperatureZone[chain.length];
+                for (int i = 0; i < chain.length; i++) {
+                    zones[i] = parseZone(chain[i]);
+                }
+                builder.fallback(parseZone(parts[0]), zones);
+            }
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(ShelfImplementation shelfImplementation) {
+        return new Builder(shelfImplementation);
+    }
+
+    /**
+     * Places the order on the first shelf of the zone with space, starting from a rotating shelf.
+     * Returns the shelf or null if every shelf of the zone is full.
+     */
+    public ShelfStorage put(TemperatureZone zone, String key, Order order) {
+        ShelfStorage[] zoneShelves = shelves[zone.ordinal()];
+        int count = zoneShelves.length;
+        if (count == 0) {
+            return null;
+        }
+        int start = count == 1 ? 0 : Math.floorMod(cursors[zone.ordinal()].getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            ShelfStorage shelf = zoneShelves[(start + i) % count];
+            if (shelf.put(key, order)) {
+                return shelf;
+            }
+        }
+        return null;
+    }
+
+    public ShelfStorage[] getShelves(TemperatureZone zone) {
+        return shelves[zone.ordinal()];
+    }
+
+    /** Returns the zones tried after the zone itself, the last one is where overflow is resolved. */
+    public TemperatureZone[] getFallbacks(TemperatureZone zone) {
+        return fallbacks[zone.ordinal()];
+    }
+
+    public boolean hasSpace(TemperatureZone zone) {
+        for (ShelfStorage shelf : shelves[zone.ordinal()]) {
+            if (shelf.hasSpace()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasZone(TemperatureZone zone) {
+        return shelves[zone.ordinal()].length > 0;
+    }
+
+    /** Sets the capacity of every shelf of the zone while orders are placed, see {@link ShelfStorage#setCapacity}. */
+    public void setCapacity(TemperatureZone zone, int capacity) {
+        for (ShelfStorage shelf : shelves[zone.ordinal()]) {
+            shelf.setCapacity(capacity);
+        }
+    }
+
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        allShelves.forEach(shelf -> shelf.setEvictionPolicy(evictionPolicy));
+    }
+
+    /** Sets the clock of every shelf and of the actions on them, before any order is placed. */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        allShelves.forEach(shelf -> shelf.setClock(clock));
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    /** Returns every shelf, zone by zone, the position in this list is the shelf index. */
+    public List<ShelfStorage> getAllShelves() {
+        return allShelves;
+    }
+
+    public TemperatureZone getZone(int shelfIndex) {
+        return shelfZones[shelfIndex];
+    }
+
+    /** Returns the index of the shelf in {@link #getAllShelves()} or -1 if it is not in the registry. */
+    public int indexOf(ShelfStorage shelf) {
+        Integer index = shelfIndexes.get(shelf);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Runs task with exclusive access to every shelf, see {@link ShelfStorage#exclusively}. Shelves
+     * are taken in index order, so concurrent callers cannot deadlock.
+     */
+    public <T> T exclusively(Supplier<T> task) {
+        return exclusively(0, task);
+    }
+
+    private <T> T exclusively(int shelfIndex, Supplier<T> task) {
+        if (shelfIndex == allShelves.size()) {
+            return task.get();
+        }
+        return allShelves.get(shelfIndex).exclusively(() -> exclusively(shelfIndex + 1, task));
+    }
+
+    private static TemperatureZone parseZone(String temp) {
+        TemperatureZone zone = TemperatureZone.of(temp.trim());
+        if (zone == null) {
+            throw new IllegalArgumentException("Unknown temperature zone: " + temp);
+        }
+        return zone;
+    }
+
+    public static class Builder {
+        private final ShelfImplementation shelfImplementation;
+        private final List<List<ShelfStorage>> shelves = new ArrayList<>();
+        private final TemperatureZone[][] fallbacks = new TemperatureZone[TemperatureZone.values().length][];
+        private EvictionPolicy evictionPolicy = EvictionPolicy.EXPIRED_ONLY;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(ShelfImplementation shelfImplementation) {
+            this.shelfImplementation = shelfImplementation;
+            for (TemperatureZone ignored : TemperatureZone.values()) {
+                shelves.add(new ArrayList<>());
+            }
+        }
+
+        public Builder shelf(TemperatureZone zone, int capacity) {
+            shelves.get(zone.ordinal()).add(shelfImplementation.create(capacity, zone.getTemp()));
+            return this;
+        }
+
+        public Builder fallback(TemperatureZone zone, TemperatureZone... chain) {
+            fallbacks[zone.ordinal()] = chain.clone();
+            return this;
+        }
+
+        /** Sets the policy of every shelf, shelves keep only unexpired orders by default. */
+        public Builder evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        /** Sets the clock of the kitchen, a simulation passes its virtual clock. */
+        public Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /** Zones without an explicit chain fall back to room when the kitchen has a room shelf. */
+        public ShelfRegistry build() {
+            boolean hasRoom = !shelves.get(TemperatureZone.ROOM.ordinal()).isEmpty();
+            for (TemperatureZone zone : TemperatureZone.values()) {
+                if (fallbacks[zone.ordinal()] == null) {
+                    fallbacks[zone.ordinal()] = hasRoom && zone != TemperatureZone.ROOM
+                            ? new TemperatureZone[]{TemperatureZone.ROOM}
+                            : NO_FALLBACK;
+                }
+            }
+            ShelfRegistry shelfRegistry = new ShelfRegistry(shelves, fallbacks);
+            shelfRegistry.setEvictionPolicy(evictionPolicy);
+            shelfRegistry.setClock(clock);
+            return shelfRegistry;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * ShelfStorage is a capacity bounded store of orders for a single shelf. Implementations differ in
+ * how they are synchronized, see {@link ShelfImplementation}.
+ */
+public interface ShelfStorage {
+
+    /**
+     * Places the order on the shelf, returns false if the shelf is full. An order already on the
+     * shelf under key is replaced, with new placement and expiry times, even when the shelf is full.
+     */
+    boolean put(String key, Order value);
+
+    /**
+     * Places the order with the placement and expiry times it had before a restart, returns false
+     * if the shelf is full. Replaces an order already on the shelf under key like {@link #put}.
+     */
+    boolean restore(String key, Order value, long placedAt, long expiry);
+
+    /** Removes the order from the shelf, returns false if the order is not on the shelf. */
+    boolean remove(String key);
+
+    boolean hasSpace();
+
+    /** Returns the number of orders on the shelf. */
+    int size();
+
+    int getCapacity();
+
+    /**
+     * Changes the capacity of the shelf while it is in use. Orders over a smaller capacity stay on
+     * the shelf, no order is placed until enough of them have left.
+     */
+    void setCapacity(int capacity);
+
+    /** Returns the oldest expired non-ideal order on the shelf or null if there is none. */
+    Order findEligibleOrder();
+
+    /**
+     * Returns the non-ideal order whose ideal zone is idealZone and that is closest to expiry, or
+     * null if there is none or it has already expired. Used to move orders back to a shelf of that
+     * zone with space, expired orders are discarded instead.
+     */
+    Order findEligibleOrder(TemperatureZone idealZone);
+
+    /**
+     * Removes the order closest to expiry if it has already expired, otherwise the order chosen by
+     * the eviction policy. Returns its id or "" if nothing was removed.
+     */
+    String evictStaleOrder();
+
+    /** Same as {@link #evictStaleOrder()} with evictionPolicy instead of the policy of the shelf. */
+    String evictStaleOrder(EvictionPolicy evictionPolicy);
+
+    void setEvictionPolicy(EvictionPolicy evictionPolicy);
+
+    /** Sets the clock placement and expiry times are read from, before any order is placed. */
+    void setClock(Clock clock);
+
+    /** Visits every order on the shelf, used to snapshot the shelf. */
+    void forEachOrder(ResidentOrders.Visitor visitor);
+
+    /** Removes up to maxBatch expired orders in one pass and returns their ids. */
+    List<String> evictExpiredOrders(int maxBatch);
+
+    boolean containsOrder(String key);
+
+    /**
+     * Runs task with exclusive access to the shelf. A shelf guarded by its monitor holds it for the
+     * whole task, so the calls task makes take it again without contention. Lock-free shelves just
+     * run task.
+     */
+    default <T> T exclusively(Supplier<T> task) {
+        return task.get();
+    }
+}
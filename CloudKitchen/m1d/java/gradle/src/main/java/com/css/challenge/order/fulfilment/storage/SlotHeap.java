@@ -0,0 +1,90 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap of slot handles ordered by the expiry array of the owning shelf. The
+ * position array makes removal of an arbitrary slot O(log n) without allocating.
+ */
+final class SlotHeap {
+    private final int[] heap;
+    private final int[] position;
+    private final long[] expiry;
+    private int size;
+
+    SlotHeap(int capacity, long[] expiry) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.expiry = expiry;
+        Arrays.fill(position, -1);
+    }
+
+    void add(int slot) {
+        heap[size] = slot;
+        position[slot] = size;
+        siftUp(size++);
+    }
+
+    boolean remove(int slot) {
+        int index = position[slot];
+        if (index < 0) {
+            return false;
+        }
+        position[slot] = -1;
+        int last = heap[--size];
+        if (index < size) {
+            heap[index] = last;
+            position[last] = index;
+            siftDown(index);
+            siftUp(position[last]);
+        }
+        return true;
+    }
+
+    /** Returns the slot with the earliest expiry or -1 if the heap is empty. */
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return heap[index];
+    }
+
+    private void siftUp(int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (expiry[heap[parent]] <= expiry[slot]) {
+                break;
+            }
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = slot;
+        position[slot] = index;
+    }
+
+    private void siftDown(int index) {
+        int slot = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && expiry[heap[child + 1]] < expiry[heap[child]]) {
+                child++;
+            }
+            if (expiry[slot] <= expiry[heap[child]]) {
+                break;
+            }
+            heap[index] = heap[child];
+            position[heap[index]] = index;
+            index = child;
+        }
+        heap[index] = slot;
+        position[slot] = index;
+    }
+}
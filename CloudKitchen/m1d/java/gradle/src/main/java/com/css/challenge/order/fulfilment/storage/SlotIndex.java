@@ -0,0 +1,68 @@
+package com.css.challenge.order.fulfilment.storage;
+
+/**
+ * Open addressing map from order id to an int slot handle. The table is sized once for the shelf
+ * capacity and deletes shift entries back instead of leaving tombstones, so it never allocates
+ * after construction.
+ */
+final class SlotIndex {
+    private final String[] keys;
+    private final int[] slots;
+    private final int mask;
+
+    SlotIndex(int capacity) {
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.keys = new String[tableSize];
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /** Returns the slot of the key or -1 if it is absent. */
+    int get(String key) {
+        for (int i = home(key); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(key)) {
+                return slots[i];
+            }
+        }
+        return -1;
+    }
+
+    void put(String key, int slot) {
+        int i = home(key);
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+    }
+
+    /** Removes the key and returns its slot or -1 if it was absent. */
+    int remove(String key) {
+        int i = home(key);
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == null) {
+            return -1;
+        }
+        int slot = slots[i];
+        int gap = i;
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = home(keys[j]);
+            // Move the entry into the gap unless its home lies cyclically in (gap, j]
+            boolean between = gap <= j ? (gap < home && home <= j) : (gap < home || home <= j);
+            if (!between) {
+                keys[gap] = keys[j];
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        keys[gap] = null;
+        return slot;
+    }
+
+    private int home(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,293 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel used as an expiry index and as a schedule of due entries. Entries are
+ * bucketed by tick into intrusive lists, so insert and cancel are O(1) and any number of entries
+ * may share a tick. Every level has
+ * 64 buckets, a bucket of level n spans 64^n ticks and its occupancy is one bit in a word, which
+ * makes finding the earliest bucket a couple of bit operations. Buckets of the upper levels are
+ * cascaded into the lower ones lazily, when they become the earliest bucket.
+ *
+ * <p>Not thread safe, callers synchronize.
+ */
+public class TimingWheel<T> {
+    public static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Node<T>[][] buckets;
+    // One bit per non-empty bucket for every level
+    private final long[] occupied;
+    // Every entry expires at or after the current tick, except overdue ones of an anchored wheel parked in its bucket
+    private long currentTick;
+    private int size;
+    // The current tick only moves forward with pollDue instead of jumping to the entry added to an empty wheel
+    private final boolean anchored;
+
+    public static final class Node<T> {
+        private final T value;
+        private final long expiry;
+        private final long tick;
+        private Node<T> prev;
+        private Node<T> next;
+        private int level = -1;
+        private int slot;
+
+        private Node(T value, long expiry, long tick) {
+            this.value = value;
+            this.expiry = expiry;
+            this.tick = tick;
+        }
+
+        public T value() {
+            return value;
+        }
+
+        public long expiry() {
+            return expiry;
+        }
+    }
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_MILLIS);
+    }
+
+    public TimingWheel(long tickMillis) {
+        this(tickMillis, -1);
+    }
+
+    /**
+     * Creates a wheel anchored at startMillis for use as a schedule: entries are added at or after
+     * the time of the last pollDue, so none is ever parked in a later bucket than its own tick.
+     */
+    public static <T> TimingWheel<T> schedule(long tickMillis, long startMillis) {
+        return new TimingWheel<>(tickMillis, startMillis);
+    }
+
+    private TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        @SuppressWarnings("unchecked")
+        Node<T>[][] buckets = (Node<T>[][]) new Node<?>[LEVELS][WHEEL_SIZE];
+        this.buckets = buckets;
+        this.occupied = new long[LEVELS];
+        this.anchored = startMillis >= 0;
+        this.currentTick = Math.max(startMillis, 0) / tickMillis;
+    }
+
+    /** Adds an entry expiring at the given epoch millisecond, the node is the handle to cancel it. */
+    public Node<T> add(T value, long expiry) {
+        Node<T> node = new Node<>(value, expiry, Math.max(expiry, 0) / tickMillis);
+        if (size == 0 && !anchored) {
+            // Nothing to keep in order, move the wheel to the new entry
+            currentTick = node.tick;
+        } else if (node.tick < currentTick && !anchored) {
+            // peekFirst moved the wheel up to the earliest entry, this one is earlier still
+            rewind(node.tick);
+        }
+        insert(node);
+        size++;
+        return node;
+    }
+
+    /** Removes the entry, returns false if it was already removed. */
+    public boolean cancel(Node<T> node) {
+        if (node.level < 0) {
+            return false;
+        }
+        unlink(node);
+        size--;
+        return true;
+    }
+
+    /** Returns the entry with the earliest expiry or null if the wheel is empty. */
+    public Node<T> peekFirst() {
+        if (size == 0) {
+            return null;
+        }
+        return earliestIn(buckets[0][earliestBucket(Long.MAX_VALUE)]);
+    }
+
+    /**
+     * Removes up to max entries of the ticks that have fully passed at now and hands their values
+     * to consumer. Meant for a wheel created with {@link #schedule}. Ticks are taken in order, entries within a tick in no particular order, so no
+     * bucket is scanned for its earliest entry. Returns the number of entries removed.
+     */
+    public int pollDue(long now, int max, Consumer<T> consumer) {
+        // The last tick whose every expiry is at or before now
+        long dueTick = (Math.max(now, 0) + 1) / tickMillis - 1;
+        int polled = 0;
+        while (polled < max) {
+            int slot = size > 0 ? earliestBucket(dueTick) : -1;
+            if (slot < 0) {
+                // Nothing is left up to the due tick, keep the wheel close to now for the entries added next
+                currentTick = Math.max(currentTick, dueTick);
+                break;
+            }
+            Node<T> node = buckets[0][slot];
+            while (node != null && polled < max) {
+                Node<T> next = node.next;
+                unlink(node);
+                size--;
+                polled++;
+                consumer.accept(node.value);
+                node = next;
+            }
+        }
+        return polled;
+    }
+
+    /**
+     * Cascades upper buckets until the earliest one is on level 0 and returns its slot, or -1
+     * without cascading when the earliest bucket starts after limitTick. The wheel is not empty.
+     */
+    private int earliestBucket(long limitTick) {
+        while (true) {
+            int earliestLevel = -1;
+            int earliestSlot = 0;
+            long earliestStart = Long.MAX_VALUE;
+            for (int level = 0; level < LEVELS; level++) {
+                if (occupied[level] == 0) {
+                    continue;
+                }
+                int shift = level * WHEEL_BITS;
+                long current = currentTick >>> shift;
+                int offset = Long.numberOfTrailingZeros(Long.rotateRight(occupied[level], (int) (current & WHEEL_MASK)));
+                long start = (current + offset) << shift;
+                // On a tie the upper bucket may hold an earlier expiry within the tick, cascade it first
+                if (start < earliestStart || (start == earliestStart && level > 0)) {
+                    earliestStart = start;
+                    earliestLevel = level;
+                    earliestSlot = (int) ((current + offset) & WHEEL_MASK);
+                }
+            }
+            if (earliestStart > limitTick) {
+                return -1;
+            }
+            if (earliestLevel == 0) {
+                currentTick = Math.max(currentTick, earliestStart);
+                return earliestSlot;
+            }
+            cascade(earliestLevel, earliestSlot, earliestStart);
+        }
+    }
+
+    /** Removes and returns the entry with the earliest expiry or null if the wheel is empty. */
+    public Node<T> pollFirst() {
+        Node<T> node = peekFirst();
+        if (node != null) {
+            cancel(node);
+        }
+        return node;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private Node<T> earliestIn(Node<T> head) {
+        Node<T> earliest = head;
+        for (Node<T> node = head.next; node != null; node = node.next) {
+            if (node.expiry < earliest.expiry) {
+                earliest = node;
+            }
+        }
+        return earliest;
+    }
+
+    private void cascade(int level, int slot, long start) {
+        currentTick = Math.max(currentTick, start);
+        Node<T> node = buckets[level][slot];
+        buckets[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        while (node != null) {
+            Node<T> next = node.next;
+            node.prev = null;
+            node.next = null;
+            insert(node);
+            node = next;
+        }
+    }
+
+    /**
+     * Moves the current tick back to tick. On every level only the buckets that fall outside the new
+     * span are emptied and their entries inserted again, usually into an upper level, so an earlier
+     * entry gets its own bucket instead of being parked with the current tick.
+     */
+    private void rewind(long tick) {
+        long previousTick = currentTick;
+        currentTick = tick;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * WHEEL_BITS;
+            long from = (tick >>> shift) + WHEEL_SIZE;
+            long to = Math.min((previousTick >>> shift) + WHEEL_SIZE, from + WHEEL_SIZE);
+            for (long position = from; position < to; position++) {
+                int slot = (int) (position & WHEEL_MASK);
+                Node<T> node = buckets[level][slot];
+                buckets[level][slot] = null;
+                occupied[level] &= ~(1L << slot);
+                while (node != null) {
+                    Node<T> next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    insert(node);
+                    node = next;
+                }
+            }
+        }
+    }
+
+    private void insert(Node<T> node) {
+        long tick = Math.max(node.tick, currentTick);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = level * WHEEL_BITS;
+            if ((tick >>> shift) - (currentTick >>> shift) < WHEEL_SIZE) {
+                link(node, level, (int) ((tick >>> shift) & WHEEL_MASK));
+                return;
+            }
+        }
+        // Beyond the span of the top level, park in its farthest bucket until that one cascades
+        int shift = (LEVELS - 1) * WHEEL_BITS;
+        link(node, LEVELS - 1, (int) (((currentTick >>> shift) + WHEEL_MASK) & WHEEL_MASK));
+    }
+
+    private void link(Node<T> node, int level, int slot) {
+        Node<T> head = buckets[level][slot];
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        buckets[level][slot] = node;
+        occupied[level] |= 1L << slot;
+        node.level = level;
+        node.slot = slot;
+    }
+
+    private void unlink(Node<T> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            buckets[node.level][node.slot] = node.next;
+            if (node.next == null) {
+                occupied[node.level] &= ~(1L << node.slot);
+            }
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+        node.level = -1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.css.challenge.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactOrderTest {
+
+    @Test
+    void testCompactIsBuiltOnParse() throws Exception {
+        Order order = Order.parse("[{\"id\":\"a1\",\"name\":\"Soup\",\"temp\":\"HOT\",\"freshness\":7}]").get(0);
+
+        CompactOrder compact = order.compact();
+        assertSame(compact, order.compact());
+        assertEquals(TemperatureZone.HOT, compact.getZone());
+        assertEquals(TemperatureZone.HOT.ordinal(), compact.getTemperatureCode());
+        assertEquals(7_000, compact.getShelfLifeMillis(TemperatureZone.HOT));
+        // Halved in whole seconds on a shelf of another zone
+        assertEquals(3_000, compact.getShelfLifeMillis(TemperatureZone.ROOM));
+    }
+
+    @Test
+    void testUnknownTemperature() {
+        CompactOrder compact = new Order("a1", "Soup", "lukewarm", 10).compact();
+
+        assertNull(compact.getZone());
+        assertEquals(CompactOrder.UNKNOWN, compact.getTemperatureCode());
+        assertEquals(5_000, compact.getShelfLifeMillis(TemperatureZone.ROOM));
+    }
+}
@@ -0,0 +1,70 @@
+package com.css.challenge.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderReaderTest {
+
+    private static final String FIRST = "{\"id\":\"a1\",\"name\":\"Soup\",\"temp\":\"hot\",\"freshness\":30}";
+    private static final String SECOND = "{\"id\":\"a2\",\"name\":\"Salad\",\"temp\":\"cold\",\"freshness\":60}";
+
+    @Test
+    void testReadsOrdersOneByOne() throws IOException {
+        try (OrderReader reader = reader("[" + FIRST + "," + SECOND + "]")) {
+            assertTrue(reader.hasNext());
+            assertEquals("a1", reader.next().getId());
+            Order second = reader.next();
+            assertEquals("a2", second.getId());
+            assertEquals(Temperature.COLD, second.getTemp());
+            assertEquals(60, second.getFreshness());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void testEmptyArray() throws IOException {
+        try (OrderReader reader = reader("[]")) {
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void testFirstOrderIsReadBeforeTheRestArrives() throws IOException {
+        PipedOutputStream out = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(out, 1024);
+        out.write(("[" + FIRST + ",").getBytes(StandardCharsets.UTF_8));
+        try (OrderReader reader = new OrderReader(in)) {
+            assertEquals("a1", reader.next().getId());
+
+            out.write((SECOND + "]").getBytes(StandardCharsets.UTF_8));
+            out.close();
+            assertEquals("a2", reader.next().getId());
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    void testTruncatedInput() throws IOException {
+        try (OrderReader reader = reader("[" + FIRST + ",")) {
+            assertEquals("a1", reader.next().getId());
+            assertThrows(UncheckedIOException.class, reader::hasNext);
+        }
+    }
+
+    @Test
+    void testNotAnArray() {
+        assertThrows(IOException.class, () -> reader(FIRST));
+    }
+
+    private static OrderReader reader(String json) throws IOException {
+        return new OrderReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
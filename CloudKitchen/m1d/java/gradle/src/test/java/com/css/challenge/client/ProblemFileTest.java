@@ -0,0 +1,85 @@
+package com.css.challenge.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProblemFileTest {
+
+    private final Problem problem = new Problem("test-1", List.of(
+            new Order("a1", "Cr\u00e8me br\u00fbl\u00e9e", Temperature.COLD, 45),
+            new Order("a2", "Soup", Temperature.HOT, 30)));
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("problem");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        Path file = directory.resolve("problem.bin");
+        ProblemFile.write(problem, file);
+
+        Problem read = ProblemFile.read(file);
+        assertEquals("test-1", read.getTestId());
+        assertEquals(2, read.getOrders().size());
+        Order first = read.getOrders().get(0);
+        assertEquals("a1", first.getId());
+        assertEquals("Cr\u00e8me br\u00fbl\u00e9e", first.getName());
+        assertEquals(Temperature.COLD, first.getTemp());
+        assertEquals(45, first.getFreshness());
+        assertEquals("a2", read.getOrders().get(1).getId());
+    }
+
+    @Test
+    void testReadJson() throws IOException {
+        Path file = directory.resolve("problem.json");
+        Files.writeString(file, "[{\"id\":\"a1\",\"name\":\"Soup\",\"temp\":\"hot\",\"freshness\":30}]",
+                StandardCharsets.UTF_8);
+
+        Problem read = ProblemFile.read(file);
+        assertEquals("", read.getTestId());
+        assertEquals(1, read.getOrders().size());
+        assertEquals(Temperature.HOT, read.getOrders().get(0).getTemp());
+    }
+
+    @Test
+    void testTruncatedFile() throws IOException {
+        Path file = directory.resolve("problem.bin");
+        ProblemFile.write(problem, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThrows(IOException.class, () -> ProblemFile.read(file));
+    }
+
+    @Test
+    void testCacheHitNeedsNoClient() throws IOException {
+        ProblemCache cache = new ProblemCache(directory);
+        ProblemFile.write(problem, cache.fileOf("slow kitchen", 42));
+
+        Problem cached = cache.get(null, "slow kitchen", 42);
+        assertEquals("test-1", cached.getTestId());
+        assertEquals(2, cached.getOrders().size());
+        assertEquals(directory.resolve("slow_kitchen-42.bin"), cache.fileOf("slow kitchen", 42));
+    }
+}
@@ -0,0 +1,56 @@
+package com.css.challenge.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionTest {
+
+    private final Solution solution = new Solution(Duration.ofMillis(500), Duration.ofSeconds(4), Duration.ofSeconds(8),
+            List.of(new Action(Instant.ofEpochSecond(1, 2_000), "a1", Action.PLACE),
+                    new Action(Instant.ofEpochSecond(2), "a1", Action.PICKUP),
+                    new Action(Instant.ofEpochSecond(3), "a2", Action.REJECT)));
+
+    @Test
+    void testWriteTo() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        solution.writeTo(out);
+
+        JsonNode json = Json.MAPPER.readTree(out.toByteArray());
+        assertEquals(500_000, json.get("options").get("rate").asLong());
+        assertEquals(4_000_000, json.get("options").get("min").asLong());
+        assertEquals(8_000_000, json.get("options").get("max").asLong());
+        JsonNode actions = json.get("actions");
+        // The reject is local only
+        assertEquals(2, actions.size());
+        assertEquals(1_000_002, actions.get(0).get("timestamp").asLong());
+        assertEquals("a1", actions.get(0).get("id").asText());
+        assertEquals(Action.PLACE, actions.get(0).get("action").asText());
+        assertEquals(Action.PICKUP, actions.get(1).get("action").asText());
+    }
+
+    @Test
+    void testWriteToGzip() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        solution.writeTo(plain);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        solution.writeTo(gzip);
+        // The target is left open so the gzip trailer can still be written
+        gzip.finish();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+        }
+    }
+}
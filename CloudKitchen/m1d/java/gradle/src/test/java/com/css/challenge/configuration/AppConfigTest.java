@@ -0,0 +1,83 @@
+package com.css.challenge.configuration;
+
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppConfigTest {
+
+    private final AppConfig config = AppConfig.getInstance();
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("config");
+        file = directory.resolve("application.properties");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        // Back to the bundled properties for the other tests
+        Files.writeString(file, "");
+        config.reload(file);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testTypedValuesOverBundledDefaults() throws IOException {
+        Files.writeString(file, "sweep.interval.ms=250\nshelf.eviction=least_freshness\nbroken=ten\n");
+        config.reload(file);
+
+        assertEquals(250L, config.getLong("sweep.interval.ms", 1000L));
+        assertEquals(64, config.getInt("sweep.batch.size", 1));
+        assertEquals(7, config.getInt("missing.key", 7));
+        assertEquals(EvictionPolicyType.LEAST_FRESHNESS,
+                config.getEnum("shelf.eviction", EvictionPolicyType.class, null));
+        assertThrows(IllegalArgumentException.class, () -> config.getInt("broken", 0));
+    }
+
+    @Test
+    void testMissingFileKeepsProperties() throws IOException {
+        Files.writeString(file, "sweep.interval.ms=250\n");
+        config.reload(file);
+
+        assertThrows(IOException.class, () -> config.reload(directory.resolve("missing.properties")));
+        assertEquals(250L, config.getLong("sweep.interval.ms", 1000L));
+    }
+
+    @Test
+    void testWatcherReloadsChangedFile() throws Exception {
+        Files.writeString(file, "sweep.batch.size=8\n");
+        config.reload(file);
+        CountDownLatch reloaded = new CountDownLatch(1);
+        Consumer<AppConfig> listener = changed -> {
+            if (changed.getInt("sweep.batch.size", 0) == 16) {
+                reloaded.countDown();
+            }
+        };
+        config.addListener(listener);
+        try (ConfigWatcher watcher = new ConfigWatcher(file, config)) {
+            watcher.start();
+            Files.writeString(file, "sweep.batch.size=16\n");
+            assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+        } finally {
+            config.removeListener(listener);
+        }
+        assertEquals(16, config.getInt("sweep.batch.size", 0));
+    }
+}
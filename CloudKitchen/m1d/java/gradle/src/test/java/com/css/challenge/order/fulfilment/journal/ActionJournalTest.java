@@ -0,0 +1,105 @@
+package com.css.challenge.order.fulfilment.journal;
+
+import com.css.challenge.client.Action;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionJournalTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void testAppendAndReadAcrossSegments() throws IOException {
+        String[] types = {Action.PLACE, Action.MOVE, Action.PICKUP, Action.DISCARD, Action.REJECT};
+        try (ActionJournal journal = ActionJournal.create(directory, 256)) {
+            for (int i = 0; i < 100; i++) {
+                journal.append(new Action(Instant.ofEpochSecond(1_700_000_000L, i * 1_000L), "order-" + i, types[i % types.length]));
+            }
+        }
+        assertTrue(ActionJournalReader.segments(directory).size() > 1);
+
+        List<Action> actions = ActionJournalReader.readAll(directory);
+        assertEquals(100, actions.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("order-" + i, actions.get(i).getId());
+            assertEquals(types[i % types.length], actions.get(i).getAction());
+            assertEquals(1_700_000_000_000_000L + i, actions.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void testConcurrentAppend() throws Exception {
+        int threads = 4;
+        int perThread = 2_000;
+        try (ActionJournal journal = ActionJournal.create(directory, 4096)) {
+            Thread[] writers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int writer = t;
+                writers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.append(new Action(Instant.now(), writer + "-" + i, Action.PLACE));
+                    }
+                });
+                writers[t].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        Set<String> ids = new HashSet<>();
+        ActionJournalReader.replay(directory, action -> ids.add(action.getId()));
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void testReadInTimestampOrder() throws IOException {
+        try (ActionJournal journal = ActionJournal.create(directory, 256)) {
+            // Every pair is written in reverse, as two threads may reserve space in either order
+            for (int i = 0; i < 100; i += 2) {
+                journal.append(new Action(Instant.ofEpochSecond(1_700_000_000L, (i + 1) * 1_000L), "order-" + (i + 1), Action.PLACE));
+                journal.append(new Action(Instant.ofEpochSecond(1_700_000_000L, i * 1_000L), "order-" + i, Action.PLACE));
+            }
+        }
+        Iterable<Action> actions = ActionJournalReader.inTimestampOrder(directory, 4);
+        // Read again on every iteration
+        for (int pass = 0; pass < 2; pass++) {
+            int i = 0;
+            for (Action action : actions) {
+                assertEquals("order-" + i++, action.getId());
+            }
+            assertEquals(100, i);
+        }
+        assertEquals("order-1", ActionJournalReader.inTimestampOrder(directory, 1).iterator().next().getId());
+    }
+
+    @Test
+    void testExistingJournalIsNotOverwritten() throws IOException {
+        ActionJournal.create(directory, 256).close();
+        assertThrows(IllegalStateException.class, () -> ActionJournal.create(directory, 256));
+    }
+}
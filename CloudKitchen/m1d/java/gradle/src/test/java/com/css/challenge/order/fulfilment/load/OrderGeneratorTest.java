@@ -0,0 +1,120 @@
+package com.css.challenge.order.fulfilment.load;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.service.OrderFulfilmentService;
+import com.css.challenge.order.fulfilment.service.OrderService;
+import com.css.challenge.order.fulfilment.service.PickupSchedulerType;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderGeneratorTest {
+
+    @Test
+    void testTemperatureMixAndFreshness() {
+        int count = 100_000;
+        OrderGenerator generator = OrderGenerator.builder(count)
+                .temperatureMix("hot=50,cold=30,room=20")
+                .freshness(FreshnessDistribution.NORMAL, 10, 70)
+                .seed(3)
+                .build();
+        Map<String, Integer> temps = new HashMap<>();
+        long freshness = 0;
+        for (int i = 0; i < count; i++) {
+            generator.nextGapNanos();
+            Order order = generator.next();
+            assertEquals("load-" + i, order.getId());
+            assertTrue(order.getFreshness() >= 10 && order.getFreshness() <= 70, "freshness " + order.getFreshness());
+            temps.merge(order.getTemp(), 1, Integer::sum);
+            freshness += order.getFreshness();
+        }
+        assertEquals(0.5, temps.get(Temperature.HOT) / (double) count, 0.01);
+        assertEquals(0.3, temps.get(Temperature.COLD) / (double) count, 0.01);
+        assertEquals(0.2, temps.get(Temperature.ROOM) / (double) count, 0.01);
+        assertEquals(40.0, freshness / (double) count, 0.5);
+        assertThrows(IllegalStateException.class, generator::next);
+    }
+
+    @Test
+    void testArrivalProcessesKeepTheMeanRate() {
+        int count = 100_000;
+        long meanGap = TimeUnit.SECONDS.toNanos(1) / 1000;
+        for (ArrivalProcess arrivals : ArrivalProcess.values()) {
+            OrderGenerator generator = OrderGenerator.builder(count).arrivals(arrivals, 1000).burstSize(10).seed(5).build();
+            long total = 0;
+            int zeroGaps = 0;
+            for (int i = 0; i < count; i++) {
+                long gap = generator.nextGapNanos();
+                total += gap;
+                zeroGaps += gap == 0 ? 1 : 0;
+            }
+            double observedGap = total / (double) (count - 1);
+            assertTrue(Math.abs(observedGap - meanGap) < meanGap * 0.02, arrivals + " mean gap " + observedGap);
+            switch (arrivals) {
+                case CONSTANT -> assertEquals(1, zeroGaps);
+                case BURSTY -> assertEquals(count - count / 10 + 1, zeroGaps);
+                default -> { }
+            }
+        }
+    }
+
+    @Test
+    void testSameSeedSameLoad() {
+        OrderGenerator first = OrderGenerator.builder(1000).arrivals(ArrivalProcess.POISSON, 50).seed(9).build();
+        OrderGenerator second = OrderGenerator.builder(1000).arrivals(ArrivalProcess.POISSON, 50).seed(9).build();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.nextGapNanos(), second.nextGapNanos());
+            Order a = first.next();
+            Order b = second.next();
+            assertEquals(a.getTemp(), b.getTemp());
+            assertEquals(a.getFreshness(), b.getFreshness());
+        }
+    }
+
+    @Test
+    void testOrderServicePlacesGeneratedLoad() {
+        int count = 20_000;
+        OrderGenerator generator = OrderGenerator.builder(count)
+                .arrivals(ArrivalProcess.BURSTY, 200)
+                .burstSize(20)
+                .seed(11)
+                .build();
+        DiscreteEventScheduler events = new DiscreteEventScheduler(0L);
+        ShelfRegistry shelfRegistry = ShelfRegistry.parse("hot=200,cold=200,room=400", "", ShelfImplementation.SYNCHRONIZED);
+        shelfRegistry.setClock(events.getClock());
+        OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(shelfRegistry);
+        OrderService orderService = new OrderService(generator, 1_000, 5_000, orderFulfilmentService, events, 11);
+        orderService.startProcessing();
+        orderService.waitForCompletion();
+        orderService.stopProcessing();
+
+        assertEquals(count, orderService.getPlacedCount());
+        // 1000 bursts 100 ms apart, the last one at 99.9 s
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(99_900), orderService.getPlacementNanos());
+        assertEquals(0, orderService.getMaxPlacementLagNanos());
+    }
+
+    @Test
+    void testOrderServiceKeepsUpWithRealTimeLoad() {
+        int count = 2_000;
+        OrderGenerator generator = OrderGenerator.builder(count).arrivals(ArrivalProcess.POISSON, 20_000).seed(13).build();
+        OrderFulfilmentService orderFulfilmentService =
+                new OrderFulfilmentService(ShelfRegistry.parse("hot=2000,cold=2000,room=2000", "", ShelfImplementation.SYNCHRONIZED));
+        OrderService orderService = new OrderService(generator, 0, 10, orderFulfilmentService, PickupSchedulerType.TIMING_WHEEL);
+        orderService.startProcessing();
+        orderService.waitForCompletion();
+        orderService.stopProcessing();
+
+        assertEquals(count, orderService.getPlacedCount());
+        assertEquals(count, orderFulfilmentService.getMetrics().getPickupCount());
+        assertTrue(orderService.getPlacementNanos() > 0);
+    }
+}
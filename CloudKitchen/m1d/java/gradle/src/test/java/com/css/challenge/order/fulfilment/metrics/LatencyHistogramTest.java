@@ -0,0 +1,90 @@
+package com.css.challenge.order.fulfilment.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanNanos());
+        assertEquals(0, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    void testPercentilesWithinBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals((99 * 1_000 + 1_000_000) / 100, histogram.getMeanNanos());
+        // 1000ns falls in [512, 1024), 1ms in [2^19, 2^20)
+        assertEquals(1023, histogram.getPercentileNanos(50));
+        assertEquals(1023, histogram.getPercentileNanos(99));
+        assertEquals((1L << 20) - 1, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    void testAdd() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(1_000);
+        second.record(1_000_000);
+        second.record(1_000_000);
+
+        first.add(second);
+        assertEquals(3, first.getCount());
+        assertEquals((1_000 + 2_000_000) / 3, first.getMeanNanos());
+        assertEquals((1L << 20) - 1, first.getPercentileNanos(50));
+        assertEquals(2, second.getCount());
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, histogram.getCount());
+    }
+
+    @Test
+    void testConcurrentRecordingIntoOneBucket() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(1_000);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            // Reads while recording sum the stripes and see only the recorded bucket
+            while (thread.isAlive()) {
+                long percentile = histogram.getPercentileNanos(50);
+                assertTrue(percentile == 0 || percentile == 1023);
+            }
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(1_000, histogram.getMeanNanos());
+        assertEquals(1023, histogram.getPercentileNanos(100));
+    }
+}
@@ -0,0 +1,128 @@
+package com.css.challenge.order.fulfilment.recovery;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.service.ActionLog;
+import com.css.challenge.order.fulfilment.service.OrderFulfilmentService;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecoveryTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void testSnapshotAndJournalReplay() throws IOException {
+        Path journal = directory.resolve("journal");
+        Path snapshot = directory.resolve("shelves.snapshot");
+        Order hot1 = new Order("hot1", "hot1", Temperature.HOT, 100);
+        Order hot2 = new Order("hot2", "hot2", Temperature.HOT, 100);
+        Order cold1 = new Order("cold1", "cold1", Temperature.COLD, 100);
+        Order room1 = new Order("room1", "room1", Temperature.ROOM, 100);
+        Map<String, Order> orders = new HashMap<>();
+        for (Order order : List.of(hot1, hot2, cold1, room1)) {
+            orders.put(order.getId(), order);
+        }
+
+        ActionLog actionLog = ActionLog.journaled(journal, false);
+        OrderFulfilmentService service = new OrderFulfilmentService(ShelfRegistry.standard(1, 1, 1, ShelfImplementation.SYNCHRONIZED), actionLog);
+        service.placeOrder(hot1);
+        service.placeOrder(cold1);
+        service.snapshot(snapshot);
+        // hot2 goes to the room shelf, hot1 is picked up and room1 moves hot2 to the hot shelf
+        service.placeOrder(hot2);
+        service.pickupOrder(hot1.getId());
+        service.placeOrder(room1);
+        actionLog.getJournal().close();
+        List<Action> actions = service.getActionLog();
+
+        ShelfRegistry recoveredRegistry = ShelfRegistry.standard(1, 1, 1, ShelfImplementation.SYNCHRONIZED);
+        RecoveredState state = Recovery.recover(snapshot, journal, orders, recoveredRegistry);
+        assertTrue(state.isHandled(hot1.getId()));
+        assertTrue(state.isHandled(room1.getId()));
+        assertEquals(3, state.getResidents().size());
+
+        OrderFulfilmentService recovered = new OrderFulfilmentService(recoveredRegistry, ActionLog.journaled(journal, true));
+        recovered.restore(state);
+        assertFalse(recovered.getHotShelf().containsOrder(hot1.getId()));
+        assertTrue(recovered.getColdShelf().containsOrder(cold1.getId()));
+        assertTrue(recovered.getRoomShelf().containsOrder(room1.getId()));
+        assertTrue(actions.stream().anyMatch(action -> Action.MOVE.equals(action.getAction())));
+        assertTrue(recovered.getHotShelf().containsOrder(hot2.getId()));
+        assertEquals(0, recovered.getActionLog().size());
+
+        // Restored orders are picked up as usual
+        recovered.pickupOrder(cold1.getId());
+        assertFalse(recovered.getColdShelf().containsOrder(cold1.getId()));
+        assertEquals(Action.PICKUP, recovered.getActionLog().get(0).getAction());
+    }
+
+    @Test
+    void testRecoverWithoutSnapshot() throws IOException {
+        Path journal = directory.resolve("journal");
+        Order cold1 = new Order("cold1", "cold1", Temperature.COLD, 100);
+        ActionLog actionLog = ActionLog.journaled(journal, false);
+        OrderFulfilmentService service = new OrderFulfilmentService(ShelfRegistry.standard(1, 1, 1, ShelfImplementation.CONCURRENT), actionLog);
+        service.placeOrder(cold1);
+        actionLog.getJournal().close();
+
+        ShelfRegistry recoveredRegistry = ShelfRegistry.standard(1, 1, 1, ShelfImplementation.CONCURRENT);
+        RecoveredState state = Recovery.recover(directory.resolve("missing.snapshot"), journal,
+                Map.of(cold1.getId(), cold1), recoveredRegistry);
+        ResidentOrder resident = state.getResidents().iterator().next();
+        assertEquals(recoveredRegistry.indexOf(recoveredRegistry.getShelves(TemperatureZone.COLD)[0]), resident.shelf());
+        assertEquals(resident.placedAt() + 100_000L, resident.expiry());
+    }
+
+    @Test
+    void testRestoreManyOrders() throws IOException {
+        int count = 100_000;
+        Path snapshot = directory.resolve("shelves.snapshot");
+        Path journal = directory.resolve("journal");
+        Files.createDirectories(journal);
+        OrderFulfilmentService service = new OrderFulfilmentService(
+                ShelfRegistry.builder(ShelfImplementation.PRIMITIVE).shelf(TemperatureZone.ROOM, count).build());
+        for (int i = 0; i < count; i++) {
+            service.placeOrder(new Order("order" + i, "order" + i, Temperature.ROOM, 600));
+        }
+        service.snapshot(snapshot);
+
+        long start = System.nanoTime();
+        ShelfRegistry recoveredRegistry = ShelfRegistry.builder(ShelfImplementation.PRIMITIVE).shelf(TemperatureZone.ROOM, count).build();
+        RecoveredState state = Recovery.recover(snapshot, journal, Map.of(), recoveredRegistry);
+        new OrderFulfilmentService(recoveredRegistry).restore(state);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(count, recoveredRegistry.getAllShelves().get(0).size());
+        // Well under a second on a developer machine, the bound leaves room for slow CI hosts
+        assertTrue(elapsedMillis < 5_000, "Recovery took " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,108 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionLogTest {
+
+    @Test
+    void testSnapshotIsTimeOrdered() {
+        ActionLog actionLog = new ActionLog();
+        Instant start = Instant.ofEpochSecond(1_000);
+        actionLog.append(new Action(start.plusMillis(3), "3", Action.PLACE));
+        actionLog.append(new Action(start.plusMillis(1), "1", Action.PLACE));
+        actionLog.appendAll(List.of(new Action(start.plusMillis(2), "2", Action.PLACE),
+                new Action(start.plusMillis(2), "2", Action.PICKUP)));
+
+        List<Action> snapshot = actionLog.snapshot();
+        assertEquals(4, snapshot.size());
+        assertEquals(4, actionLog.size());
+        assertEquals("1", snapshot.get(0).getId());
+        // Same timestamp keeps the order of appends
+        assertEquals(Action.PLACE, snapshot.get(1).getAction());
+        assertEquals(Action.PICKUP, snapshot.get(2).getAction());
+        assertEquals("3", snapshot.get(3).getId());
+    }
+
+    @Test
+    void testConcurrentAppendAndSnapshot() throws InterruptedException {
+        ActionLog actionLog = new ActionLog();
+        int threads = 4;
+        int perThread = 5_000;
+        Thread[] writers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    actionLog.append(new Action(Instant.ofEpochSecond(0, (long) i * 1_000 + writer), writer + "-" + i, Action.PLACE));
+                }
+            });
+            writers[t].start();
+        }
+        // Snapshots taken while writers run are ordered and hold no gaps
+        while (actionLog.size() < threads * perThread) {
+            List<Action> snapshot = actionLog.snapshot();
+            for (int i = 1; i < snapshot.size(); i++) {
+                assertTrue(snapshot.get(i - 1).getTimestamp() <= snapshot.get(i).getTimestamp());
+            }
+            assertFalse(snapshot.contains(null));
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        List<Action> snapshot = actionLog.snapshot();
+        assertEquals(threads * perThread, snapshot.size());
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            ids.add(snapshot.get(i).getId());
+            if (i > 0) {
+                assertTrue(snapshot.get(i - 1).getTimestamp() <= snapshot.get(i).getTimestamp());
+            }
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void testRingCopyWhileWriterLaps() throws InterruptedException {
+        ActionLog.RingBuffer ring = new ActionLog.RingBuffer(8);
+        int count = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < count; i++) {
+                ring.append(new Action(Instant.ofEpochSecond(0, i * 1_000L), String.valueOf(i), Action.PLACE));
+            }
+        });
+        writer.start();
+        // A copy is in append order, a slot overwritten during the copy would put a newer action first
+        while (writer.isAlive()) {
+            List<Action> copy = ring.copy();
+            for (int i = 1; i < copy.size(); i++) {
+                assertTrue(copy.get(i - 1).getTimestamp() < copy.get(i).getTimestamp(), copy.toString());
+            }
+        }
+        writer.join();
+        List<Action> tail = ring.copy();
+        assertEquals(8, tail.size());
+        assertEquals(String.valueOf(count - 1), tail.get(tail.size() - 1).getId());
+    }
+
+    @Test
+    void testBoundedTail() {
+        ActionLog actionLog = new ActionLog(null, 8);
+        for (int i = 0; i < 100; i++) {
+            actionLog.append(new Action(Instant.ofEpochSecond(i), String.valueOf(i), Action.PLACE));
+        }
+        assertEquals(100, actionLog.size());
+        List<Action> tail = actionLog.snapshot();
+        assertEquals(8, tail.size());
+        assertEquals("92", tail.get(0).getId());
+        assertEquals("99", tail.get(7).getId());
+    }
+}
@@ -0,0 +1,171 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    // One hot and one room slot, nothing expires and nothing is discarded by the shelves themselves
+    private final OrderFulfilmentService kitchen =
+            new OrderFulfilmentService(ShelfRegistry.standard(1, 1, 1, ShelfImplementation.SYNCHRONIZED));
+
+    @Test
+    void testShedRejectsOrdersWithoutRoom() throws InterruptedException {
+        AdmissionControl admission = admission(BackpressurePolicy.SHED, 16, 1000);
+        admission.start();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(admission.placeOrder(order("order" + i)));
+        }
+        awaitActions(3);
+        admission.stop();
+
+        assertEquals(List.of("order0 place", "order1 place", "order2 reject"), describe(kitchen.getActionLog()));
+        assertEquals(1, admission.getMetrics().getRejected());
+        assertEquals(1, kitchen.getMetrics().getRejectedOrders());
+        assertEquals(0, kitchen.getMetrics().getDroppedOrders());
+    }
+
+    @Test
+    void testShedRejectsWhenQueueIsFull() {
+        // Not started, nothing leaves the queue
+        AdmissionControl admission = admission(BackpressurePolicy.SHED, 2, 1000);
+        assertTrue(admission.placeOrder(order("order0")));
+        assertTrue(admission.placeOrder(order("order1")));
+        assertFalse(admission.placeOrder(order("order2")));
+
+        assertEquals(2, admission.getMetrics().getDepth());
+        assertEquals(2, admission.getMetrics().getMaxDepth());
+        assertEquals(1, admission.getMetrics().getShed());
+        assertEquals(List.of("order2 reject"), describe(kitchen.getActionLog()));
+    }
+
+    @Test
+    void testRetryPlacesOrderOnceRoomIsFreed() throws InterruptedException {
+        AdmissionControl admission = admission(BackpressurePolicy.RETRY, 16, 5_000);
+        admission.start();
+        admission.placeOrder(order("order0"));
+        admission.placeOrder(order("order1"));
+        admission.placeOrder(order("order2"));
+        awaitActions(2);
+        TimeUnit.MILLISECONDS.sleep(50);
+        admission.pickupOrder("order0");
+        awaitAction("order2 place");
+        admission.stop();
+
+        // An attempt running while the hot slot is freed moves order1 there and takes the room slot
+        List<String> actions = describe(kitchen.getActionLog());
+        assertEquals(List.of("order0 place", "order1 place", "order0 pickup"), actions.subList(0, 3));
+        assertEquals("order2 place", actions.get(actions.size() - 1));
+        assertTrue(actions.size() == 4 || actions.get(3).equals("order1 move"));
+        assertTrue(admission.getMetrics().getRetries() > 0);
+    }
+
+    @Test
+    void testRetryRejectsAfterDeadline() throws InterruptedException {
+        AdmissionControl admission = admission(BackpressurePolicy.RETRY, 16, 50);
+        admission.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            admission.placeOrder(order("order" + i));
+        }
+        awaitActions(3);
+        admission.stop();
+
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals("order2 reject", describe(kitchen.getActionLog()).get(2));
+    }
+
+    @Test
+    void testBlockRejectsWhenCourierArrivesFirst() throws InterruptedException {
+        AdmissionControl admission = admission(BackpressurePolicy.BLOCK, 16, 0);
+        admission.start();
+        for (int i = 0; i < 3; i++) {
+            admission.placeOrder(order("order" + i));
+        }
+        awaitActions(2);
+        TimeUnit.MILLISECONDS.sleep(50);
+        // Still waiting for room, the courier leaves without it
+        admission.pickupOrder("order2");
+        admission.stop();
+
+        assertEquals(List.of("order0 place", "order1 place", "order2 reject"), describe(kitchen.getActionLog()));
+    }
+
+    @Test
+    void testForceEvictDiscardsToPlace() throws InterruptedException {
+        AdmissionControl admission = admission(BackpressurePolicy.FORCE_EVICT, 16, 0);
+        admission.start();
+        for (int i = 0; i < 3; i++) {
+            admission.placeOrder(order("order" + i));
+        }
+        awaitActions(4);
+        admission.stop();
+
+        assertEquals(List.of("order0 place", "order1 place", "order1 discard", "order2 place"),
+                describe(kitchen.getActionLog()));
+        assertEquals(3, admission.getMetrics().getAdmitted());
+        assertEquals(0, admission.getMetrics().getRejected());
+    }
+
+    @Test
+    void testPickupDelayReachesPlacementStrategy() throws InterruptedException {
+        // An order without a delay assumes a pickup after 1000s, past its 300s on room
+        kitchen.setPlacementStrategy(PlacementStrategy.PICKUP_AWARE, 1_000_000);
+        AdmissionControl admission = admission(BackpressurePolicy.FORCE_EVICT, 16, 0);
+        admission.start();
+        admission.placeOrder(order("order0"), 1_000);
+        admission.placeOrder(order("order1"));
+        awaitActions(2);
+        admission.stop();
+
+        assertTrue(kitchen.getRoomShelf().containsOrder("order0"));
+        assertTrue(kitchen.getHotShelf().containsOrder("order1"));
+    }
+
+    @Test
+    void testDirectPlacementCountsDroppedOrder() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i < 2, kitchen.placeOrder(order("order" + i)));
+        }
+        assertEquals(1, kitchen.getMetrics().getDroppedOrders());
+    }
+
+    private AdmissionControl admission(BackpressurePolicy policy, int capacity, long retryDeadlineMillis) {
+        return new AdmissionControl(kitchen, policy, EvictionPolicyType.LEAST_FRESHNESS.create(5_000, 1),
+                capacity, 1, retryDeadlineMillis);
+    }
+
+    private static Order order(String id) {
+        return new Order(id, "food", Temperature.HOT, 600);
+    }
+
+    private void awaitActions(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (kitchen.getActionLog().size() < count && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertEquals(count, kitchen.getActionLog().size());
+    }
+
+    private void awaitAction(String action) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!describe(kitchen.getActionLog()).contains(action) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertTrue(describe(kitchen.getActionLog()).contains(action));
+    }
+
+    private static List<String> describe(List<Action> actions) {
+        return actions.stream().map(action -> action.getId() + " " + action.getAction()).toList();
+    }
+}
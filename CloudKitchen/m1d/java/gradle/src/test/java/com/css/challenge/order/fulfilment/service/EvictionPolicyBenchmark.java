@@ -0,0 +1,46 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays the {@link SeededOrderStream} against undersized shelves with every eviction policy and
+ * reports the waste of each. A policy takes a fraction of a second instead of the 20 seconds of
+ * the stream. Run manually.
+ */
+public class EvictionPolicyBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EvictionPolicyBenchmark.class);
+    private static final long RATE = 50;
+
+    private final SeededOrderStream stream = new SeededOrderStream();
+
+    public void run(EvictionPolicyType policyType) {
+        long start = System.nanoTime();
+        SeededOrderStream.Waste waste = stream.replay(RATE, clock -> new OrderFulfilmentService(
+                ShelfRegistry.builder(ShelfImplementation.SYNCHRONIZED)
+                        .shelf(TemperatureZone.HOT, 4)
+                        .shelf(TemperatureZone.COLD, 4)
+                        .shelf(TemperatureZone.ROOM, 8)
+                        .evictionPolicy(policyType.create((SeededOrderStream.MIN + SeededOrderStream.MAX) / 2,
+                                SeededOrderStream.SEED))
+                        .clock(clock)
+                        .build()),
+                (orderFulfilmentService, order, pickupDelay) -> orderFulfilmentService.placeOrder(order));
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        LOGGER.info("{} discarded {} dropped {} picked up {} waste/1000 {} simulated {} ms in {} ms",
+                policyType, waste.discarded(), waste.dropped(), waste.pickedUp(), waste.perThousand(),
+                waste.simulatedMillis(), String.format("%.1f", millis));
+    }
+
+    public static void main(String[] args) {
+        EvictionPolicyBenchmark benchmark = new EvictionPolicyBenchmark();
+        for (EvictionPolicyType policyType : EvictionPolicyType.values()) {
+            benchmark.run(policyType);
+        }
+    }
+}
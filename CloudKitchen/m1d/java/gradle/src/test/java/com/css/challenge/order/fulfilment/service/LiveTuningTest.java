@@ -0,0 +1,90 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.configuration.AppConfig;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveTuningTest {
+
+    private final AppConfig config = AppConfig.getInstance();
+    private Path directory;
+    private Path file;
+    private ShelfRegistry shelfRegistry;
+    private ExpirySweeper expirySweeper;
+    private LiveTuning liveTuning;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("config");
+        file = directory.resolve("application.properties");
+        shelfRegistry = ShelfRegistry.standard(2, 2, 4, ShelfImplementation.PRIMITIVE);
+        expirySweeper = new ExpirySweeper(new OrderFulfilmentService(shelfRegistry), 1000L, 64);
+        liveTuning = new LiveTuning(List.of(shelfRegistry), null, expirySweeper, 6000L, 1L);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        expirySweeper.stop();
+        Files.writeString(file, "");
+        config.reload(file);
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testAppliesChangedSettings() throws IOException {
+        shelfRegistry.put(TemperatureZone.HOT, "1", new Order("1", "Food1", "hot", 10));
+        shelfRegistry.put(TemperatureZone.HOT, "2", new Order("2", "Food2", "hot", 10));
+
+        reload("shelf.capacity.hot=1\nshelf.capacity.room=8\nshelf.eviction=EARLIEST_EXPIRY\n"
+                + "sweep.interval.ms=250\nsweep.batch.size=16\n");
+
+        ShelfStorage hotShelf = shelfRegistry.getShelves(TemperatureZone.HOT)[0];
+        assertEquals(1, hotShelf.getCapacity());
+        assertEquals(2, hotShelf.size());
+        assertEquals(2, shelfRegistry.getShelves(TemperatureZone.COLD)[0].getCapacity());
+        assertEquals(8, shelfRegistry.getShelves(TemperatureZone.ROOM)[0].getCapacity());
+        assertEquals(250L, expirySweeper.getIntervalMillis());
+        assertEquals(16, expirySweeper.getBatchSize());
+        assertEquals(EvictionPolicyType.EARLIEST_EXPIRY, liveTuning.getSettings().eviction());
+        // The policy of the shelves now discards the order closest to expiry
+        assertEquals("1", hotShelf.evictStaleOrder());
+    }
+
+    @Test
+    void testInvalidConfigurationKeepsRunningSettings() throws IOException {
+        reload("shelf.capacity.hot=3\nsweep.interval.ms=250\n");
+        KitchenSettings applied = liveTuning.getSettings();
+
+        reload("shelf.capacity.hot=-1\nsweep.interval.ms=500\n");
+        assertSame(applied, liveTuning.getSettings());
+        assertEquals(3, shelfRegistry.getShelves(TemperatureZone.HOT)[0].getCapacity());
+        assertEquals(250L, expirySweeper.getIntervalMillis());
+
+        reload("shelf.eviction=NEWEST\n");
+        assertSame(applied, liveTuning.getSettings());
+    }
+
+    private void reload(String properties) throws IOException {
+        Files.writeString(file, properties);
+        config.reload(file);
+        liveTuning.accept(config);
+    }
+}
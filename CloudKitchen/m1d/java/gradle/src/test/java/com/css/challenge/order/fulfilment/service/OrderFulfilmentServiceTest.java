@@ -5,9 +5,21 @@ import org.junit.jupiter.api.Test;
 import com.css.challenge.client.Action;
 import com.css.challenge.client.Order;
 import com.css.challenge.client.Temperature;
-
-
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.metrics.FulfilmentMetrics;
+import com.css.challenge.order.fulfilment.metrics.ShelfMetrics;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,7 +79,7 @@ public class OrderFulfilmentServiceTest {
         service.placeOrder(new Order("orderId7", "orderId7",Temperature.COLD, 10));
         service.pickupOrder("orderId4");
 
-        Thread.sleep(1000L);
+        Thread.sleep(1100L);
         service.placeOrder(new Order("orderId8", "orderId8",Temperature.HOT, 10));
         service.placeOrder(new Order("orderId9", "orderId9",Temperature.HOT, 10));
 
@@ -82,6 +94,54 @@ public class OrderFulfilmentServiceTest {
         assertTrue(roomShelfContainsOrder("orderId10"));
     }
 
+    @Test
+    public void testPlaceOrder_RoomShelf_NoSpace_MoveBeforeExpiry() {
+        service.placeOrder(new Order("orderId22", "orderId22", Temperature.HOT, 20));
+        service.placeOrder(new Order("orderId23", "orderId23", Temperature.HOT, 20));
+        service.placeOrder(new Order("orderId24", "orderId24", Temperature.HOT, 20));
+        service.placeOrder(new Order("orderId25", "orderId25", Temperature.HOT, 10));
+        service.pickupOrder("orderId22");
+
+        // Nothing has expired, the hot order closest to expiry moves back to the hot shelf
+        service.placeOrder(new Order("orderId26", "orderId26", Temperature.COLD, 20));
+        service.placeOrder(new Order("orderId27", "orderId27", Temperature.COLD, 20));
+        service.placeOrder(new Order("orderId28", "orderId28", Temperature.COLD, 20));
+
+        List<Action> actionLog = service.getActionLog();
+        assertEquals(1, actionLog.stream().filter(action -> Action.MOVE.equals(action.getAction())).count());
+        assertEquals(0, actionLog.stream().filter(action -> Action.DISCARD.equals(action.getAction())).count());
+        assertTrue(hotShelfContainsOrder("orderId25"));
+        assertTrue(roomShelfContainsOrder("orderId28"));
+    }
+
+    @Test
+    public void testPlaceOrder_RoomShelf_NoSpace_ExpiredNotMoved() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            DiscreteEventScheduler events = new DiscreteEventScheduler(0L);
+            ShelfRegistry shelfRegistry = ShelfRegistry.standard(1, 1, 1, shelfImplementation);
+            shelfRegistry.setClock(events.getClock());
+            OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(shelfRegistry);
+            events.schedule(0, () -> {
+                orderFulfilmentService.placeOrder(new Order("cold", "cold", Temperature.COLD, 10));
+                // 2s of freshness is 1s on room
+                orderFulfilmentService.placeOrder(new Order("expiring", "expiring", Temperature.COLD, 2));
+                orderFulfilmentService.pickupOrder("cold");
+            });
+            // The cold shelf has space but the only order that could go back to it has expired
+            events.schedule(1500, () -> {
+                orderFulfilmentService.placeOrder(new Order("hot", "hot", Temperature.HOT, 10));
+                orderFulfilmentService.placeOrder(new Order("overflow", "overflow", Temperature.HOT, 10));
+            });
+            events.run();
+
+            assertEquals(List.of("place cold", "place expiring", "pickup cold", "place hot",
+                    "discard expiring", "place overflow"), describe(orderFulfilmentService.getActionLog()),
+                    shelfImplementation.name());
+            assertFalse(orderFulfilmentService.getColdShelf().containsOrder("expiring"));
+            assertTrue(orderFulfilmentService.getRoomShelf().containsOrder("overflow"));
+        }
+    }
+
     @Test
     public void testPlaceOrder_RoomShelf_NoSpace_Evict() throws InterruptedException {
         // Fill room shelf with orders
@@ -90,7 +150,7 @@ public class OrderFulfilmentServiceTest {
 
         service.placeOrder(new Order("orderId6", "orderId6",Temperature.COLD, 5));
         service.placeOrder(new Order("orderId7", "orderId7",Temperature.COLD, 10));
-        Thread.sleep(2000L);
+        Thread.sleep(2100L);
 
         service.placeOrder(new Order("orderId8", "orderId8",Temperature.HOT, 8));
         service.placeOrder(new Order("orderId9", "orderId9",Temperature.HOT, 3));
@@ -106,6 +166,35 @@ public class OrderFulfilmentServiceTest {
         assertEquals("orderId6", actionLog.get(6).getId());
     }
 
+    @Test
+    public void testPlaceOrder_ConcurrentOverflowIsNeverDropped() throws InterruptedException {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            ShelfRegistry registry = ShelfRegistry.standard(1, 1, 8, shelfImplementation);
+            registry.setEvictionPolicy(EvictionPolicyType.EARLIEST_EXPIRY.create(5000, 42));
+            OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(registry);
+            int threads = 4;
+            int perThread = 500;
+            Thread[] placers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int placer = t;
+                placers[t] = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String orderId = placer + "-" + i;
+                        orderFulfilmentService.placeOrder(new Order(orderId, orderId, Temperature.HOT, 100 + i));
+                    }
+                });
+                placers[t].start();
+            }
+            for (Thread placer : placers) {
+                placer.join();
+            }
+            // Every order takes the slot of the order it discarded, none is left without one
+            assertEquals(0, orderFulfilmentService.getMetrics().getDroppedOrders(), shelfImplementation.name());
+            assertEquals(threads * perThread, orderFulfilmentService.getActionLog().stream()
+                    .filter(action -> Action.PLACE.equals(action.getAction())).count(), shelfImplementation.name());
+        }
+    }
+
     @Test
     public void testPickupOrder_Success() {
         Order hotOrder = new Order("orderId14", "orderId14", Temperature.HOT, 10);
@@ -129,6 +218,193 @@ public class OrderFulfilmentServiceTest {
         assertEquals(0, actionLog.size());
     }
 
+    @Test
+    public void testSweepExpiredOrders() throws InterruptedException {
+        service.placeOrder(new Order("orderId16", "orderId16", Temperature.HOT, 1));
+        service.placeOrder(new Order("orderId17", "orderId17", Temperature.COLD, 1));
+        service.placeOrder(new Order("orderId18", "orderId18", Temperature.ROOM, 10));
+
+        Thread.sleep(1100L);
+        assertEquals(2, service.sweepExpiredOrders(1));
+
+        List<Action> actionLog = service.getActionLog();
+        assertEquals(5, actionLog.size());
+        assertEquals(2, actionLog.stream().filter(action -> Action.DISCARD.equals(action.getAction())).count());
+        assertFalse(hotShelfContainsOrder("orderId16"));
+        assertFalse(coldShelfContainsOrder("orderId17"));
+        assertTrue(roomShelfContainsOrder("orderId18"));
+
+        // Already discarded orders are not picked up
+        service.pickupOrder("orderId16");
+        assertEquals(5, service.getActionLog().size());
+    }
+
+    @Test
+    public void testSweepRacingPlacement() throws InterruptedException {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(8, 8, 8, shelfImplementation);
+            AtomicBoolean placing = new AtomicBoolean(true);
+            Thread sweeper = new Thread(() -> {
+                while (placing.get()) {
+                    orderFulfilmentService.sweepExpiredOrders(4);
+                }
+            });
+            sweeper.start();
+            String[] temperatures = {Temperature.HOT, Temperature.COLD, Temperature.ROOM};
+            Thread[] placers = new Thread[4];
+            for (int t = 0; t < placers.length; t++) {
+                int placer = t;
+                placers[t] = new Thread(() -> {
+                    for (int i = 0; i < 5000; i++) {
+                        // Without freshness the order expires as soon as it is on the shelf
+                        String orderId = placer + "-" + i;
+                        orderFulfilmentService.placeOrder(new Order(orderId, orderId, temperatures[i % 3], 0));
+                    }
+                });
+                placers[t].start();
+            }
+            for (Thread placer : placers) {
+                placer.join();
+            }
+            placing.set(false);
+            sweeper.join();
+            Thread.sleep(5L);
+            orderFulfilmentService.sweepExpiredOrders(32);
+
+            // Every placed order was discarded after its placement and left no location behind
+            assertEquals(0, orderFulfilmentService.locatedOrders(), shelfImplementation.name());
+            Map<String, Long> placedAt = new HashMap<>();
+            Map<String, Long> discardedAt = new HashMap<>();
+            for (Action action : orderFulfilmentService.getActionLog()) {
+                if (Action.PLACE.equals(action.getAction())) {
+                    placedAt.put(action.getId(), action.getTimestamp());
+                } else if (Action.DISCARD.equals(action.getAction())) {
+                    discardedAt.put(action.getId(), action.getTimestamp());
+                }
+            }
+            assertEquals(placedAt.keySet(), discardedAt.keySet(), shelfImplementation.name());
+            for (Map.Entry<String, Long> discard : discardedAt.entrySet()) {
+                assertTrue(placedAt.get(discard.getKey()) <= discard.getValue(), shelfImplementation.name());
+            }
+        }
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        service.placeOrder(new Order("orderId19", "orderId19", Temperature.HOT, 1));
+        service.placeOrder(new Order("orderId20", "orderId20", Temperature.ROOM, 10));
+        service.pickupOrder("orderId20");
+        Thread.sleep(1100L);
+        service.sweepExpiredOrders(4);
+        service.pickupOrder("orderId19");
+
+        FulfilmentMetrics metrics = service.getMetrics();
+        assertEquals(2, metrics.getPlaceCount());
+        assertEquals(2, metrics.getPickupCount());
+        assertEquals(1, metrics.getAlreadyDiscardedPickups());
+        assertTrue(metrics.getPlaceP99Nanos() >= metrics.getPlaceP50Nanos());
+
+        ShelfMetrics hot = metrics.shelf(service.getHotShelf());
+        assertEquals("hot-0", hot.getName());
+        assertEquals(1, hot.getPlaces());
+        assertEquals(1, hot.getDiscards());
+        assertEquals(0, hot.getPickups());
+        assertEquals(0, hot.getOccupancy());
+        ShelfMetrics room = metrics.shelf(service.getRoomShelf());
+        assertEquals(1, room.getPlaces());
+        assertEquals(1, room.getPickups());
+        assertTrue(metrics.report().contains("room-0 occupancy=0/2"));
+
+        metrics.registerMBeans();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(1L, server.getAttribute(new ObjectName("com.css.challenge:type=Shelf,name=hot-0"), "Places"));
+        metrics.unregisterMBeans();
+        assertFalse(server.isRegistered(new ObjectName("com.css.challenge:type=Fulfilment")));
+    }
+
+    @Test
+    public void testPlaceOrder_FrozenFallbackChain() {
+        ShelfRegistry registry = ShelfRegistry.parse("hot=1,cold=1,frozen=1,room=1", "frozen=cold>room",
+                ShelfImplementation.SYNCHRONIZED);
+        OrderFulfilmentService frozenService = new OrderFulfilmentService(registry);
+
+        frozenService.placeOrder(new Order("orderId19", "orderId19", Temperature.FROZEN, 10));
+        frozenService.placeOrder(new Order("orderId20", "orderId20", Temperature.FROZEN, 10));
+        frozenService.placeOrder(new Order("orderId21", "orderId21", Temperature.FROZEN, 10));
+
+        assertTrue(registry.getShelves(TemperatureZone.FROZEN)[0].containsOrder("orderId19"));
+        assertTrue(registry.getShelves(TemperatureZone.COLD)[0].containsOrder("orderId20"));
+        assertTrue(registry.getShelves(TemperatureZone.ROOM)[0].containsOrder("orderId21"));
+        assertEquals(3, frozenService.getActionLog().size());
+
+        frozenService.pickupOrder("orderId20");
+        assertFalse(registry.getShelves(TemperatureZone.COLD)[0].containsOrder("orderId20"));
+        assertEquals(4, frozenService.getActionLog().size());
+    }
+
+    @Test
+    public void testPlaceOrders_MatchesSequentialPlacement() {
+        for (ShelfImplementation implementation : ShelfImplementation.values()) {
+            OrderFulfilmentService sequential = batchScenarioService(implementation);
+            OrderFulfilmentService batched = batchScenarioService(implementation);
+            // d moves b back to the free hot shelf, e finds no space or move and evicts d, f goes to cold
+            List<Order> burst = List.of(new Order("d", "d", Temperature.ROOM, 10),
+                    new Order("e", "e", Temperature.ROOM, 100),
+                    new Order("f", "f", Temperature.COLD, 100));
+            burst.forEach(sequential::placeOrder);
+            batched.placeOrders(burst);
+
+            assertEquals(describe(sequential.getActionLog()), describe(batched.getActionLog()), implementation.name());
+            for (String orderId : List.of("b", "d", "e", "f")) {
+                for (int shelf = 0; shelf < 3; shelf++) {
+                    assertEquals(sequential.getShelfRegistry().getAllShelves().get(shelf).containsOrder(orderId),
+                            batched.getShelfRegistry().getAllShelves().get(shelf).containsOrder(orderId));
+                }
+            }
+            assertTrue(batched.getHotShelf().containsOrder("b"));
+            assertTrue(batched.getRoomShelf().containsOrder("e"));
+            assertEquals(sequential.getMetrics().getPlaceCount(), batched.getMetrics().getPlaceCount());
+        }
+    }
+
+    @Test
+    public void testPlaceOrder_PickupAware() {
+        service.setPlacementStrategy(PlacementStrategy.PICKUP_AWARE, 8000);
+        // 20s of freshness is 10s on room, enough for a pickup in 5s, 14s is not enough for the 8s estimate
+        service.placeOrder(new Order("longLived", "longLived", Temperature.HOT, 20), 5000);
+        service.placeOrder(new Order("shortLived", "shortLived", Temperature.HOT, 6), 5000);
+        service.placeOrder(new Order("estimated", "estimated", Temperature.COLD, 14));
+        service.placeOrder(new Order("roomOrder", "roomOrder", Temperature.ROOM, 20), 1000);
+
+        assertTrue(roomShelfContainsOrder("longLived"));
+        assertTrue(hotShelfContainsOrder("shortLived"));
+        assertTrue(coldShelfContainsOrder("estimated"));
+        assertTrue(roomShelfContainsOrder("roomOrder"));
+
+        // Room is full, a long-lived order falls back to its ideal shelf
+        service.placeOrder(new Order("overflow", "overflow", Temperature.HOT, 20), 1000);
+        assertTrue(hotShelfContainsOrder("overflow"));
+
+        service.setPlacementStrategy(PlacementStrategy.GREEDY, 8000);
+        service.pickupOrder("roomOrder");
+        service.placeOrder(new Order("greedy", "greedy", Temperature.COLD, 100), 1000);
+        assertTrue(coldShelfContainsOrder("greedy"));
+    }
+
+    private static OrderFulfilmentService batchScenarioService(ShelfImplementation implementation) {
+        ShelfRegistry registry = ShelfRegistry.standard(1, 1, 1, implementation);
+        registry.setEvictionPolicy(EvictionPolicyType.EARLIEST_EXPIRY.create(5000, 42));
+        OrderFulfilmentService service = new OrderFulfilmentService(registry);
+        service.placeOrder(new Order("a", "a", Temperature.HOT, 100));
+        service.placeOrder(new Order("b", "b", Temperature.HOT, 100));
+        service.pickupOrder("a");
+        return service;
+    }
+
+    private static List<String> describe(List<Action> actions) {
+        return actions.stream().map(action -> action.getAction() + " " + action.getId()).toList();
+    }
+
     // Helper methods
     private boolean hotShelfContainsOrder(String orderId) {
         return service.getHotShelf().containsOrder(orderId);
@@ -0,0 +1,87 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.storage.Shelf;
+import com.css.challenge.order.fulfilment.storage.ShelfStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLocationTest {
+
+    private final Order order = new Order("order1", "Pizza", Temperature.HOT, 300);
+    private final ShelfStorage roomShelf = new Shelf(2, Temperature.ROOM);
+    private final ShelfStorage hotShelf = new Shelf(2, Temperature.HOT);
+
+    @Test
+    void testRemove() {
+        roomShelf.put(order.getId(), order);
+        OrderLocation location = new OrderLocation(roomShelf);
+
+        assertSame(roomShelf, location.remove(order.getId()));
+        assertFalse(roomShelf.containsOrder(order.getId()));
+        assertNull(location.remove(order.getId()));
+    }
+
+    @Test
+    void testBeginMoveFromAnotherShelf() {
+        OrderLocation location = new OrderLocation(roomShelf);
+
+        assertFalse(location.beginMove(hotShelf));
+        assertTrue(location.beginMove(roomShelf));
+        // Only one move at a time
+        assertFalse(location.beginMove(roomShelf));
+        location.endMove(hotShelf);
+        assertSame(hotShelf, location.getShelf());
+    }
+
+    @Test
+    void testRemoveWaitsForMove() throws Exception {
+        roomShelf.put(order.getId(), order);
+        OrderLocation location = new OrderLocation(roomShelf);
+        assertTrue(location.beginMove(roomShelf));
+        hotShelf.put(order.getId(), order);
+
+        CompletableFuture<ShelfStorage> pickup = CompletableFuture.supplyAsync(() -> location.remove(order.getId()));
+        Thread.sleep(50);
+        assertFalse(pickup.isDone());
+        assertTrue(roomShelf.remove(order.getId()));
+        location.endMove(hotShelf);
+
+        assertSame(hotShelf, pickup.get(5, TimeUnit.SECONDS));
+        assertFalse(hotShelf.containsOrder(order.getId()));
+    }
+
+    @Test
+    void testDiscardDuringPlacement() {
+        OrderLocation placed = OrderLocation.placing();
+        assertFalse(placed.beginMove(null));
+        assertTrue(placed.endPlacement(hotShelf));
+        assertSame(hotShelf, placed.getShelf());
+        assertTrue(placed.discard());
+
+        // Discarded before the placement ended, the placement records the discard
+        OrderLocation discarded = OrderLocation.placing();
+        assertFalse(discarded.discard());
+        assertFalse(discarded.endPlacement(hotShelf));
+        assertNull(discarded.getShelf());
+    }
+
+    @Test
+    void testRemoveWaitsForPlacement() throws Exception {
+        OrderLocation location = OrderLocation.placing();
+
+        CompletableFuture<ShelfStorage> pickup = CompletableFuture.supplyAsync(() -> location.remove(order.getId()));
+        Thread.sleep(50);
+        assertFalse(pickup.isDone());
+        hotShelf.put(order.getId(), order);
+        assertTrue(location.endPlacement(hotShelf));
+
+        assertSame(hotShelf, pickup.get(5, TimeUnit.SECONDS));
+        assertFalse(hotShelf.containsOrder(order.getId()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.OrderReader;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderSourceTest {
+
+    @Test
+    void testOrdersArriveAtTheRate() {
+        OrderSource source = OrderSource.of(List.of(order("a1"), order("a2")), 500);
+
+        assertTrue(source.hasNext());
+        assertEquals(0L, source.nextGapNanos());
+        assertEquals("a1", source.next().getId());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), source.nextGapNanos());
+        assertEquals("a2", source.next().getId());
+        assertFalse(source.hasNext());
+    }
+
+    @Test
+    void testOrderServicePlacesStreamedOrders() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100; i++) {
+            json.append(i > 0 ? "," : "")
+                    .append("{\"id\":\"a").append(i).append("\",\"name\":\"Soup\",\"temp\":\"hot\",\"freshness\":300}");
+        }
+        json.append("]");
+        DiscreteEventScheduler events = new DiscreteEventScheduler(0L);
+        ShelfRegistry shelfRegistry = ShelfRegistry.standard(100, 10, 10, ShelfImplementation.SYNCHRONIZED);
+        shelfRegistry.setClock(events.getClock());
+        OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(shelfRegistry);
+        try (OrderReader reader = new OrderReader(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)))) {
+            OrderService orderService = new OrderService(OrderSource.of(reader, 10), 1_000, 2_000,
+                    orderFulfilmentService, events, 3);
+            orderService.startProcessing();
+            orderService.waitForCompletion();
+            orderService.stopProcessing();
+
+            assertEquals(100, orderService.getPlacedCount());
+            assertEquals(TimeUnit.MILLISECONDS.toNanos(990), orderService.getPlacementNanos());
+        }
+        List<Action> actions = orderFulfilmentService.getActionLog();
+        assertEquals(200, actions.size());
+        assertEquals(100, actions.stream().filter(action -> action.getAction().equals(Action.PICKUP)).count());
+    }
+
+    @Test
+    void testEmptySourceCompletes() {
+        OrderService orderService = new OrderService(OrderSource.of(List.of(), 10), 0, 0,
+                new OrderFulfilmentService(1, 1, 1), PickupSchedulerType.EXECUTOR);
+        orderService.startProcessing();
+        orderService.waitForCompletion();
+        orderService.stopProcessing();
+
+        assertEquals(0, orderService.getPlacedCount());
+        assertEquals(0, orderService.getPlacementNanos());
+    }
+
+    private static Order order(String id) {
+        return new Order(id, "Soup", "hot", 300);
+    }
+}
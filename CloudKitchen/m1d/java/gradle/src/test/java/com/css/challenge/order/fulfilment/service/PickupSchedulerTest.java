@@ -0,0 +1,87 @@
+package com.css.challenge.order.fulfilment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PickupSchedulerTest {
+
+    @Test
+    void testEveryPickupRunsOnce() throws InterruptedException {
+        for (PickupSchedulerType type : PickupSchedulerType.values()) {
+            int count = 10_000;
+            Set<String> pickedUp = ConcurrentHashMap.newKeySet();
+            CountDownLatch done = new CountDownLatch(count);
+            PickupScheduler scheduler = type.create(2, orderId -> {
+                assertTrue(pickedUp.add(orderId), type + " picked up " + orderId + " twice");
+                done.countDown();
+            });
+            for (int i = 0; i < count; i++) {
+                scheduler.schedule("order" + i, i % 50);
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS), type.name());
+            assertEquals(count, pickedUp.size());
+            scheduler.stop();
+            assertEquals(0, scheduler.getPending(), type.name());
+        }
+    }
+
+    @Test
+    void testPickupWaitsForItsDelay() throws InterruptedException {
+        for (PickupSchedulerType type : PickupSchedulerType.values()) {
+            List<String> pickedUp = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(2);
+            PickupScheduler scheduler = type.create(1, orderId -> {
+                pickedUp.add(orderId);
+                done.countDown();
+            });
+            long start = System.nanoTime();
+            scheduler.schedule("late", 200);
+            scheduler.schedule("early", 0);
+            assertTrue(done.await(5, TimeUnit.SECONDS), type.name());
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200), type.name());
+            assertEquals(List.of("early", "late"), pickedUp);
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void testStopRunsPendingPickups() {
+        for (PickupSchedulerType type : PickupSchedulerType.values()) {
+            Set<String> pickedUp = ConcurrentHashMap.newKeySet();
+            PickupScheduler scheduler = type.create(2, pickedUp::add);
+            for (int i = 0; i < 100; i++) {
+                scheduler.schedule("order" + i, 100 + i);
+            }
+            scheduler.stop();
+            assertEquals(100, pickedUp.size(), type.name());
+            assertEquals(0, scheduler.getPending(), type.name());
+        }
+    }
+
+    @Test
+    void testResizeKeepsPendingPickups() throws InterruptedException {
+        for (PickupSchedulerType type : PickupSchedulerType.values()) {
+            int count = 1_000;
+            CountDownLatch done = new CountDownLatch(count);
+            PickupScheduler scheduler = type.create(1, orderId -> done.countDown());
+            for (int i = 0; i < count; i++) {
+                scheduler.schedule("order" + i, i % 100);
+                if (i == count / 3) {
+                    scheduler.setThreads(4);
+                } else if (i == 2 * count / 3) {
+                    scheduler.setThreads(2);
+                }
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS), type.name());
+            scheduler.stop();
+        }
+    }
+}
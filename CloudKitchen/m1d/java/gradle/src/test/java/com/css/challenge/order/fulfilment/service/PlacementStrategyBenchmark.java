@@ -0,0 +1,51 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.TemperatureZone;
+import com.css.challenge.order.fulfilment.storage.EvictionPolicyType;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replays the {@link SeededOrderStream} against the default shelves, busy enough to overflow, with
+ * every placement strategy and reports the waste of each, like {@link EvictionPolicyBenchmark}.
+ * PICKUP_AWARE runs once with the exact pickup delay of every order and once with only the latest
+ * pickup of the range as estimate. Run manually.
+ */
+public class PlacementStrategyBenchmark {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PlacementStrategyBenchmark.class);
+    private static final long RATE = 100;
+
+    private final SeededOrderStream stream = new SeededOrderStream();
+
+    /** Runs the stream, with exactDelays false the service only knows the estimate of MAX. */
+    public void run(PlacementStrategy placementStrategy, boolean exactDelays) {
+        SeededOrderStream.Waste waste = stream.replay(RATE, clock -> {
+            OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(
+                    ShelfRegistry.builder(ShelfImplementation.SYNCHRONIZED)
+                            .shelf(TemperatureZone.HOT, 6)
+                            .shelf(TemperatureZone.COLD, 6)
+                            .shelf(TemperatureZone.ROOM, 12)
+                            .evictionPolicy(EvictionPolicyType.EARLIEST_EXPIRY.create(
+                                    (SeededOrderStream.MIN + SeededOrderStream.MAX) / 2, SeededOrderStream.SEED))
+                            .clock(clock)
+                            .build());
+            orderFulfilmentService.setPlacementStrategy(placementStrategy, SeededOrderStream.MAX);
+            return orderFulfilmentService;
+        }, exactDelays
+                ? OrderFulfilmentService::placeOrder
+                : (orderFulfilmentService, order, pickupDelay) -> orderFulfilmentService.placeOrder(order));
+
+        LOGGER.info("{} {} discarded {} dropped {} moved {} picked up {} waste/1000 {}",
+                placementStrategy, exactDelays ? "exact" : "estimated", waste.discarded(), waste.dropped(),
+                waste.moved(), waste.pickedUp(), waste.perThousand());
+    }
+
+    public static void main(String[] args) {
+        PlacementStrategyBenchmark benchmark = new PlacementStrategyBenchmark();
+        benchmark.run(PlacementStrategy.GREEDY, true);
+        benchmark.run(PlacementStrategy.PICKUP_AWARE, true);
+        benchmark.run(PlacementStrategy.PICKUP_AWARE, false);
+    }
+}
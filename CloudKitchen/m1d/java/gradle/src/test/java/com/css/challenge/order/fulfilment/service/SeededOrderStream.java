@@ -0,0 +1,81 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.simulation.DiscreteEventScheduler;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Seeded stream of orders and pickup delays shared by the benchmarks that compare the waste of a
+ * kitchen. The stream is replayed in the virtual time of a {@link DiscreteEventScheduler}, so a run
+ * takes a fraction of a second instead of the seconds of the stream, and every run sees exactly the
+ * same interleaving of placements and pickups.
+ */
+final class SeededOrderStream {
+    static final long MIN = 1000;
+    static final long MAX = 4000;
+    static final long SEED = 42;
+    private static final String[] TEMPERATURES = {Temperature.HOT, Temperature.COLD, Temperature.ROOM};
+    private static final int ORDERS = 400;
+
+    @FunctionalInterface
+    interface Placement {
+        void place(OrderFulfilmentService orderFulfilmentService, Order order, long pickupDelayMillis);
+    }
+
+    /** Actions of a replay, dropped orders are the ones never placed. */
+    record Waste(int placed, int moved, int discarded, int pickedUp, int dropped, long simulatedMillis) {
+        String perThousand() {
+            return String.format("%.1f", (discarded + dropped) * 1000.0 / ORDERS);
+        }
+    }
+
+    private final List<Order> orders = new ArrayList<>();
+    private final long[] pickupDelays = new long[ORDERS];
+
+    SeededOrderStream() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < ORDERS; i++) {
+            String temp = TEMPERATURES[random.nextInt(TEMPERATURES.length)];
+            orders.add(new Order("order-" + i, "food-" + i, temp, 2 + random.nextInt(19)));
+            pickupDelays[i] = MIN + (long) (random.nextDouble() * (MAX - MIN));
+        }
+    }
+
+    /**
+     * Places an order every rateMillis with placement on the kitchen built on the virtual clock and
+     * picks it up after its delay.
+     */
+    Waste replay(long rateMillis, Function<Clock, OrderFulfilmentService> kitchen, Placement placement) {
+        DiscreteEventScheduler events = new DiscreteEventScheduler(0L);
+        OrderFulfilmentService orderFulfilmentService = kitchen.apply(events.getClock());
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = orders.get(i);
+            long pickupDelay = pickupDelays[i];
+            events.schedule(i * rateMillis, () -> placement.place(orderFulfilmentService, order, pickupDelay));
+            events.schedule(i * rateMillis + pickupDelay, () -> orderFulfilmentService.pickupOrder(order.getId()));
+        }
+        events.run();
+
+        int placed = 0;
+        int moved = 0;
+        int discarded = 0;
+        int pickedUp = 0;
+        for (Action action : orderFulfilmentService.getActionLog()) {
+            switch (action.getAction()) {
+                case Action.PLACE -> placed++;
+                case Action.MOVE -> moved++;
+                case Action.DISCARD -> discarded++;
+                case Action.PICKUP -> pickedUp++;
+                default -> { }
+            }
+        }
+        return new Waste(placed, moved, discarded, pickedUp, ORDERS - placed, events.getClock().millis());
+    }
+}
@@ -0,0 +1,84 @@
+package com.css.challenge.order.fulfilment.service;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedOrderFulfilmentTest {
+
+    @Test
+    void testOrdersAndPickupsRouteToOwningShard() {
+        ShardedOrderFulfilment fulfilment = new ShardedOrderFulfilment(4, ShardKey.ORDER_ID,
+                () -> ShelfRegistry.standard(50, 50, 50, ShelfImplementation.SYNCHRONIZED));
+        int[] perShard = new int[4];
+        for (int i = 0; i < 100; i++) {
+            String id = "order" + i;
+            fulfilment.placeOrder(new Order(id, "food", Temperature.HOT, 60));
+            int shard = fulfilment.shardOf(id);
+            perShard[shard]++;
+            assertTrue(fulfilment.getShard(shard).getHotShelf().containsOrder(id));
+        }
+        for (int shard = 0; shard < 4; shard++) {
+            assertEquals(perShard[shard], fulfilment.getShard(shard).getHotShelf().size());
+            assertTrue(perShard[shard] > 0, "shard " + shard + " got no orders");
+        }
+
+        fulfilment.pickupOrder("order7");
+        assertFalse(fulfilment.getShard(fulfilment.shardOf("order7")).getHotShelf().containsOrder("order7"));
+        List<Action> actions = fulfilment.getActionLog();
+        assertEquals(101, actions.size());
+        for (int i = 1; i < actions.size(); i++) {
+            assertTrue(actions.get(i - 1).getTimestamp() <= actions.get(i).getTimestamp());
+        }
+        assertEquals(Action.PICKUP, actions.get(100).getAction());
+    }
+
+    @Test
+    void testKitchenKeyKeepsKitchenOnOneShard() {
+        ShardedOrderFulfilment fulfilment = new ShardedOrderFulfilment(3, ShardKey.KITCHEN,
+                () -> ShelfRegistry.standard(50, 50, 50, ShelfImplementation.SYNCHRONIZED));
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            String id = "kitchen" + i % 5 + ":order" + i;
+            orders.add(new Order(id, "food", Temperature.ROOM, 60));
+        }
+        fulfilment.placeOrders(orders);
+
+        for (int kitchen = 0; kitchen < 5; kitchen++) {
+            assertEquals(fulfilment.shardOf("kitchen" + kitchen + ":a"), fulfilment.shardOf("kitchen" + kitchen + ":b"));
+        }
+        Map<String, List<Action>> byKitchen = fulfilment.getActionLogsByKitchen();
+        assertEquals(5, byKitchen.size());
+        for (int kitchen = 0; kitchen < 5; kitchen++) {
+            List<Action> actions = byKitchen.get("kitchen" + kitchen);
+            assertEquals(12, actions.size());
+            for (Action action : actions) {
+                assertEquals("kitchen" + kitchen, ShardKey.kitchenOf(action.getId()));
+            }
+        }
+        assertEquals("", ShardKey.kitchenOf("order1"));
+    }
+
+    @Test
+    void testOverflowStaysWithinShard() {
+        ShardedOrderFulfilment fulfilment = new ShardedOrderFulfilment(2, ShardKey.ORDER_ID,
+                () -> ShelfRegistry.standard(1, 1, 1, ShelfImplementation.SYNCHRONIZED));
+        for (int i = 0; i < 20; i++) {
+            fulfilment.placeOrder(new Order("order" + i, "food", Temperature.HOT, 60));
+        }
+        for (int shard = 0; shard < 2; shard++) {
+            OrderFulfilmentService kitchen = fulfilment.getShard(shard);
+            assertTrue(kitchen.getHotShelf().size() <= 1);
+            assertTrue(kitchen.getRoomShelf().size() <= 1);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.css.challenge.order.fulfilment.simulation;
+
+import com.css.challenge.client.Action;
+import com.css.challenge.client.Order;
+import com.css.challenge.client.Temperature;
+import com.css.challenge.order.fulfilment.service.OrderFulfilmentService;
+import com.css.challenge.order.fulfilment.service.OrderService;
+import com.css.challenge.order.fulfilment.storage.ShelfImplementation;
+import com.css.challenge.order.fulfilment.storage.ShelfRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscreteEventSchedulerTest {
+
+    @Test
+    void testRunsTasksInVirtualTimeOrder() {
+        DiscreteEventScheduler events = new DiscreteEventScheduler(1_000L);
+        List<String> ran = new ArrayList<>();
+        events.schedule(500, () -> ran.add("c@" + events.getClock().millis()));
+        events.schedule(100, () -> {
+            ran.add("a@" + events.getClock().millis());
+            events.schedule(50, () -> ran.add("b@" + events.getClock().millis()));
+        });
+        // Same time as the task above, runs after it
+        events.schedule(500, () -> ran.add("d@" + events.getClock().millis()));
+
+        assertEquals(4, events.run());
+        assertEquals(List.of("a@1100", "b@1150", "c@1500", "d@1500"), ran);
+        assertEquals(1_500L, events.getClock().millis());
+        assertEquals(0, events.getPending());
+    }
+
+    @Test
+    void testSimulationIsReproducibleAndFast() {
+        List<Order> orders = new ArrayList<>();
+        Random random = new Random(7);
+        String[] temperatures = {Temperature.HOT, Temperature.COLD, Temperature.ROOM};
+        for (int i = 0; i < 10_000; i++) {
+            orders.add(new Order("order" + i, "food" + i, temperatures[random.nextInt(3)], 5 + random.nextInt(60)));
+        }
+
+        long start = System.nanoTime();
+        List<String> first = simulate(orders, 42);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        List<String> second = simulate(orders, 42);
+
+        // 10000 orders every 500 ms are more than 80 minutes of wall time
+        assertTrue(elapsedMillis < 5_000, "Simulation took " + elapsedMillis + " ms");
+        assertTrue(first.size() >= orders.size() * 2, "Every order is placed and leaves the shelves");
+        assertEquals(first, second);
+        assertNotEquals(first, simulate(orders, 43));
+    }
+
+    private static List<String> simulate(List<Order> orders, long seed) {
+        DiscreteEventScheduler events = new DiscreteEventScheduler(1_000_000L);
+        ShelfRegistry shelfRegistry = ShelfRegistry.standard(6, 6, 12, ShelfImplementation.SYNCHRONIZED);
+        shelfRegistry.setClock(events.getClock());
+        OrderFulfilmentService orderFulfilmentService = new OrderFulfilmentService(shelfRegistry);
+        OrderService orderService = new OrderService(500, 4_000, 8_000, orders, orderFulfilmentService, events, seed);
+        orderService.startProcessing();
+        orderService.waitForCompletion();
+        orderService.stopProcessing();
+        List<String> actions = new ArrayList<>();
+        for (Action action : orderFulfilmentService.getActionLog()) {
+            actions.add(action.getTimestamp() + " " + action.getId() + " " + action.getAction());
+        }
+        return actions;
+    }
+}
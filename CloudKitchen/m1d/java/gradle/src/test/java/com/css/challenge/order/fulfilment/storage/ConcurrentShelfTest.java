@@ -0,0 +1,106 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentShelfTest {
+
+    private ConcurrentShelf hotShelf;
+    private ConcurrentShelf roomShelf;
+    private Order hotOrder;
+    private Order coldOrder;
+    private Order roomOrder;
+
+    @BeforeEach
+    void setUp() {
+        hotShelf = new ConcurrentShelf(1, "HOT");
+        roomShelf = new ConcurrentShelf(3, "ROOM");
+
+        hotOrder = new Order("1", "Food1", "HOT", 2);
+        coldOrder = new Order("2", "Food2", "COLD", 5);
+        roomOrder = new Order("3", "Food3", "ROOM", 7);
+    }
+
+    @Test
+    void testPutAndRemove() {
+        assertTrue(hotShelf.put(hotOrder.getId(), hotOrder));
+        assertFalse(hotShelf.hasSpace());
+        assertFalse(hotShelf.put(roomOrder.getId(), roomOrder));
+
+        assertTrue(hotShelf.remove(hotOrder.getId()));
+        assertFalse(hotShelf.remove(hotOrder.getId()));
+        assertTrue(hotShelf.hasSpace());
+    }
+
+    @Test
+    void testFindEligibleAndEvict() throws InterruptedException {
+        roomShelf.put(hotOrder.getId(), hotOrder);
+        roomShelf.put(coldOrder.getId(), coldOrder);
+        roomShelf.put(roomOrder.getId(), roomOrder);
+
+        assertNull(roomShelf.findEligibleOrder());
+        assertEquals("", roomShelf.evictStaleOrder());
+
+        Thread.sleep(1100);
+
+        assertEquals(hotOrder.getId(), roomShelf.findEligibleOrder().getId());
+        assertEquals(hotOrder.getId(), roomShelf.evictStaleOrder());
+        assertFalse(roomShelf.containsOrder(hotOrder.getId()));
+        assertEquals("", roomShelf.evictStaleOrder());
+    }
+
+    @Test
+    void testSameExpiryOrdersAreKept() {
+        Order first = new Order("4", "Food4", "ROOM", 7);
+        Order second = new Order("5", "Food5", "ROOM", 7);
+        roomShelf.put(first.getId(), first);
+        roomShelf.put(second.getId(), second);
+
+        assertTrue(roomShelf.remove(first.getId()));
+        assertTrue(roomShelf.remove(second.getId()));
+    }
+
+    @Test
+    void testNeverExceedsCapacityUnderContention() throws InterruptedException {
+        int capacity = 8;
+        ConcurrentShelf shelf = new ConcurrentShelf(capacity, "HOT");
+        AtomicInteger placed = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        String id = thread + "-" + i;
+                        if (shelf.put(id, new Order(id, "Food", "HOT", 10))) {
+                            placed.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(capacity, placed.get());
+        assertFalse(shelf.hasSpace());
+    }
+}
@@ -0,0 +1,71 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvictionPolicyTypeTest {
+
+    // Older order with more time left and a newer one closer to expiry, neither has expired at 1s
+    private ShelfStorage fullShelf(ShelfImplementation shelfImplementation, EvictionPolicyType policyType) {
+        ShelfStorage shelf = shelfImplementation.create(2, "room");
+        shelf.setEvictionPolicy(policyType.create(3000, 7));
+        shelf.setClock(Clock.fixed(Instant.ofEpochMilli(1000), ZoneOffset.UTC));
+        shelf.restore("older", new Order("older", "Food1", "room", 4), 0, 4000);
+        shelf.restore("newer", new Order("newer", "Food2", "room", 2), 1000, 3000);
+        assertFalse(shelf.hasSpace());
+        return shelf;
+    }
+
+    @Test
+    void testExpiredOnlyKeepsFreshOrders() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            ShelfStorage shelf = fullShelf(shelfImplementation, EvictionPolicyType.EXPIRED_ONLY);
+            assertEquals("", shelf.evictStaleOrder(), shelfImplementation.name());
+            assertFalse(shelf.hasSpace());
+        }
+    }
+
+    @Test
+    void testEarliestExpiry() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            ShelfStorage shelf = fullShelf(shelfImplementation, EvictionPolicyType.EARLIEST_EXPIRY);
+            assertEquals("newer", shelf.evictStaleOrder(), shelfImplementation.name());
+            assertTrue(shelf.containsOrder("older"));
+        }
+    }
+
+    @Test
+    void testLeastFreshness() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            ShelfStorage shelf = fullShelf(shelfImplementation, EvictionPolicyType.LEAST_FRESHNESS);
+            assertEquals("older", shelf.evictStaleOrder(), shelfImplementation.name());
+            assertTrue(shelf.containsOrder("newer"));
+        }
+    }
+
+    @Test
+    void testLargestPickupWait() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            // Expected pickup 3s after placement, only the newer order would expire before it
+            ShelfStorage shelf = fullShelf(shelfImplementation, EvictionPolicyType.LARGEST_PICKUP_WAIT);
+            assertEquals("newer", shelf.evictStaleOrder(), shelfImplementation.name());
+        }
+    }
+
+    @Test
+    void testRandomSampleEvictsResident() {
+        for (ShelfImplementation shelfImplementation : ShelfImplementation.values()) {
+            ShelfStorage shelf = fullShelf(shelfImplementation, EvictionPolicyType.RANDOM_SAMPLE);
+            String evicted = shelf.evictStaleOrder();
+            assertTrue(evicted.equals("older") || evicted.equals("newer"), shelfImplementation.name());
+            assertFalse(shelf.containsOrder(evicted));
+            assertTrue(shelf.hasSpace());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimitiveShelfTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrimitiveShelfTest.class);
+
+    private PrimitiveShelf hotShelf;
+    private PrimitiveShelf roomShelf;
+    private Order hotOrder;
+    private Order coldOrder;
+    private Order roomOrder;
+
+    @BeforeEach
+    void setUp() {
+        hotShelf = new PrimitiveShelf(1, "HOT");
+        roomShelf = new PrimitiveShelf(3, "ROOM");
+
+        hotOrder = new Order("1", "Food1", "HOT", 2);
+        coldOrder = new Order("2", "Food2", "COLD", 5);
+        roomOrder = new Order("3", "Food3", "ROOM", 7);
+    }
+
+    @Test
+    void testPutAndRemove() {
+        assertTrue(hotShelf.put(hotOrder.getId(), hotOrder));
+        assertFalse(hotShelf.hasSpace());
+        assertFalse(hotShelf.put(roomOrder.getId(), roomOrder));
+        assertTrue(hotShelf.containsOrder(hotOrder.getId()));
+
+        assertTrue(hotShelf.remove(hotOrder.getId()));
+        assertFalse(hotShelf.remove(hotOrder.getId()));
+        assertFalse(hotShelf.containsOrder(hotOrder.getId()));
+        assertTrue(hotShelf.hasSpace());
+    }
+
+    @Test
+    void testFindEligibleAndEvict() throws InterruptedException {
+        roomShelf.put(hotOrder.getId(), hotOrder);
+        roomShelf.put(coldOrder.getId(), coldOrder);
+        roomShelf.put(roomOrder.getId(), roomOrder);
+
+        assertNull(roomShelf.findEligibleOrder());
+        assertEquals("", roomShelf.evictStaleOrder());
+
+        Thread.sleep(1100);
+
+        assertEquals(hotOrder.getId(), roomShelf.findEligibleOrder().getId());
+        assertEquals(hotOrder.getId(), roomShelf.evictStaleOrder());
+        assertFalse(roomShelf.containsOrder(hotOrder.getId()));
+        assertTrue(roomShelf.containsOrder(coldOrder.getId()));
+        assertTrue(roomShelf.containsOrder(roomOrder.getId()));
+    }
+
+    @Test
+    void testSlotsAreReused() {
+        PrimitiveShelf shelf = new PrimitiveShelf(16, "HOT");
+        Order[] resident = new Order[16];
+        for (int i = 0; i < 10_000; i++) {
+            int slot = i % 16;
+            if (resident[slot] != null) {
+                assertTrue(shelf.remove(resident[slot].getId()));
+            }
+            resident[slot] = new Order("order-" + i, "Food", "HOT", 10 + i % 7);
+            assertTrue(shelf.put(resident[slot].getId(), resident[slot]));
+        }
+        for (Order order : resident) {
+            assertTrue(shelf.containsOrder(order.getId()));
+        }
+        assertFalse(shelf.hasSpace());
+    }
+
+    @Test
+    void testAllocationPerOperation() {
+        double shelfBytes = allocatedBytesPerOperation(new Shelf(1024, "ROOM"));
+        double primitiveBytes = allocatedBytesPerOperation(new PrimitiveShelf(1024, "ROOM"));
+        LOGGER.info("Allocated bytes per put/remove: Shelf {} PrimitiveShelf {}", shelfBytes, primitiveBytes);
+
+        assertTrue(primitiveBytes < 1.0, "PrimitiveShelf allocated " + primitiveBytes + " bytes per operation");
+    }
+
+    @Test
+    void testSetCapacityGrowsAndShrinks() {
+        // Frozen time, the half second the late order lasts on room must not run out
+        roomShelf.setClock(Clock.fixed(Instant.ofEpochSecond(1_000), ZoneOffset.UTC));
+        roomShelf.put(hotOrder.getId(), hotOrder);
+        roomShelf.put(coldOrder.getId(), coldOrder);
+        roomShelf.put(roomOrder.getId(), roomOrder);
+
+        roomShelf.setCapacity(5);
+        assertEquals(5, roomShelf.getCapacity());
+        Order late = new Order("4", "Food4", "HOT", 1);
+        assertTrue(roomShelf.put(late.getId(), late));
+        assertTrue(roomShelf.put("5", new Order("5", "Food5", "ROOM", 9)));
+        assertFalse(roomShelf.put("6", new Order("6", "Food6", "ROOM", 9)));
+        // The index and heaps are rebuilt, the new order expires first
+        assertEquals(late.getId(), roomShelf.findEligibleOrder(late.compact().getZone()).getId());
+        assertTrue(roomShelf.containsOrder(coldOrder.getId()));
+
+        roomShelf.setCapacity(2);
+        assertEquals(5, roomShelf.size());
+        assertFalse(roomShelf.hasSpace());
+        assertTrue(roomShelf.remove(hotOrder.getId()));
+        assertTrue(roomShelf.remove(coldOrder.getId()));
+        assertTrue(roomShelf.remove(roomOrder.getId()));
+        assertFalse(roomShelf.hasSpace());
+        assertTrue(roomShelf.remove(late.getId()));
+        assertTrue(roomShelf.put(late.getId(), late));
+        assertEquals(2, roomShelf.size());
+    }
+
+    private static double allocatedBytesPerOperation(ShelfStorage shelf) {
+        int resident = 1024;
+        int operations = 200_000;
+        Order[] orders = new Order[resident * 2];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order("order-" + i, "Food", i % 3 == 0 ? "ROOM" : "HOT", 10 + i % 50);
+        }
+        // Warm up so that the measured loop runs compiled code
+        churn(shelf, orders, resident, operations);
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        churn(shelf, orders, resident, operations);
+        long after = threadBean.getThreadAllocatedBytes(threadId);
+        return (after - before) / (double) (operations * 2);
+    }
+
+    private static void churn(ShelfStorage shelf, Order[] orders, int resident, int operations) {
+        for (int i = 0; i < operations; i++) {
+            Order removed = orders[i % orders.length];
+            Order placed = orders[(i + resident) % orders.length];
+            shelf.remove(removed.getId());
+            shelf.put(placed.getId(), placed);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShelfImplementationTest {
+
+    @Test
+    void testPutReplacesOrderWithSameKey() {
+        for (ShelfImplementation implementation : ShelfImplementation.values()) {
+            ShelfStorage roomShelf = implementation.create(2, "ROOM");
+            assertTrue(roomShelf.put("1", new Order("1", "Food1", "HOT", 10)));
+            assertTrue(roomShelf.put("2", new Order("2", "Food2", "HOT", 20)));
+
+            // A full shelf still takes the order it already holds, the old one and its index entries are gone
+            assertTrue(roomShelf.put("1", new Order("1", "Food1", "COLD", 10)), implementation.name());
+            assertEquals(2, roomShelf.size(), implementation.name());
+            assertEquals("COLD", roomShelf.findEligibleOrder(TemperatureZone.COLD).getTemp(), implementation.name());
+            assertEquals("2", roomShelf.findEligibleOrder(TemperatureZone.HOT).getId(), implementation.name());
+
+            // Also over a lowered capacity, and when restored
+            roomShelf.setCapacity(1);
+            assertTrue(roomShelf.restore("2", new Order("2", "Food2", "ROOM", 20), 0, Long.MAX_VALUE),
+                    implementation.name());
+            assertEquals(2, roomShelf.size(), implementation.name());
+            assertNull(roomShelf.findEligibleOrder(TemperatureZone.HOT));
+            assertFalse(roomShelf.put("3", new Order("3", "Food3", "ROOM", 20)), implementation.name());
+
+            assertTrue(roomShelf.remove("1"));
+            assertFalse(roomShelf.remove("1"), implementation.name());
+            assertTrue(roomShelf.remove("2"));
+            assertEquals(0, roomShelf.size(), implementation.name());
+        }
+    }
+}
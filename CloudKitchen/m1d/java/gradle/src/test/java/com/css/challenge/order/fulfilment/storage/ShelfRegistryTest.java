@@ -0,0 +1,66 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShelfRegistryTest {
+
+    @Test
+    void testParseTopologyAndFallbacks() {
+        ShelfRegistry registry = ShelfRegistry.parse("hot=2+3,cold=1,frozen=1,room=4+4", "frozen=cold>room",
+                ShelfImplementation.SYNCHRONIZED);
+
+        assertEquals(2, registry.getShelves(TemperatureZone.HOT).length);
+        assertEquals(2, registry.getShelves(TemperatureZone.ROOM).length);
+        assertEquals(6, registry.getAllShelves().size());
+        assertArrayEquals(new TemperatureZone[]{TemperatureZone.COLD, TemperatureZone.ROOM},
+                registry.getFallbacks(TemperatureZone.FROZEN));
+        assertArrayEquals(new TemperatureZone[]{TemperatureZone.ROOM}, registry.getFallbacks(TemperatureZone.HOT));
+        assertEquals(0, registry.getFallbacks(TemperatureZone.ROOM).length);
+    }
+
+    @Test
+    void testSetCapacityKeepsResidentOrders() {
+        for (ShelfImplementation implementation : ShelfImplementation.values()) {
+            ShelfRegistry registry = ShelfRegistry.standard(2, 2, 2, implementation);
+            registry.put(TemperatureZone.HOT, "1", new Order("1", "Food1", "hot", 10));
+            registry.put(TemperatureZone.HOT, "2", new Order("2", "Food2", "hot", 10));
+
+            registry.setCapacity(TemperatureZone.HOT, 1);
+            assertFalse(registry.hasSpace(TemperatureZone.HOT), implementation.name());
+            assertNull(registry.put(TemperatureZone.HOT, "3", new Order("3", "Food3", "hot", 10)));
+            ShelfStorage hotShelf = registry.getShelves(TemperatureZone.HOT)[0];
+            assertTrue(hotShelf.containsOrder("1") && hotShelf.containsOrder("2"), implementation.name());
+
+            registry.setCapacity(TemperatureZone.HOT, 3);
+            assertNotNull(registry.put(TemperatureZone.HOT, "3", new Order("3", "Food3", "hot", 10)));
+            assertEquals(3, hotShelf.size());
+            assertThrows(IllegalArgumentException.class, () -> registry.setCapacity(TemperatureZone.HOT, -1));
+        }
+    }
+
+    @Test
+    void testParseRejectsUnknownZone() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ShelfRegistry.parse("hot=1,ambient=2", "", ShelfImplementation.SYNCHRONIZED));
+    }
+
+    @Test
+    void testPutRotatesAcrossShelvesOfZone() {
+        ShelfRegistry registry = ShelfRegistry.builder(ShelfImplementation.SYNCHRONIZED)
+                .shelf(TemperatureZone.HOT, 2)
+                .shelf(TemperatureZone.HOT, 2)
+                .build();
+        ShelfStorage first = registry.put(TemperatureZone.HOT, "1", new Order("1", "Food1", "hot", 10));
+        ShelfStorage second = registry.put(TemperatureZone.HOT, "2", new Order("2", "Food2", "hot", 10));
+        assertNotSame(first, second);
+
+        registry.put(TemperatureZone.HOT, "3", new Order("3", "Food3", "hot", 10));
+        registry.put(TemperatureZone.HOT, "4", new Order("4", "Food4", "hot", 10));
+        assertNull(registry.put(TemperatureZone.HOT, "5", new Order("5", "Food5", "hot", 10)));
+        assertNull(registry.put(TemperatureZone.COLD, "6", new Order("6", "Food6", "cold", 10)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.css.challenge.order.fulfilment.storage;
 
 import com.css.challenge.client.Order;
+import com.css.challenge.client.TemperatureZone;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -68,6 +69,19 @@ class ShelfTest {
         assertEquals(hotOrder.getId(), eligibleOrder.getId());
     }
 
+    @Test
+    void testFindEligibleOrderByIdealZone() {
+        roomShelf.put(hotOrder.getId(), hotOrder);
+        roomShelf.put(coldOrder.getId(), coldOrder);
+
+        assertEquals(hotOrder.getId(), roomShelf.findEligibleOrder(TemperatureZone.HOT).getId());
+        assertEquals(coldOrder.getId(), roomShelf.findEligibleOrder(TemperatureZone.COLD).getId());
+        assertNull(roomShelf.findEligibleOrder(TemperatureZone.FROZEN));
+
+        roomShelf.remove(hotOrder.getId());
+        assertNull(roomShelf.findEligibleOrder(TemperatureZone.HOT));
+    }
+
     @Test
     void testEvictStaleOrder() throws InterruptedException {
         roomShelf.put(hotOrder.getId(), hotOrder);
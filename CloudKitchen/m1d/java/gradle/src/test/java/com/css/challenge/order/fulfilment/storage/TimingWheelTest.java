@@ -0,0 +1,130 @@
+package com.css.challenge.order.fulfilment.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void testOrdersSharingExpiryAreAllKept() {
+        TimingWheel<String> wheel = new TimingWheel<>(1);
+        wheel.add("1", 1_000L);
+        TimingWheel.Node<String> second = wheel.add("2", 1_000L);
+        wheel.add("3", 1_000L);
+
+        assertEquals(3, wheel.size());
+        assertTrue(wheel.cancel(second));
+        assertFalse(wheel.cancel(second));
+        assertEquals(2, wheel.size());
+        assertEquals(1_000L, wheel.pollFirst().expiry());
+        assertEquals(1_000L, wheel.pollFirst().expiry());
+        assertNull(wheel.pollFirst());
+    }
+
+    @Test
+    void testEarliestAcrossLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(10);
+        long now = 1_700_000_000_000L;
+        wheel.add("far", now + 3_600_000L);
+        wheel.add("near", now + 5_000L);
+        wheel.add("beyond", now + 30L * 24 * 3_600_000L);
+        wheel.add("overdue", now - 1_000L);
+
+        assertEquals("overdue", wheel.pollFirst().value());
+        assertEquals("near", wheel.pollFirst().value());
+        assertEquals("far", wheel.pollFirst().value());
+        assertEquals("beyond", wheel.pollFirst().value());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void testEarlierEntriesAfterPeek() {
+        TimingWheel<String> wheel = new TimingWheel<>(10);
+        long now = 1_700_000_000_000L;
+        wheel.add("long", now + 600_000L);
+        // Moves the wheel ten minutes ahead to the only entry
+        assertEquals("long", wheel.peekFirst().value());
+        for (int i = 0; i < 1_000; i++) {
+            wheel.add("short" + i, now + 1_000L + i * 10L);
+        }
+
+        assertEquals("short0", wheel.peekFirst().value());
+        // Each short entry has the bucket of its own tick rather than sharing that of the long one
+        List<String> due = new ArrayList<>();
+        assertEquals(1, wheel.pollDue(now + 1_009L, 10, due::add));
+        assertEquals(List.of("short0"), due);
+        for (int i = 1; i < 1_000; i++) {
+            assertEquals("short" + i, wheel.pollFirst().value());
+        }
+        assertEquals("long", wheel.pollFirst().value());
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    void testMatchesSortedReference() {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(7);
+        Comparator<TimingWheel.Node<Integer>> order = Comparator.<TimingWheel.Node<Integer>>comparingLong(TimingWheel.Node::expiry)
+                .thenComparing(TimingWheel.Node::value);
+        TreeSet<TimingWheel.Node<Integer>> reference = new TreeSet<>(order);
+        List<TimingWheel.Node<Integer>> live = new ArrayList<>();
+        long now = 1_700_000_000_000L;
+
+        for (int i = 0; i < 50_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || reference.isEmpty()) {
+                long expiry = now + (long) (random.nextDouble() * random.nextDouble() * 10_000_000L);
+                TimingWheel.Node<Integer> node = wheel.add(i, expiry);
+                reference.add(node);
+                live.add(node);
+            } else if (operation < 8) {
+                TimingWheel.Node<Integer> node = live.remove(random.nextInt(live.size()));
+                if (reference.remove(node)) {
+                    assertTrue(wheel.cancel(node));
+                } else {
+                    assertFalse(wheel.cancel(node));
+                }
+            } else {
+                TimingWheel.Node<Integer> node = wheel.pollFirst();
+                assertEquals(reference.first().expiry(), node.expiry());
+                assertTrue(reference.remove(node));
+                now = node.expiry();
+            }
+            assertEquals(reference.size(), wheel.size());
+        }
+    }
+
+    @Test
+    void testPollDue() {
+        TimingWheel<String> wheel = TimingWheel.schedule(10, 1_000);
+        // Added first, but does not hold back the earlier entries added after it
+        wheel.add("late", 100_000);
+        for (int i = 0; i < 5; i++) {
+            wheel.add("a" + i, 1_005);
+        }
+        wheel.add("b", 1_015);
+
+        List<String> due = new ArrayList<>();
+        // The tick of a is not over yet
+        assertEquals(0, wheel.pollDue(1_008, 10, due::add));
+        assertEquals(3, wheel.pollDue(1_009, 3, due::add));
+        assertEquals(2, wheel.pollDue(1_009, 10, due::add));
+        assertEquals(5, due.stream().filter(value -> value.startsWith("a")).count());
+        assertEquals(1, wheel.pollDue(50_000, 10, due::add));
+        assertEquals("b", due.get(5));
+        assertEquals(1, wheel.size());
+        // The far entry was not cascaded ahead of now, so an entry added next is due on its own tick
+        wheel.add("soon", 50_015);
+        assertEquals(0, wheel.pollDue(50_015, 10, due::add));
+        assertEquals(1, wheel.pollDue(50_019, 10, due::add));
+        assertEquals("soon", due.get(6));
+        assertEquals("late", wheel.peekFirst().value());
+    }
+}